@@ -1,6 +1,7 @@
 package dev.plytki.pterodactyl.app;
 
 import dev.plytki.pterodactyl.app.data.Settings;
+import dev.plytki.pterodactyl.app.net.HttpClients;
 import okhttp3.*;
 
 import java.io.IOException;
@@ -12,7 +13,7 @@ public class APIClient {
 
     public APIClient(Settings settings) {
         this.settings = settings;
-        this.client = new OkHttpClient.Builder().build();
+        this.client = HttpClients.shared();
     }
 
     public Response getUserInfo() throws IOException {
@@ -27,8 +28,34 @@ public class APIClient {
     }
 
     public Response getServerInfo() throws IOException {
+        return getServerInfo(1);
+    }
+
+    public Response getWebSocketDetails(String serverId) throws IOException {
+        Request request = new Request.Builder()
+                .url(settings.getURLPrefix() + settings.hostname() + "/api/client/servers/" + serverId + "/websocket")
+                .get()
+                .addHeader("Accept", "application/json")
+                .addHeader("Authorization", "Bearer " + settings.apiKey())
+                .build();
+
+        return client.newCall(request).execute();
+    }
+
+    public Response getServerResources(String serverId) throws IOException {
+        Request request = new Request.Builder()
+                .url(settings.getURLPrefix() + settings.hostname() + "/api/client/servers/" + serverId + "/resources")
+                .get()
+                .addHeader("Accept", "application/json")
+                .addHeader("Authorization", "Bearer " + settings.apiKey())
+                .build();
+
+        return client.newCall(request).execute();
+    }
+
+    public Response getServerInfo(int page) throws IOException {
         Request request = new Request.Builder()
-                .url(settings.getURLPrefix() + settings.hostname() + "/api/client")
+                .url(settings.getURLPrefix() + settings.hostname() + "/api/client?page=" + page)
                 .get()
                 .addHeader("Accept", "application/json")
                 .addHeader("Authorization", "Bearer " + settings.apiKey())
@@ -0,0 +1,218 @@
+package dev.plytki.pterodactyl.app;
+
+import dev.plytki.pterodactyl.app.data.Options;
+import dev.plytki.pterodactyl.app.data.Server;
+import dev.plytki.pterodactyl.app.listener.Subscription;
+
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Decides which servers keep a live WebSocket. A server is streamed while
+ * something holds a lease on it: its row being on screen, it being pinned in
+ * the configuration, or an open management window. Once the last lease is
+ * released the connection is parked, that is disconnected, after a grace
+ * period, so scrolling past a server does not tear its socket down and open
+ * it again. At most {@code connection.max.handshakes} connections are opened
+ * at the same time, reconnect attempts included; the others wait in line in
+ * the order they were leased or became due.
+ */
+public final class ConnectionManager {
+
+    private static Options options = new Options();
+    private static ConnectionManager shared;
+
+    private final long graceMillis;
+    private final int maxHandshakes;
+    private final Set<String> pinned;
+    private final ScheduledExecutorService scheduler;
+    private final Map<ServerConnection, Attachment> attachments = new HashMap<>();
+    private final Set<ServerConnection> waiting = new LinkedHashSet<>();
+    private int handshakes;
+
+    /**
+     * Constructs a ConnectionManager with the given options.
+     *
+     * @param options The application options.
+     */
+    public ConnectionManager(Options options) {
+        this.graceMillis = Math.max(0, options.getConnectionParkGraceSeconds()) * 1000;
+        this.maxHandshakes = Math.max(1, options.getConnectionMaxHandshakes());
+        this.pinned = options.getConnectionPinned();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-manager");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Sets the options used to build the shared manager. Should be called
+     * once, before the first lease.
+     *
+     * @param options The application options.
+     */
+    public static synchronized void configure(Options options) {
+        ConnectionManager.options = options;
+        shared = null;
+    }
+
+    /**
+     * Returns the shared manager, building it on first use.
+     *
+     * @return The shared manager.
+     */
+    public static synchronized ConnectionManager shared() {
+        if (shared == null) {
+            shared = new ConnectionManager(options);
+        }
+        return shared;
+    }
+
+    /**
+     * Returns whether the configuration pins the given server, by identifier
+     * or UUID.
+     *
+     * @param server The server.
+     * @return true if the server should always be streamed.
+     */
+    public boolean isPinned(Server server) {
+        return pinned.contains(server.getIdentifier()) || pinned.contains(server.getUuid());
+    }
+
+    /**
+     * Takes a lease on a server's connection, connecting it if it is not
+     * connected yet and cancelling a pending park.
+     *
+     * @param server The server.
+     * @return The lease, which must be unsubscribed once the server no longer needs to be streamed.
+     */
+    public Subscription acquire(Server server) {
+        ServerConnection connection = server.getConnection();
+        synchronized (this) {
+            Attachment attachment = attachments.computeIfAbsent(connection, c -> new Attachment());
+            attachment.leases++;
+            if (attachment.park != null) {
+                attachment.park.cancel(false);
+                attachment.park = null;
+            }
+            if (connection.needsHandshake()) {
+                waiting.add(connection);
+                startHandshakes();
+            }
+        }
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                release(connection);
+            }
+        };
+    }
+
+    /**
+     * Queues a reconnect attempt whose delay has passed behind the other
+     * handshakes. A connection without a lease is left to its pending park;
+     * it is queued again if it is leased before that.
+     *
+     * @param connection The connection.
+     */
+    synchronized void requestHandshake(ServerConnection connection) {
+        Attachment attachment = attachments.get(connection);
+        if (attachment != null && attachment.leases > 0) {
+            waiting.add(connection);
+            startHandshakes();
+        }
+    }
+
+    /**
+     * Drops a connection that was closed for good, together with its leases
+     * and any pending park or handshake.
+     *
+     * @param connection The connection.
+     */
+    synchronized void forget(ServerConnection connection) {
+        Attachment attachment = attachments.remove(connection);
+        if (attachment != null && attachment.park != null) {
+            attachment.park.cancel(false);
+        }
+        waiting.remove(connection);
+    }
+
+    /**
+     * Returns the number of connections with at least one lease or a pending
+     * park.
+     *
+     * @return The attached connection count.
+     */
+    public synchronized int getAttachedCount() {
+        return attachments.size();
+    }
+
+    /**
+     * Returns the number of handshakes in progress.
+     *
+     * @return The handshake count.
+     */
+    public synchronized int getHandshakeCount() {
+        return handshakes;
+    }
+
+    /**
+     * Returns the number of connections waiting for a handshake slot.
+     *
+     * @return The waiting connection count.
+     */
+    public synchronized int getWaitingCount() {
+        return waiting.size();
+    }
+
+    private synchronized void release(ServerConnection connection) {
+        Attachment attachment = attachments.get(connection);
+        if (attachment == null || --attachment.leases > 0) {
+            return;
+        }
+        waiting.remove(connection);
+        attachment.park = scheduler.schedule(() -> park(connection, attachment), graceMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void park(ServerConnection connection, Attachment attachment) {
+        if (attachments.get(connection) == attachment && attachment.leases == 0) {
+            attachments.remove(connection);
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Starts handshakes for waiting connections while there are free slots.
+     * A slot is freed when the handshake completes, fails or is cancelled.
+     */
+    private synchronized void startHandshakes() {
+        while (handshakes < maxHandshakes && !waiting.isEmpty()) {
+            Iterator<ServerConnection> iterator = waiting.iterator();
+            ServerConnection connection = iterator.next();
+            iterator.remove();
+            if (!connection.needsHandshake()) {
+                continue;
+            }
+            handshakes++;
+            connection.connect().whenComplete((ignored, e) -> handshakeFinished());
+        }
+    }
+
+    private synchronized void handshakeFinished() {
+        handshakes--;
+        startHandshakes();
+    }
+
+    /**
+     * The leases held on one connection.
+     */
+    private static class Attachment {
+        private int leases;
+        private ScheduledFuture<?> park;
+    }
+}
@@ -0,0 +1,288 @@
+package dev.plytki.pterodactyl.app;
+
+import com.google.gson.Gson;
+import dev.plytki.pterodactyl.app.data.Options;
+import dev.plytki.pterodactyl.app.data.ResourcesResponse;
+import dev.plytki.pterodactyl.app.data.Server;
+import dev.plytki.pterodactyl.app.data.ServerResponse;
+import dev.plytki.pterodactyl.app.data.Statistics;
+import dev.plytki.pterodactyl.app.listener.Subscription;
+import dev.plytki.pterodactyl.app.net.IoExecutor;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Low-fidelity statistics for servers that are listed but not streamed. The
+ * poller requests the REST resources endpoint of such servers in small
+ * batches, one batch every {@code resources.poll.batch.interval} seconds over
+ * the shared HTTP client, and publishes the results through
+ * {@link ServerConnection#publishPolledStatistics}, so the UI sees the same
+ * statistics and events as from a WebSocket. Servers whose WebSocket is open
+ * or opening are skipped; when it is parked, polling takes over again.
+ * <p>
+ * The schedule adapts: running servers are polled every
+ * {@code resources.poll.interval} seconds, servers that are offline four times
+ * less often, and failing servers back off exponentially. The panel's rate
+ * limit headers are honoured: a 429 pauses polling for its Retry-After, and
+ * polling slows down while less than a quarter of the limit is left, which
+ * keeps room for the requests the user makes.
+ */
+public final class ResourcePoller {
+
+    private static final int OFFLINE_FACTOR = 4;
+    private static final long MAX_BACKOFF_SECONDS = 600;
+    private static final long RATE_LIMIT_PAUSE_SECONDS = 15;
+
+    private static Options options = new Options();
+    private static ResourcePoller shared;
+
+    private final Gson gson = new Gson();
+    private final boolean enabled;
+    private final long intervalNanos;
+    private final int batchSize;
+    private final long batchIntervalSeconds;
+    private final Map<Server, Target> targets = new LinkedHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Constructs a ResourcePoller with the given options. The poller starts
+     * with the first tracked server.
+     *
+     * @param options The application options.
+     */
+    public ResourcePoller(Options options) {
+        this.enabled = options.isResourcesPollEnabled();
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(Math.max(1, options.getResourcesPollInterval()));
+        this.batchSize = Math.max(1, options.getResourcesPollBatchSize());
+        this.batchIntervalSeconds = Math.max(1, options.getResourcesPollBatchInterval());
+    }
+
+    /**
+     * Sets the options used to build the shared poller. Should be called once,
+     * before the first server is tracked.
+     *
+     * @param options The application options.
+     */
+    public static synchronized void configure(Options options) {
+        ResourcePoller.options = options;
+        shared = null;
+    }
+
+    /**
+     * Returns the shared poller, building it on first use.
+     *
+     * @return The shared poller.
+     */
+    public static synchronized ResourcePoller shared() {
+        if (shared == null) {
+            shared = new ResourcePoller(options);
+        }
+        return shared;
+    }
+
+    /**
+     * Starts polling a server whenever it is not streamed.
+     *
+     * @param server The server.
+     * @return The registration, which must be unsubscribed when the server is no longer listed.
+     */
+    public Subscription track(Server server) {
+        if (!enabled) {
+            return () -> {
+            };
+        }
+        synchronized (this) {
+            targets.put(server, new Target(server));
+            if (scheduler == null) {
+                scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "resource-poller");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                scheduler.schedule(this::tick, 0, TimeUnit.SECONDS);
+            }
+        }
+        AtomicBoolean removed = new AtomicBoolean();
+        return () -> {
+            if (removed.compareAndSet(false, true)) {
+                synchronized (this) {
+                    targets.remove(server);
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns the number of tracked servers.
+     *
+     * @return The tracked server count.
+     */
+    public synchronized int getTrackedCount() {
+        return targets.size();
+    }
+
+    /**
+     * Polls one batch of due servers and schedules the next batch.
+     */
+    private void tick() {
+        long pauseSeconds = batchIntervalSeconds;
+        try {
+            List<Target> batch = nextBatch(System.nanoTime());
+            List<CompletableFuture<Result>> results = new ArrayList<>(batch.size());
+            for (Target target : batch) {
+                results.add(IoExecutor.application().supply(() -> poll(target.server)));
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                Result result;
+                try {
+                    result = results.get(i).join();
+                } catch (RuntimeException e) {
+                    System.err.println("Failed to poll resources of " + batch.get(i).server.getIdentifier() + ": " + e.getMessage());
+                    result = Result.FAILED;
+                }
+                batch.get(i).reschedule(result, System.nanoTime());
+                pauseSeconds = Math.max(pauseSeconds, getPause(result));
+            }
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        } finally {
+            scheduler.schedule(this::tick, pauseSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Picks the servers that are due and not streamed, most overdue first.
+     *
+     * @param now The current time, from {@link System#nanoTime()}.
+     * @return At most one batch of servers.
+     */
+    private synchronized List<Target> nextBatch(long now) {
+        List<Target> due = new ArrayList<>();
+        for (Target target : targets.values()) {
+            ServerConnection connection = target.server.getExistingConnection();
+            if (now - target.nextDue >= 0 && (connection == null || !connection.isActive())) {
+                due.add(target);
+            }
+        }
+        due.sort(Comparator.comparingLong(target -> target.nextDue - now));
+        return new ArrayList<>(due.subList(0, Math.min(batchSize, due.size())));
+    }
+
+    /**
+     * Returns how long to wait before the next batch, given one poll result.
+     *
+     * @param result The result.
+     * @return The pause in seconds.
+     */
+    private long getPause(Result result) {
+        if (result.retryAfterSeconds > 0) {
+            return result.retryAfterSeconds;
+        }
+        if (result.rateLimit > 0 && result.rateLimitRemaining >= 0 && result.rateLimitRemaining <= result.rateLimit / 4) {
+            return RATE_LIMIT_PAUSE_SECONDS;
+        }
+        return batchIntervalSeconds;
+    }
+
+    /**
+     * Requests the resources of one server and publishes them. Runs on the IO
+     * executor.
+     *
+     * @param server The server.
+     * @return The outcome, with the rate limit state reported by the panel.
+     * @throws IOException If the request fails.
+     */
+    private Result poll(Server server) throws IOException {
+        try (Response response = new APIClient(server.getSettings()).getServerResources(server.getIdentifier())) {
+            int rateLimit = parseHeader(response, "X-RateLimit-Limit");
+            int remaining = parseHeader(response, "X-RateLimit-Remaining");
+            if (response.code() == 429) {
+                int retryAfter = parseHeader(response, "Retry-After");
+                return new Result(null, rateLimit, 0, retryAfter > 0 ? retryAfter : 60);
+            }
+            if (!response.isSuccessful()) {
+                System.err.println("Failed to poll resources of " + server.getIdentifier() + ": " + response.code());
+                return new Result(null, rateLimit, remaining, 0);
+            }
+            ResourcesResponse resources = gson.fromJson(response.body().string(), ResourcesResponse.class);
+            if (resources == null || resources.attributes == null || resources.attributes.resources == null) {
+                return new Result(null, rateLimit, remaining, 0);
+            }
+            String state = resources.attributes.current_state;
+            server.getConnection().publishPolledStatistics(toStatistics(server, resources.attributes));
+            return new Result(state != null ? state : "", rateLimit, remaining, 0);
+        }
+    }
+
+    private static Statistics toStatistics(Server server, ResourcesResponse.ResourcesAttributes attributes) {
+        ResourcesResponse.Resources resources = attributes.resources;
+        ServerResponse.Limits limits = server.getLimits();
+        long memoryLimitBytes = limits != null ? limits.memory * 1024L * 1024L : 0;
+        Statistics.Network network = new Statistics.Network(resources.network_rx_bytes, resources.network_tx_bytes);
+        return new Statistics(resources.memory_bytes, memoryLimitBytes, resources.cpu_absolute, network,
+                attributes.current_state != null ? attributes.current_state : "", resources.disk_bytes);
+    }
+
+    private static int parseHeader(Response response, String name) {
+        String value = response.header(name);
+        if (value == null) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * The outcome of one poll.
+     *
+     * @param state              The server state, or null if the poll failed.
+     * @param rateLimit          The panel's request limit, or -1 if not reported.
+     * @param rateLimitRemaining The requests left in the current window, or -1 if not reported.
+     * @param retryAfterSeconds  How long the panel asked to wait, or 0 if it was not rate limited.
+     */
+    private record Result(String state, int rateLimit, int rateLimitRemaining, int retryAfterSeconds) {
+        private static final Result FAILED = new Result(null, -1, -1, 0);
+    }
+
+    /**
+     * A tracked server with its polling schedule. Only touched by the poller
+     * thread once created.
+     */
+    private class Target {
+        private final Server server;
+        private long nextDue = System.nanoTime();
+        private int failures;
+
+        private Target(Server server) {
+            this.server = server;
+        }
+
+        private void reschedule(Result result, long now) {
+            if (result.retryAfterSeconds > 0) {
+                return;
+            }
+            if (result.state == null) {
+                failures++;
+                long backoff = Math.min(TimeUnit.SECONDS.toNanos(MAX_BACKOFF_SECONDS), intervalNanos << Math.min(failures, 10));
+                nextDue = now + backoff;
+                return;
+            }
+            failures = 0;
+            boolean online = switch (result.state) {
+                case "running", "starting", "stopping" -> true;
+                default -> false;
+            };
+            nextDue = now + (online ? intervalNanos : intervalNanos * OFFLINE_FACTOR);
+        }
+    }
+}
@@ -1,40 +1,106 @@
 package dev.plytki.pterodactyl.app;
 
 import com.google.gson.*;
+import dev.plytki.pterodactyl.app.console.AnsiParser;
+import dev.plytki.pterodactyl.app.console.AnsiStripper;
+import dev.plytki.pterodactyl.app.console.ConsoleBacklog;
+import dev.plytki.pterodactyl.app.console.ConsoleSpool;
+import dev.plytki.pterodactyl.app.console.LineSource;
+import dev.plytki.pterodactyl.app.console.ReplayReconciler;
+import dev.plytki.pterodactyl.app.console.StyledLine;
+import dev.plytki.pterodactyl.app.data.Options;
 import dev.plytki.pterodactyl.app.data.Server;
 import dev.plytki.pterodactyl.app.data.Statistics;
+import dev.plytki.pterodactyl.app.data.StatsHistory;
+import dev.plytki.pterodactyl.app.event.ConnectionStateEvent;
 import dev.plytki.pterodactyl.app.event.ConsoleLogEvent;
 import dev.plytki.pterodactyl.app.event.StatsEvent;
+import dev.plytki.pterodactyl.app.listener.ConnectionStateListener;
 import dev.plytki.pterodactyl.app.listener.ConsoleLogListener;
+import dev.plytki.pterodactyl.app.listener.ListenerRegistry;
 import dev.plytki.pterodactyl.app.listener.StatsListener;
+import dev.plytki.pterodactyl.app.listener.Subscription;
+import dev.plytki.pterodactyl.app.net.FrameDecoder;
+import dev.plytki.pterodactyl.app.net.FramePipeline;
+import dev.plytki.pterodactyl.app.net.IoExecutor;
+import dev.plytki.pterodactyl.app.net.IoScope;
+import dev.plytki.pterodactyl.app.net.WebSocketTraffic;
+import dev.plytki.pterodactyl.app.net.WebSocketTransport;
+import dev.plytki.pterodactyl.app.net.WebSocketTransports;
 import lombok.Getter;
-import okhttp3.*;
-import org.java_websocket.client.WebSocketClient;
-import org.java_websocket.handshake.ServerHandshake;
-import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.ArrayList;
-import java.util.List;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Handles the connection to a Pterodactyl server, including WebSocket communication,
  * event dispatching, and listener registration.
+ * <p>
+ * Constructing a connection does not open a socket. The WebSocket is opened by
+ * {@link #connect()} and closed again by {@link #disconnect()}, which keeps the
+ * console history and listeners, so a parked connection can be resumed;
+ * {@link ConnectionManager} decides when. {@link #closeWebSocket()} ends the
+ * connection for good.
+ * <p>
+ * While connected, a socket that fails or closes is reopened automatically:
+ * each attempt fetches a fresh token and authenticates again, after a delay
+ * that doubles with every consecutive failure up to
+ * {@code connection.reconnect.max.millis}. Half of each delay is random, so
+ * the servers of a node that went down do not all reconnect at once. Once the
+ * delay has passed, the attempt waits for a handshake slot of the
+ * {@link ConnectionManager} like a first connection does. The current
+ * {@link State} is published to {@link ConnectionStateListener}s.
  */
 public class ServerConnection {
 
+    private static final int REPLAY_WINDOW = 1024;
+    private static final long REPLAY_HOLD_MILLIS = 1000;
+
     private final Gson gson = new GsonBuilder().setPrettyPrinting().create();
-    private WebSocketClient webSocketClient;
-    private final List<StatsListener> statsListeners = new ArrayList<>();
-    private final List<ConsoleLogListener> consoleLogListeners = new ArrayList<>();
+    private volatile WebSocketTransport.Session webSocket;
+    private final ListenerRegistry<StatsListener> statsListeners = new ListenerRegistry<>();
+    private final ListenerRegistry<ConsoleLogListener> consoleLogListeners = new ListenerRegistry<>();
+    private final ListenerRegistry<ConnectionStateListener> stateListeners = new ListenerRegistry<>();
     private final Server server;
+    private final AnsiParser ansiParser;
+    private final FrameDecoder frameDecoder = new FrameDecoder();
+    private final FrameDecoder.Handler frameHandler;
+    private final ReplayReconciler replayReconciler;
+    private boolean replaySeeded;
+    private boolean replayFlushScheduled;
+    private final long reconnectInitialDelay;
+    private final long reconnectMaxDelay;
+    private IoScope scope;
+    private CompletableFuture<Void> opened;
+    private int attempt;
+    private int dueAttempt;
+    private int failures;
+    private Subscription tokenRefresh;
+    private String token;
+    private boolean closed;
 
     @Getter
-    private final List<String> consoleLog = new ArrayList<>();
+    private final ConsoleBacklog consoleLog;
+    @Getter
+    private final ConsoleSpool consoleSpool;
+    @Getter
+    private final FramePipeline pipeline;
+    @Getter
+    private volatile Statistics lastStatistics = new Statistics();
+    @Getter
+    private final StatsHistory statsHistory;
+    @Getter
+    private volatile State state = State.DISCONNECTED;
     @Getter
-    private Statistics lastStatistics = new Statistics();
+    private final WebSocketTraffic traffic = new WebSocketTraffic();
 
     /**
      * Constructor to initialize the ServerConnection with a given server.
@@ -43,33 +109,229 @@ public class ServerConnection {
      */
     public ServerConnection(Server server) {
         this.server = server;
-        connectToWebSocket(server.getIdentifier());
+        Options options = server.getSettings().options();
+        this.consoleLog = new ConsoleBacklog(options.getConsoleMaxLines(), options.getConsoleMaxBytes(), options.getConsoleEviction());
+        this.ansiParser = options.isConsoleColors() ? new AnsiParser() : null;
+        this.consoleSpool = options.isConsoleSpoolEnabled()
+                ? new ConsoleSpool(Path.of(options.getConsoleSpoolDirectory(), server.getUuid()), options.getConsoleSpoolSegmentBytes(), options.getConsoleSpoolSegments())
+                : null;
+        this.frameHandler = createFrameHandler(server.getIdentifier());
+        this.statsHistory = new StatsHistory(Math.max(1, options.getStatsHistorySeconds()),
+                Math.max(1, options.getStatsHistoryMinutes()), Math.max(1, options.getStatsHistoryHours()));
+        this.replayReconciler = new ReplayReconciler(Math.min(REPLAY_WINDOW, options.getConsoleMaxLines()));
+        this.reconnectInitialDelay = Math.max(1, options.getConnectionReconnectInitialMillis());
+        this.reconnectMaxDelay = Math.max(reconnectInitialDelay, options.getConnectionReconnectMaxMillis());
+        this.pipeline = new FramePipeline(options.getPipelineFrameCapacity(), options.getPipelineConsoleCapacity(), options.getPipelineConsoleOverflow(),
+                this::handleMessage, new FramePipeline.Dispatcher() {
+                    @Override
+                    public void dispatchStats(Statistics statistics) {
+                        dispatchEvent(new StatsEvent(ServerConnection.this, server, statistics));
+                    }
+
+                    @Override
+                    public void dispatchConsole(String line) {
+                        dispatchEvent(new ConsoleLogEvent(ServerConnection.this, server, line));
+                    }
+                });
+    }
+
+    /**
+     * Opens the WebSocket, or starts the reconnect attempt whose delay has
+     * passed, unless the socket is already open or opening. The work runs in
+     * a scope of its own, which {@link #disconnect()} closes.
+     *
+     * @return A future completed once the socket of the current attempt is
+     * open, or completed exceptionally if that attempt failed.
+     */
+    public CompletableFuture<Void> connect() {
+        IoScope connecting;
+        CompletableFuture<Void> result;
+        int generation;
+        synchronized (this) {
+            if (closed) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Connection is closed"));
+            }
+            if (scope == null) {
+                scope = IoExecutor.newScope("server-" + server.getIdentifier());
+                opened = new CompletableFuture<>();
+                failures = 0;
+                ++attempt;
+            } else if (dueAttempt != attempt) {
+                return opened;
+            }
+            dueAttempt = 0;
+            generation = attempt;
+            connecting = scope;
+            result = opened;
+            state = State.CONNECTING;
+        }
+        dispatchEvent(new ConnectionStateEvent(this, server, State.CONNECTING, 0));
+        connectToWebSocket(connecting, generation);
+        return result;
+    }
+
+    /**
+     * Returns whether the connection waits for a handshake: it is not
+     * connected at all, or the delay before its next reconnect attempt has
+     * passed.
+     *
+     * @return true if {@link #connect()} would start a connection attempt.
+     */
+    synchronized boolean needsHandshake() {
+        return !closed && (scope == null || dueAttempt == attempt);
+    }
+
+    /**
+     * Closes the WebSocket and cancels any network work for it, keeping
+     * everything needed to {@link #connect()} again.
+     */
+    public void disconnect() {
+        IoScope closing;
+        CompletableFuture<Void> attempt;
+        WebSocketTransport.Session session;
+        State newState;
+        Subscription refresh;
+        synchronized (this) {
+            newState = closed ? State.CLOSED : State.DISCONNECTED;
+            if (scope == null) {
+                if (state == newState) {
+                    return;
+                }
+                closing = null;
+                attempt = null;
+                session = null;
+            } else {
+                closing = scope;
+                attempt = opened;
+                session = webSocket;
+                scope = null;
+                opened = null;
+                webSocket = null;
+                dueAttempt = 0;
+            }
+            state = newState;
+            refresh = tokenRefresh;
+            tokenRefresh = null;
+        }
+        // Completion callbacks and listeners may take other locks, so they run outside this one.
+        if (refresh != null) {
+            refresh.unsubscribe();
+        }
+        if (closing != null) {
+            closing.close();
+            attempt.cancel(false);
+        }
+        if (session != null) {
+            session.close();
+        }
+        dispatchEvent(new ConnectionStateEvent(this, server, newState, 0));
+    }
+
+    /**
+     * Publishes statistics polled over REST while the WebSocket is not open.
+     * They take the same path as statistics from the socket. Once the socket
+     * is open its statistics win, and late polling results are dropped.
+     * Polled statistics are not added to the {@link #getStatsHistory() history},
+     * which is only kept for servers with an open socket.
+     *
+     * @param statistics The polled statistics.
+     */
+    public void publishPolledStatistics(Statistics statistics) {
+        synchronized (this) {
+            if (closed || webSocket != null) {
+                return;
+            }
+            lastStatistics = statistics;
+        }
+        pipeline.publishStats(statistics);
+    }
+
+    /**
+     * Returns whether the WebSocket is open or being opened.
+     *
+     * @return true between {@link #connect()} and {@link #disconnect()}.
+     */
+    public synchronized boolean isActive() {
+        return scope != null;
+    }
+
+    /**
+     * Returns the deepest available console history: the disk spool when it is
+     * enabled, otherwise the in-memory backlog.
+     *
+     * @return The console history line source.
+     */
+    public LineSource getConsoleHistory() {
+        return consoleSpool != null ? consoleSpool : consoleLog;
     }
 
     /**
      * Registers a StatsListener to receive statistics events.
      *
      * @param listener The listener to register.
+     * @return The subscription unregistering the listener.
      */
-    public void registerListener(StatsListener listener) {
-        statsListeners.add(listener);
+    public Subscription registerListener(StatsListener listener) {
+        return statsListeners.subscribe(listener);
+    }
+
+    /**
+     * Registers a ConnectionStateListener to be told when the connection
+     * state changes. Events are dispatched on the thread that changed it.
+     *
+     * @param listener The listener to register.
+     * @return The subscription unregistering the listener.
+     */
+    public Subscription registerStateListener(ConnectionStateListener listener) {
+        return stateListeners.subscribe(listener);
     }
 
     /**
      * Registers a ConsoleLogListener to receive console log events.
      *
      * @param listener The listener to register.
+     * @return The subscription unregistering the listener.
+     */
+    public Subscription registerListener(ConsoleLogListener listener) {
+        return consoleLogListeners.subscribe(listener);
+    }
+
+    /**
+     * Registers a StatsListener through a weak reference, so the connection
+     * does not keep it alive.
+     *
+     * @param listener The listener to register.
+     * @return The subscription unregistering the listener.
      */
-    public void registerListener(ConsoleLogListener listener) {
-        consoleLogListeners.add(listener);
+    public Subscription registerWeakListener(StatsListener listener) {
+        return statsListeners.subscribeWeak(listener);
     }
 
     /**
-     * Closes the WebSocket connection.
+     * Registers a ConsoleLogListener through a weak reference, so the
+     * connection does not keep it alive.
+     *
+     * @param listener The listener to register.
+     * @return The subscription unregistering the listener.
+     */
+    public Subscription registerWeakListener(ConsoleLogListener listener) {
+        return consoleLogListeners.subscribeWeak(listener);
+    }
+
+    /**
+     * Closes the WebSocket connection, the frame pipeline and the console spool,
+     * and cancels any network work still running for this server. The
+     * connection cannot be used afterwards.
      */
     public void closeWebSocket() {
-        if (webSocketClient != null) {
-            webSocketClient.close();
+        ConnectionManager.shared().forget(this);
+        synchronized (this) {
+            closed = true;
+        }
+        disconnect();
+        pipeline.close();
+        if (consoleSpool != null) {
+            consoleSpool.close();
         }
     }
 
@@ -79,7 +341,7 @@ public class ServerConnection {
      * @param action The power action to send (e.g., "start", "stop", "restart").
      */
     public void sendPowerAction(String action) {
-        webSocketClient.send("{\"event\":\"set state\",\"args\":[\"" + action + "\"]}");
+        send("{\"event\":\"set state\",\"args\":[\"" + action + "\"]}");
     }
 
     /**
@@ -88,40 +350,196 @@ public class ServerConnection {
      * @param command The command to send.
      */
     public void sendCommand(String command) {
-        webSocketClient.send("{\"event\":\"send command\",\"args\":[\"" + command + "\"]}");
+        send("{\"event\":\"send command\",\"args\":[\"" + command + "\"]}");
     }
 
     /**
-     * Initializes the WebSocket connection with the given token, URL, and server ID.
+     * Sends a message over the WebSocket if it is open.
      *
-     * @param token    The authentication token.
-     * @param url      The WebSocket URL.
-     * @param serverId The server identifier.
+     * @param message The message to send.
+     */
+    private void send(String message) {
+        WebSocketTransport.Session session = webSocket;
+        if (session == null || !session.send(message)) {
+            System.err.println("WebSocket is not connected, dropping message");
+        }
+    }
+
+    /**
+     * Initializes the WebSocket connection with the given token and URL through
+     * the shared transport. Incoming frames are handed to the pipeline so the
+     * transport thread never waits on decoding or listeners. When the pipeline
+     * falls behind, reading from this socket pauses until it has caught up,
+     * which leaves the other sockets of the transport thread unaffected.
+     *
+     * @param credentials The token and WebSocket URL.
+     * @param scope       The scope the connection was opened in.
+     * @param generation  The number of this connection attempt.
      * @throws URISyntaxException If the URL is not a valid URI.
      */
-    private void initializeWebSocket(String token, String url, String serverId) throws URISyntaxException {
-        webSocketClient = new WebSocketClient(new URI(url)) {
+    private void initializeWebSocket(TokenManager.Credentials credentials, IoScope scope, int generation) throws URISyntaxException {
+        WebSocketTransport.Session connecting = WebSocketTransports.shared().connect(new URI(credentials.socketUrl()), Map.of(), new WebSocketTransport.Listener() {
+            private WebSocketTransport.Session session;
+
             @Override
-            public void onOpen(ServerHandshake handshake) {
-                authenticateWebSocket(token);
+            public void onOpen(WebSocketTransport.Session session) {
+                this.session = session;
+                CompletableFuture<Void> attemptOpened;
+                Subscription refresh = TokenManager.shared().scheduleRefresh(server, credentials,
+                        renewed -> reauthenticate(scope, generation, renewed));
+                synchronized (ServerConnection.this) {
+                    if (!isCurrent(scope, generation)) {
+                        session.close();
+                        refresh.unsubscribe();
+                        return;
+                    }
+                    webSocket = session;
+                    attemptOpened = opened;
+                    tokenRefresh = refresh;
+                    token = credentials.token();
+                }
+                authenticateWebSocket(credentials.token());
+                pipeline.runAfterReceived(ServerConnection.this::expectReplay);
+                send(getLogsRequest());
+                send(getStatsRequest());
+                attemptOpened.complete(null);
             }
 
             @Override
             public void onMessage(String message) {
-                handleMessage(message, serverId);
+                if (!pipeline.receive(message)) {
+                    session.pauseReading();
+                    pipeline.whenDrained(session::resumeReading);
+                }
             }
 
             @Override
             public void onClose(int code, String reason, boolean remote) {
-                // Handle WebSocket closure if needed
+                connectionLost(scope, generation, new IOException("WebSocket closed: " + code + " " + reason));
             }
 
             @Override
-            public void onError(Exception ex) {
-                // Handle WebSocket error if needed
+            public void onError(Exception e) {
+                System.err.println("WebSocket error: " + e.getMessage());
+                connectionLost(scope, generation, e);
             }
-        };
-        webSocketClient.connect();
+        }, traffic);
+        synchronized (this) {
+            if (!isCurrent(scope, generation)) {
+                connecting.close();
+            } else if (webSocket == null) {
+                webSocket = connecting;
+            }
+        }
+    }
+
+    /**
+     * Returns whether a connection attempt is still the one in progress,
+     * so callbacks of an abandoned attempt can be ignored. Must be called
+     * while holding the lock of this connection.
+     *
+     * @param scope      The scope the attempt was made in.
+     * @param generation The number of the attempt.
+     * @return true if the attempt is current.
+     */
+    private boolean isCurrent(IoScope scope, int generation) {
+        return this.scope == scope && attempt == generation && !scope.isClosed();
+    }
+
+    /**
+     * Schedules a new connection attempt after the current one failed or its
+     * socket closed. The failed attempt's future fails and a new one is
+     * handed out for the next attempt. Only the first report of a failure
+     * counts; later callbacks of the same attempt are ignored.
+     *
+     * @param scope      The scope the attempt was made in.
+     * @param generation The number of the attempt that failed.
+     * @param cause      Why the attempt failed.
+     */
+    private void connectionLost(IoScope scope, int generation, Throwable cause) {
+        WebSocketTransport.Session session;
+        CompletableFuture<Void> attemptOpened;
+        Subscription refresh;
+        int next;
+        long delay;
+        synchronized (this) {
+            if (!isCurrent(scope, generation)) {
+                return;
+            }
+            session = webSocket;
+            webSocket = null;
+            refresh = tokenRefresh;
+            tokenRefresh = null;
+            attemptOpened = opened;
+            opened = new CompletableFuture<>();
+            next = ++attempt;
+            delay = getReconnectDelay(failures++);
+            state = State.RECONNECTING;
+        }
+        if (refresh != null) {
+            refresh.unsubscribe();
+        }
+        if (session != null) {
+            session.close();
+        }
+        attemptOpened.completeExceptionally(cause);
+        System.err.println("Connection to " + server.getIdentifier() + " lost (" + cause.getMessage() + "), reconnecting in " + delay + " ms");
+        dispatchEvent(new ConnectionStateEvent(this, server, State.RECONNECTING, delay));
+        scope.runAfter(delay, TimeUnit.MILLISECONDS, () -> reconnect(scope, next));
+    }
+
+    /**
+     * Queues a scheduled connection attempt for a handshake slot, unless the
+     * connection was disconnected in the meantime. The attempt starts when
+     * the {@link ConnectionManager} calls {@link #connect()}.
+     *
+     * @param scope      The scope the attempt is made in.
+     * @param generation The number of the attempt.
+     */
+    private void reconnect(IoScope scope, int generation) {
+        synchronized (this) {
+            if (!isCurrent(scope, generation)) {
+                return;
+            }
+            dueAttempt = generation;
+        }
+        ConnectionManager.shared().requestHandshake(this);
+    }
+
+    /**
+     * Returns the delay before the next attempt. The ceiling doubles with
+     * every consecutive failure; the delay is between half the ceiling and
+     * the ceiling.
+     *
+     * @param failures The number of consecutive failures so far.
+     * @return The delay in milliseconds.
+     */
+    private long getReconnectDelay(int failures) {
+        long ceiling = Math.min(reconnectMaxDelay, reconnectInitialDelay << Math.min(failures, 20));
+        return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+    }
+
+    /**
+     * Marks the connection as established once the panel accepted the token.
+     */
+    private void handleAuthSuccessEvent() {
+        synchronized (this) {
+            if (webSocket == null || state == State.CONNECTED) {
+                return;
+            }
+            failures = 0;
+            state = State.CONNECTED;
+        }
+        dispatchEvent(new ConnectionStateEvent(this, server, State.CONNECTED, 0));
+    }
+
+    /**
+     * Dispatches a ConnectionStateEvent to all registered ConnectionStateListeners.
+     *
+     * @param event The ConnectionStateEvent to dispatch.
+     */
+    private void dispatchEvent(ConnectionStateEvent event) {
+        stateListeners.forEach(listener -> listener.onEvent(event));
     }
 
     /**
@@ -149,9 +567,7 @@ public class ServerConnection {
      * @return The cleaned log string.
      */
     private String cleanLog(String log) {
-        return log
-                .replaceAll("\\u001B\\[[;\\d]*[A-Za-z]", "")
-                .replaceAll("\\u001B\\[\\?\\d+[lh]", "");
+        return AnsiStripper.strip(log);
     }
 
     /**
@@ -173,136 +589,196 @@ public class ServerConnection {
     }
 
     /**
-     * Fetches a new authentication token for the WebSocket connection.
+     * Connects to the WebSocket of the server. The token and socket URL are
+     * fetched through the {@link TokenManager}, and the socket is opened
+     * within the scope of the connection.
      *
-     * @param serverId The server identifier.
-     * @return The new authentication token.
-     */
-    private String getNewToken(String serverId) {
-        OkHttpClient client = new OkHttpClient();
-        Request request = new Request.Builder()
-                .url(server.getSettings().getURLPrefix() + server.getSettings().hostname() + "/api/client/servers/" + serverId + "/websocket")
-                .addHeader("Accept", "application/json")
-                .addHeader("Authorization", "Bearer " + server.getSettings().apiKey())
-                .build();
-        try (Response response = client.newCall(request).execute()) {
-            if (response.body() != null) {
-                String responseBody = response.body().string();
-                JsonObject jsonObject = JsonParser.parseString(responseBody).getAsJsonObject();
-                JsonObject data = jsonObject.getAsJsonObject("data");
-                return data.get("token").getAsString();
-            }
-            return null;
-        } catch (IOException e) {
-            throw new RuntimeException(e);
-        }
+     * @param scope      The scope the connection was opened in.
+     * @param generation The number of this connection attempt.
+     */
+    private void connectToWebSocket(IoScope scope, int generation) {
+        TokenManager.shared().fetch(server)
+                .thenCompose(credentials -> scope.run(() -> initializeWebSocket(credentials, scope, generation)))
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (!(cause instanceof CancellationException)) {
+                        System.err.println("Failed to open WebSocket: " + cause.getMessage());
+                        connectionLost(scope, generation, cause);
+                    }
+                    return null;
+                });
     }
 
     /**
-     * Connects to the WebSocket using the given server ID.
+     * Creates the handler that routes decoded frames to the event handlers below.
      *
      * @param serverId The server identifier.
+     * @return The frame handler.
      */
-    private void connectToWebSocket(String serverId) {
-        OkHttpClient client = new OkHttpClient();
-        Request request = new Request.Builder()
-                .url(server.getSettings().getURLPrefix() + server.getSettings().hostname() + "/api/client/servers/" + serverId + "/websocket")
-                .addHeader("Accept", "application/json")
-                .addHeader("Authorization", "Bearer " + server.getSettings().apiKey())
-                .build();
+    private FrameDecoder.Handler createFrameHandler(String serverId) {
+        return new FrameDecoder.Handler() {
+            @Override
+            public void onStats(long memoryBytes, long memoryLimitBytes, double cpuAbsolute, long rxBytes, long txBytes, String state, long diskBytes) {
+                handleStatsEvent(memoryBytes, memoryLimitBytes, cpuAbsolute, rxBytes, txBytes, state, diskBytes);
+            }
 
-        client.newCall(request).enqueue(new Callback() {
             @Override
-            public void onFailure(@NotNull Call call, @NotNull IOException e) {
-                System.err.println("Failed to fetch WebSocket details: " + e.getMessage());
+            public void onConsoleOutput(String line) {
+                handleConsoleOutputEvent(line);
             }
 
             @Override
-            public void onResponse(@NotNull Call call, @NotNull Response response) throws IOException {
-                if (response.isSuccessful() && response.body() != null) {
-                    String responseBody = response.body().string();
-                    JsonObject jsonObject = JsonParser.parseString(responseBody).getAsJsonObject();
-                    JsonObject data = jsonObject.getAsJsonObject("data");
-                    String token = data.get("token").getAsString();
-                    String webSocketUrl = data.get("socket").getAsString();
-                    try {
-                        initializeWebSocket(token, webSocketUrl, serverId);
-                    } catch (URISyntaxException e) {
-                        e.printStackTrace();
+            public void onEvent(FrameDecoder.Event event) {
+                switch (event) {
+                    case AUTH_SUCCESS -> handleAuthSuccessEvent();
+                    case TOKEN_EXPIRING, TOKEN_EXPIRED -> refreshToken();
+                    case JWT_ERROR -> System.err.println("WebSocket token for " + serverId + " was rejected");
+                    default -> {
                     }
-                } else {
-                    System.err.println("Failed to fetch WebSocket details: " + response.message());
                 }
             }
-        });
+        };
     }
 
     /**
-     * Handles incoming WebSocket messages.
+     * Handles incoming WebSocket messages on the decode stage of the pipeline.
+     * Frames are decoded in a single pass straight into the frame handler,
+     * without building a JSON tree.
      *
-     * @param message  The message received.
-     * @param serverId The server identifier.
+     * @param message The message received.
      */
-    private void handleMessage(String message, String serverId) {
-        JsonElement element = JsonParser.parseString(message);
-        JsonObject object = element.getAsJsonObject();
-        String event = object.get("event").getAsString();
-        JsonArray args = object.get("args").getAsJsonArray();
-
-        switch (event) {
-            case "stats" -> handleStatsEvent(args);
-            case "console output" -> handleConsoleOutputEvent(args);
-            case "token expiring" -> handleTokenExpiringEvent(serverId);
+    private void handleMessage(String message) {
+        try {
+            frameDecoder.decode(message, frameHandler);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Failed to decode WebSocket message: " + e.getMessage());
         }
     }
 
     /**
-     * Handles the "stats" WebSocket event.
+     * Handles the "stats" WebSocket event and adds the sample to the history.
      *
-     * @param args The event arguments.
+     * @param memoryBytes      Memory in use.
+     * @param memoryLimitBytes The memory limit.
+     * @param cpuAbsolute      CPU usage in percent.
+     * @param rxBytes          Bytes received.
+     * @param txBytes          Bytes transmitted.
+     * @param state            The server state.
+     * @param diskBytes        Disk usage.
      */
-    private void handleStatsEvent(JsonArray args) {
-        String statsJson = args.get(0).getAsString();
-        JsonObject statsObject = JsonParser.parseString(statsJson).getAsJsonObject();
-
-        long memoryBytes = statsObject.get("memory_bytes").getAsLong();
-        long memoryLimitBytes = statsObject.get("memory_limit_bytes").getAsLong();
-        double cpuAbsolute = statsObject.get("cpu_absolute").getAsDouble();
-        JsonObject networkObject = statsObject.get("network").getAsJsonObject();
-        long rxBytes = networkObject.get("rx_bytes").getAsLong();
-        long txBytes = networkObject.get("tx_bytes").getAsLong();
-        String state = statsObject.get("state").getAsString();
-        long diskBytes = statsObject.get("disk_bytes").getAsLong();
-
+    private void handleStatsEvent(long memoryBytes, long memoryLimitBytes, double cpuAbsolute, long rxBytes, long txBytes, String state, long diskBytes) {
+        statsHistory.record(System.currentTimeMillis(), cpuAbsolute, memoryBytes, diskBytes, rxBytes, txBytes);
         Statistics.Network network = new Statistics.Network(rxBytes, txBytes);
         Statistics statistics = new Statistics(memoryBytes, memoryLimitBytes, cpuAbsolute, network, state, diskBytes);
         lastStatistics = statistics;
+        pipeline.publishStats(statistics);
+    }
 
-        StatsEvent statsEvent = new StatsEvent(this, server, statistics);
-        dispatchEvent(statsEvent);
+    /**
+     * Handles the "console output" WebSocket event. Lines the daemon replays
+     * after the socket was opened are reconciled with the stored history
+     * first, so only lines not seen before are kept. Lines held back while a
+     * match is pending are released at most a second later, even if nothing
+     * else arrives.
+     *
+     * @param rawLog The raw console line.
+     */
+    private void handleConsoleOutputEvent(String rawLog) {
+        replayReconciler.accept(rawLog, this::storeConsoleLine);
+        if (replayReconciler.isHolding() && !replayFlushScheduled) {
+            replayFlushScheduled = true;
+            IoExecutor.application().runAfter(REPLAY_HOLD_MILLIS, TimeUnit.MILLISECONDS, () -> pipeline.runAfterReceived(this::finishReplay));
+        }
+    }
+
+    /**
+     * Releases the console lines held back by the reconciler, on the decode
+     * stage, once they have been held for {@value #REPLAY_HOLD_MILLIS} ms.
+     */
+    private void finishReplay() {
+        replayFlushScheduled = false;
+        replayReconciler.finishReplay(this::storeConsoleLine);
     }
 
     /**
-     * Handles the "console output" WebSocket event.
+     * Prepares for the console replay of a newly opened socket, on the decode
+     * stage, after the frames of the previous socket. The first time,
+     * the reconciler is seeded with the tail of the console spool, so output
+     * stored before a restart is recognized as well.
+     */
+    private void expectReplay() {
+        if (!replaySeeded) {
+            replaySeeded = true;
+            if (consoleSpool != null) {
+                long end = consoleSpool.getEnd();
+                for (long sequence = Math.max(consoleSpool.getFirst(), end - REPLAY_WINDOW); sequence < end; sequence++) {
+                    String line = consoleSpool.get(sequence);
+                    if (line != null) {
+                        replayReconciler.remember(line);
+                    }
+                }
+            }
+        }
+        replayReconciler.expectReplay();
+    }
+
+    /**
+     * Stores a new console line in the console history, before it is queued
+     * for dispatch.
      *
-     * @param args The event arguments.
+     * @param rawLog The raw console line.
+     */
+    private void storeConsoleLine(String rawLog) {
+        StyledLine styledLog = ansiParser != null ? ansiParser.parse(rawLog) : new StyledLine(cleanLog(rawLog), null);
+        String consoleLog = styledLog.text();
+        this.consoleLog.append(styledLog);
+        if (consoleSpool != null) {
+            consoleSpool.append(styledLog);
+        }
+        pipeline.publishConsole(consoleLog);
+    }
+
+    /**
+     * Handles the "token expiring" and "token expired" WebSocket events by
+     * authenticating the open socket again with a new token. The token is
+     * fetched asynchronously and shared with any refresh already in flight,
+     * so the decode stage never waits on the request and the socket is kept.
      */
-    private void handleConsoleOutputEvent(JsonArray args) {
-        String consoleLog = args.get(0).getAsString();
-        consoleLog = cleanLog(consoleLog);
-        this.consoleLog.add(consoleLog);
-        ConsoleLogEvent consoleLogEvent = new ConsoleLogEvent(this, server, consoleLog);
-        dispatchEvent(consoleLogEvent);
+    private void refreshToken() {
+        IoScope scope;
+        int generation;
+        synchronized (this) {
+            if (this.scope == null) {
+                return;
+            }
+            scope = this.scope;
+            generation = attempt;
+        }
+        TokenManager.shared().fetch(server).whenComplete((credentials, e) -> {
+            if (e != null) {
+                System.err.println("Failed to refresh WebSocket token: " + e.getMessage());
+            } else {
+                reauthenticate(scope, generation, credentials);
+            }
+        });
     }
 
     /**
-     * Handles the "token expiring" WebSocket event.
+     * Sends a renewed token over the socket it was fetched for, unless that
+     * socket has been replaced or closed since, or already uses the token.
      *
-     * @param serverId The server identifier.
+     * @param scope       The scope the connection was opened in.
+     * @param generation  The number of the connection attempt.
+     * @param credentials The renewed token.
      */
-    private void handleTokenExpiringEvent(String serverId) {
-        String newToken = getNewToken(serverId);
-        authenticateWebSocket(newToken);
+    private void reauthenticate(IoScope scope, int generation, TokenManager.Credentials credentials) {
+        synchronized (this) {
+            if (!isCurrent(scope, generation) || webSocket == null || credentials.token().equals(token)) {
+                return;
+            }
+            token = credentials.token();
+        }
+        authenticateWebSocket(credentials.token());
     }
 
     /**
@@ -317,8 +793,32 @@ public class ServerConnection {
         jsonElements.add(token);
         jsonObject.add("args", jsonElements);
         String json = gson.toJson(jsonObject);
-        webSocketClient.send(json);
-        webSocketClient.send(getLogsRequest());
-        webSocketClient.send(getStatsRequest());
+        send(json);
+    }
+
+    /**
+     * The state of the WebSocket connection.
+     */
+    public enum State {
+        /**
+         * No socket is wanted.
+         */
+        DISCONNECTED,
+        /**
+         * An attempt to open the socket is in progress.
+         */
+        CONNECTING,
+        /**
+         * The socket is open and authenticated.
+         */
+        CONNECTED,
+        /**
+         * The socket was lost and a new attempt is scheduled.
+         */
+        RECONNECTING,
+        /**
+         * The connection was closed for good.
+         */
+        CLOSED
     }
 }
@@ -2,8 +2,13 @@ package dev.plytki.pterodactyl.app;
 
 import dev.plytki.pterodactyl.app.component.ServerInfoPanel;
 import dev.plytki.pterodactyl.app.component.UserInfoPanel;
+import dev.plytki.pterodactyl.app.data.Options;
 import dev.plytki.pterodactyl.app.data.Settings;
+import dev.plytki.pterodactyl.app.net.IoExecutor;
+import dev.plytki.pterodactyl.app.net.IoScope;
 import dev.plytki.pterodactyl.app.util.ScrollUtils;
+import dev.plytki.pterodactyl.app.util.StartupMetrics;
+import dev.plytki.pterodactyl.app.util.UiRefresher;
 import lombok.Getter;
 
 import javax.swing.*;
@@ -13,9 +18,13 @@ import java.awt.*;
 public class ServerManagementApp extends JFrame {
 
     private final Settings settings;
+    private final IoScope scope = IoExecutor.newScope("main-window");
+    private ServerInfoPanel serverInfoPanel;
+    private boolean painted;
 
-    public ServerManagementApp(String apiKey, String hostname, boolean ssl) {
-        this.settings = new Settings(apiKey, hostname, ssl);
+    public ServerManagementApp(String apiKey, String hostname, boolean ssl, Options options) {
+        this.settings = new Settings(apiKey, hostname, ssl, options);
+        UiRefresher.shared().setRate(options.getUiRefreshRate());
         initialize();
         pack();
         setLocationRelativeTo(null);
@@ -26,8 +35,8 @@ public class ServerManagementApp extends JFrame {
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLayout(new BorderLayout());
 
-        UserInfoPanel userInfoPanel = new UserInfoPanel(settings);
-        ServerInfoPanel serverInfoPanel = new ServerInfoPanel(settings);
+        UserInfoPanel userInfoPanel = new UserInfoPanel(settings, scope);
+        serverInfoPanel = new ServerInfoPanel(settings, scope);
 
         add(userInfoPanel, BorderLayout.NORTH);
         JScrollPane comp = new JScrollPane(serverInfoPanel);
@@ -35,6 +44,27 @@ public class ServerManagementApp extends JFrame {
         add(comp, BorderLayout.CENTER);
     }
 
+    @Override
+    public void dispose() {
+        scope.close();
+        serverInfoPanel.close();
+        for (Window window : Window.getWindows()) {
+            if (window instanceof ServerManagementWindow && window.isDisplayable()) {
+                window.dispose();
+            }
+        }
+        super.dispose();
+    }
+
+    @Override
+    public void paint(Graphics g) {
+        super.paint(g);
+        if (!painted) {
+            painted = true;
+            StartupMetrics.mark(StartupMetrics.Phase.FIRST_PAINT);
+        }
+    }
+
     @Override
     public Dimension getPreferredSize() {
         return new Dimension(1100, 650);
@@ -1,10 +1,15 @@
 package dev.plytki.pterodactyl.app;
 
 import com.formdev.flatlaf.FlatDarkLaf;
+import dev.plytki.pterodactyl.app.data.Options;
+import dev.plytki.pterodactyl.app.net.HttpClients;
+import dev.plytki.pterodactyl.app.net.WebSocketTransports;
 import dev.plytki.pterodactyl.app.util.ConfigUtils;
+import dev.plytki.pterodactyl.app.util.StartupMetrics;
 
 import javax.swing.*;
 import java.util.Properties;
+import java.util.concurrent.CancellationException;
 
 public class ServerManagementAppInitializer {
 
@@ -19,29 +24,75 @@ public class ServerManagementAppInitializer {
         } catch (Exception ignored) {}
         SwingUtilities.invokeLater(() -> {
             Properties config = ConfigUtils.loadConfig(CONFIG_FILE);
-            String apiKey = config.getProperty(API_KEY_PROPERTY);
-            String hostname = config.getProperty(HOSTNAME_PROPERTY);
-            boolean ssl = Boolean.parseBoolean(config.getProperty(SSL_PROPERTY));
-
-            if (apiKey == null || hostname == null || !ConfigUtils.isApiKeyValid(apiKey, hostname, ssl)) {
-                String[] apiDetails = ConfigUtils.promptForApiDetails();
-                if (apiDetails != null) {
-                    apiKey = apiDetails[0];
-                    hostname = apiDetails[1];
-                    ssl = Boolean.parseBoolean(apiDetails[2]);
-
-                    config.setProperty(API_KEY_PROPERTY, apiKey);
-                    config.setProperty(HOSTNAME_PROPERTY, hostname);
-                    config.setProperty(SSL_PROPERTY, String.valueOf(ssl));
-
-                    ConfigUtils.saveConfig(config, CONFIG_FILE);
-                } else {
-                    System.exit(0);  // Exit the application if the user cancels
-                }
+            Options options = new Options(config);
+            HttpClients.configure(options);
+            WebSocketTransports.configure(options);
+            ConnectionManager.configure(options);
+            ResourcePoller.configure(options);
+            TokenManager.configure(options);
+
+            if (config.getProperty(API_KEY_PROPERTY) == null || config.getProperty(HOSTNAME_PROPERTY) == null) {
+                promptForApiDetails(config);
             }
+            launch(config, options);
+        });
+    }
 
-            ServerManagementApp app = new ServerManagementApp(apiKey, hostname, ssl);
-            app.setVisible(true);
+    /**
+     * Shows the main window straight away and validates the stored API key
+     * concurrently with the window's own requests. If the panel rejects the
+     * key, the window and everything it started are disposed and replaced
+     * after prompting for new details. If the panel cannot be reached, the
+     * error is reported and the window is kept.
+     *
+     * @param config  The configuration holding the API details.
+     * @param options The application options.
+     */
+    private static void launch(Properties config, Options options) {
+        String apiKey = config.getProperty(API_KEY_PROPERTY);
+        String hostname = config.getProperty(HOSTNAME_PROPERTY);
+        boolean ssl = Boolean.parseBoolean(config.getProperty(SSL_PROPERTY));
+
+        ServerManagementApp app = new ServerManagementApp(apiKey, hostname, ssl, options);
+        app.setVisible(true);
+
+        app.getScope().supply(() -> ConfigUtils.checkApiKey(apiKey, hostname, ssl)).whenComplete((valid, e) -> {
+            if (e instanceof CancellationException) {
+                return;
+            }
+            StartupMetrics.mark(StartupMetrics.Phase.API_KEY_VALIDATED);
+            if (e != null) {
+                System.err.println("Could not validate the API key: " + e.getMessage());
+                SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(app,
+                        "Could not reach " + hostname + " to validate the API key: " + e.getMessage(),
+                        "Connection Error", JOptionPane.WARNING_MESSAGE));
+                return;
+            }
+            if (valid) {
+                return;
+            }
+            SwingUtilities.invokeLater(() -> {
+                app.dispose();
+                promptForApiDetails(config);
+                launch(config, options);
+            });
         });
     }
+
+    /**
+     * Prompts for API details and saves them, exiting if the user cancels.
+     *
+     * @param config The configuration to update.
+     */
+    private static void promptForApiDetails(Properties config) {
+        String[] apiDetails = ConfigUtils.promptForApiDetails();
+        if (apiDetails == null) {
+            System.exit(0);  // Exit the application if the user cancels
+        }
+        config.setProperty(API_KEY_PROPERTY, apiDetails[0]);
+        config.setProperty(HOSTNAME_PROPERTY, apiDetails[1]);
+        config.setProperty(SSL_PROPERTY, apiDetails[2]);
+
+        ConfigUtils.saveConfig(config, CONFIG_FILE);
+    }
 }
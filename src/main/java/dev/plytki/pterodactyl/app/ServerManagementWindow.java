@@ -1,19 +1,22 @@
 package dev.plytki.pterodactyl.app;
 
+import dev.plytki.pterodactyl.app.component.ConsoleView;
 import dev.plytki.pterodactyl.app.data.Server;
 import dev.plytki.pterodactyl.app.data.Statistics;
+import dev.plytki.pterodactyl.app.data.StatsHistory;
 import dev.plytki.pterodactyl.app.font.HackFont;
-import dev.plytki.pterodactyl.app.listener.ConsoleLogListener;
-import dev.plytki.pterodactyl.app.listener.StatsListener;
+import dev.plytki.pterodactyl.app.listener.Subscription;
+import dev.plytki.pterodactyl.app.util.UiRefresher;
 import lombok.SneakyThrows;
 
 import javax.swing.*;
 import javax.swing.border.AbstractBorder;
 import javax.swing.border.EmptyBorder;
 import javax.swing.border.LineBorder;
-import javax.swing.text.DefaultCaret;
 import java.awt.*;
 import java.awt.event.AdjustmentEvent;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * ServerManagementWindow is a GUI application for managing a server.
@@ -21,9 +24,12 @@ import java.awt.event.AdjustmentEvent;
  */
 public class ServerManagementWindow extends JFrame {
 
+    private static final long RECENT_STATS_MILLIS = 10 * 60_000L;
+
     private final Server server;
-    private DefaultCaret caret;
-    private int extent;
+    private final List<Subscription> subscriptions = new ArrayList<>();
+    private final StatsHistory.Series recentStats = new StatsHistory.Series();
+    private ConsoleView consoleOutput;
     private int lastScrollValue = 0;
     private boolean anchor;
 
@@ -33,6 +39,7 @@ public class ServerManagementWindow extends JFrame {
      */
     public ServerManagementWindow(Server server) {
         this.server = server;
+        subscriptions.add(ConnectionManager.shared().acquire(server));
         initialize();
         pack();
         setLocationRelativeTo(null);
@@ -56,12 +63,23 @@ public class ServerManagementWindow extends JFrame {
         JPanel consolePanel = createConsolePanel();
         add(consolePanel, BorderLayout.CENTER);
 
-        fetchConsoleOutput((JTextArea) ((JScrollPane) consolePanel.getComponent(0)).getViewport().getView());
+        fetchConsoleOutput();
 
         JPanel statusBar = createStatusBar();
         add(statusBar, BorderLayout.SOUTH);
     }
 
+    /**
+     * Releases the window and everything it registered with the connection,
+     * so a closed window is not kept reachable by the server.
+     */
+    @Override
+    public void dispose() {
+        subscriptions.forEach(Subscription::unsubscribe);
+        subscriptions.clear();
+        super.dispose();
+    }
+
     /**
      * Creates the header panel with the server name.
      * @return A JPanel for the header.
@@ -94,6 +112,7 @@ public class ServerManagementWindow extends JFrame {
         buttonPanel.setBackground(new Color(49, 49, 49));
 
         JLabel state = createStateLabel();
+        JLabel connection = createConnectionLabel();
         JLabel name = createNameLabel();
 
         JLabel cpuUsage = createStatLabel("CPU Usage: ?");
@@ -103,15 +122,15 @@ public class ServerManagementWindow extends JFrame {
         Statistics lastStatistics = server.getConnection().getLastStatistics();
         updateStatLabels(lastStatistics, cpuUsage, memoryUsage, diskUsage);
 
-        server.getConnection().registerListener((StatsListener) event -> {
-            Statistics statistics = event.getStatistics();
-            updateStatLabels(statistics, cpuUsage, memoryUsage, diskUsage);
-        });
+        subscriptions.add(UiRefresher.shared().bind(server.getConnection()::getLastStatistics,
+                statistics -> updateStatLabels(statistics, cpuUsage, memoryUsage, diskUsage)));
 
         buttonPanel.add(Box.createVerticalGlue());
         buttonPanel.add(name);
         buttonPanel.add(Box.createVerticalStrut(10));
         buttonPanel.add(state);
+        buttonPanel.add(Box.createVerticalStrut(4));
+        buttonPanel.add(connection);
         buttonPanel.add(Box.createVerticalStrut(16));
         buttonPanel.add(createActionButton("Start", "Start the server", "start"));
         buttonPanel.add(Box.createVerticalStrut(12));
@@ -132,7 +151,8 @@ public class ServerManagementWindow extends JFrame {
     }
 
     /**
-     * Updates the statistics labels with new data.
+     * Updates the statistics labels with new data, and their tooltips with the
+     * average and peak of the last 10 minutes from the statistics history.
      * @param statistics The new statistics.
      * @param cpuUsage The CPU usage label.
      * @param memoryUsage The memory usage label.
@@ -142,6 +162,27 @@ public class ServerManagementWindow extends JFrame {
         cpuUsage.setText("CPU Usage: " + statistics.getCpuAbsolute() + " %");
         memoryUsage.setText(statistics.getFormattedMemory());
         diskUsage.setText(statistics.getFormattedDisk());
+
+        StatsHistory history = server.getConnection().getStatsHistory();
+        int size = history.read(StatsHistory.Resolution.SECOND, System.currentTimeMillis() - RECENT_STATS_MILLIS, recentStats);
+        if (size == 0) {
+            cpuUsage.setToolTipText(null);
+            memoryUsage.setToolTipText(null);
+            return;
+        }
+        double cpuSum = 0;
+        double cpuPeak = 0;
+        long memorySum = 0;
+        long memoryPeak = 0;
+        for (int i = 0; i < size; i++) {
+            cpuSum += recentStats.getCpu()[i];
+            cpuPeak = Math.max(cpuPeak, recentStats.getCpuPeak()[i]);
+            memorySum += recentStats.getMemory()[i];
+            memoryPeak = Math.max(memoryPeak, recentStats.getMemoryPeak()[i]);
+        }
+        cpuUsage.setToolTipText(String.format("Last 10 minutes: %.2f %% average, %.2f %% peak", cpuSum / size, cpuPeak));
+        memoryUsage.setToolTipText("Last 10 minutes: " + Statistics.formatBytes(memorySum / size, "") + " average, "
+                + Statistics.formatBytes(memoryPeak, "") + " peak");
     }
 
     /**
@@ -180,12 +221,47 @@ public class ServerManagementWindow extends JFrame {
         stateLabel.setFont(HackFont.REGULAR.deriveFont(12f));
         stateLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
 
-        server.getConnection().registerListener((StatsListener) event -> {
-            stateLabel.setText("State: " + event.getStatistics().getState());
-        });
+        subscriptions.add(UiRefresher.shared().bind(server.getConnection()::getLastStatistics,
+                statistics -> stateLabel.setText("State: " + statistics.getState())));
         return stateLabel;
     }
 
+    /**
+     * Creates a label for displaying the state of the live connection.
+     * @return A JLabel for the connection state.
+     */
+    @SneakyThrows
+    private JLabel createConnectionLabel() {
+        JLabel connectionLabel = new JLabel(getConnectionText(server.getConnection().getState()));
+        connectionLabel.setFont(HackFont.REGULAR.deriveFont(11f));
+        connectionLabel.setForeground(Color.LIGHT_GRAY);
+        connectionLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+
+        subscriptions.add(UiRefresher.shared().bind(server.getConnection()::getState,
+                state -> connectionLabel.setText(getConnectionText(state))));
+        subscriptions.add(UiRefresher.shared().bind(server.getConnection().getTraffic()::getSummary,
+                connectionLabel::setToolTipText));
+        return connectionLabel;
+    }
+
+    /**
+     * Returns the connection label text for a connection state: "Live" once
+     * authenticated, "Connecting..." while an attempt is in progress,
+     * "Reconnecting..." while waiting out the backoff delay before the next
+     * attempt, and "Offline" when disconnected or closed. The delay itself is
+     * not shown, since the label follows the state only.
+     * @param state The connection state.
+     * @return The label text.
+     */
+    private static String getConnectionText(ServerConnection.State state) {
+        return switch (state) {
+            case CONNECTED -> "Live";
+            case CONNECTING -> "Connecting...";
+            case RECONNECTING -> "Reconnecting...";
+            case DISCONNECTED, CLOSED -> "Offline";
+        };
+    }
+
     /**
      * Creates a button for performing server actions.
      * @param text The button text.
@@ -223,18 +299,15 @@ public class ServerManagementWindow extends JFrame {
         consolePanel.setBorder(new EmptyBorder(10, 10, 10, 10));
         consolePanel.setBackground(new Color(30, 30, 30));
 
-        JTextArea consoleOutput = new JTextArea();
-        consoleOutput.setEditable(false);
-        consoleOutput.setLineWrap(true);
+        consoleOutput = new ConsoleView(server.getConnection().getConsoleHistory());
         consoleOutput.setFont(HackFont.REGULAR.deriveFont(11f));
         consoleOutput.setBackground(new Color(30, 30, 30));
         consoleOutput.setForeground(new Color(210, 210, 210));
-
-        caret = (DefaultCaret) consoleOutput.getCaret();
-        caret.setUpdatePolicy(DefaultCaret.ALWAYS_UPDATE);
+        anchor = true;
 
         JScrollPane scrollPane = new JScrollPane(consoleOutput);
         scrollPane.getVerticalScrollBar().setBackground(new Color(120, 120, 120));
+        scrollPane.getViewport().setBackground(new Color(30, 30, 30));
         scrollPane.getVerticalScrollBar().addAdjustmentListener(this::handleScrollAdjustment);
         scrollPane.setBorder(null);
 
@@ -312,7 +385,7 @@ public class ServerManagementWindow extends JFrame {
     private void handleScrollAdjustment(AdjustmentEvent e) {
         Adjustable adjustable = e.getAdjustable();
         int max = adjustable.getMaximum();
-        extent = adjustable.getVisibleAmount();
+        int extent = adjustable.getVisibleAmount();
         int value = adjustable.getValue();
         if (anchor) {
             if (lastScrollValue > value) setAnchor(false);
@@ -351,21 +424,14 @@ public class ServerManagementWindow extends JFrame {
     }
 
     /**
-     * Fetches the console output and updates the JTextArea.
-     * @param consoleOutput The JTextArea for console output.
+     * Shows the retained console backlog and keeps the console view updated.
+     * The view is refreshed on refresher ticks whenever new lines have been
+     * appended, rather than once per line.
      */
-    private void fetchConsoleOutput(JTextArea consoleOutput) {
-        for (String log : server.getConnection().getConsoleLog()) {
-            if (!consoleOutput.getText().isEmpty()) consoleOutput.append("\n");
-            consoleOutput.append(log);
-        }
-        server.getConnection().registerListener((ConsoleLogListener) event -> {
-            SwingUtilities.invokeLater(() -> {
-                String log = event.getLog();
-                if (!consoleOutput.getText().isEmpty()) consoleOutput.append("\n");
-                consoleOutput.append(log);
-            });
-        });
+    private void fetchConsoleOutput() {
+        consoleOutput.refresh();
+        subscriptions.add(UiRefresher.shared().bind(server.getConnection().getConsoleHistory()::getEnd,
+                end -> consoleOutput.refresh()));
     }
 
     /**
@@ -374,11 +440,6 @@ public class ServerManagementWindow extends JFrame {
      */
     private void setAnchor(boolean anchor) {
         this.anchor = anchor;
-        if (this.anchor) {
-            caret.setUpdatePolicy(DefaultCaret.ALWAYS_UPDATE);
-            caret.setDot(caret.getDot() + extent);
-        } else {
-            caret.setUpdatePolicy(DefaultCaret.NEVER_UPDATE);
-        }
+        consoleOutput.setFollowTail(anchor);
     }
 }
@@ -0,0 +1,256 @@
+package dev.plytki.pterodactyl.app;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import dev.plytki.pterodactyl.app.data.Options;
+import dev.plytki.pterodactyl.app.data.Server;
+import dev.plytki.pterodactyl.app.listener.Subscription;
+import dev.plytki.pterodactyl.app.net.IoExecutor;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Fetches and renews the tokens that authenticate server WebSockets.
+ * <p>
+ * Requests are single-flight: while a token is being fetched for a server,
+ * every other caller asking for one gets the same pending result, so a
+ * reconnect, a proactive refresh and a "token expiring" event arriving
+ * together cost one request. The lifetime is decoded from each token and
+ * measured from when it was fetched, on the local monotonic clock, so a
+ * client clock that is off does not move the renewal. {@link #scheduleRefresh}
+ * renews the token on a background scheduler
+ * {@code connection.token.refresh.lead.seconds} before it expires, or halfway
+ * through its lifetime if that is sooner, and retries a failed renewal with
+ * an exponential backoff.
+ */
+public final class TokenManager {
+
+    static final long MIN_REFRESH_DELAY_MILLIS = 10_000;
+    static final long MIN_RETRY_DELAY_MILLIS = 5_000;
+    static final long MAX_RETRY_DELAY_MILLIS = 300_000;
+
+    private static Options options = new Options();
+    private static TokenManager shared;
+
+    private final long leadMillis;
+    private final Map<String, CompletableFuture<Credentials>> inFlight = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Constructs a TokenManager with the given options.
+     *
+     * @param options The application options.
+     */
+    public TokenManager(Options options) {
+        this.leadMillis = Math.max(0, options.getConnectionTokenRefreshLeadSeconds()) * 1000;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "token-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Sets the options used to build the shared manager. Should be called
+     * once, before the first connection.
+     *
+     * @param options The application options.
+     */
+    public static synchronized void configure(Options options) {
+        TokenManager.options = options;
+        shared = null;
+    }
+
+    /**
+     * Returns the shared manager, building it on first use.
+     *
+     * @return The shared manager.
+     */
+    public static synchronized TokenManager shared() {
+        if (shared == null) {
+            shared = new TokenManager(options);
+        }
+        return shared;
+    }
+
+    /**
+     * Fetches a new token and socket URL for a server on the IO executor,
+     * joining the request already in flight for it if there is one.
+     *
+     * @param server The server.
+     * @return A future completed with the credentials. Cancelling it does not affect other callers.
+     */
+    public CompletableFuture<Credentials> fetch(Server server) {
+        String key = server.getSettings().hostname() + "/" + server.getIdentifier();
+        CompletableFuture<Credentials> pending = inFlight.computeIfAbsent(key, k -> {
+            CompletableFuture<Credentials> request = IoExecutor.application().supply(() -> request(server));
+            request.whenComplete((credentials, e) -> inFlight.remove(k, request));
+            return request;
+        });
+        return pending.copy();
+    }
+
+    /**
+     * Renews a token shortly before it expires, and each renewed token after
+     * that, until the returned subscription is unsubscribed. A failed renewal
+     * is retried after 5 seconds, doubling up to 5 minutes, until one
+     * succeeds.
+     *
+     * @param server      The server.
+     * @param credentials The credentials in use.
+     * @param renewed     Receives every renewed token, on an IO thread.
+     * @return The subscription cancelling the renewals.
+     */
+    public Subscription scheduleRefresh(Server server, Credentials credentials, Consumer<Credentials> renewed) {
+        RefreshSchedule schedule = new RefreshSchedule(server, renewed);
+        schedule.scheduleFor(credentials);
+        return schedule::cancel;
+    }
+
+    private Credentials request(Server server) throws IOException {
+        try (Response response = new APIClient(server.getSettings()).getWebSocketDetails(server.getIdentifier())) {
+            if (!response.isSuccessful() || response.body() == null) {
+                throw new IOException("HTTP " + response.code());
+            }
+            JsonObject data = JsonParser.parseString(response.body().string()).getAsJsonObject().getAsJsonObject("data");
+            String token = data.get("token").getAsString();
+            return new Credentials(token, data.get("socket").getAsString(), decodeLifetime(token), System.nanoTime());
+        }
+    }
+
+    /**
+     * Reads the lifetime from a JWT's payload, as its expiry minus its issue
+     * time, both set by the panel's clock. A token without an issue time
+     * falls back to its expiry minus the local time. The signature is not
+     * checked; the lifetime is only used to schedule the renewal.
+     *
+     * @param token The token.
+     * @return The lifetime in milliseconds, or 0 if it cannot be read.
+     */
+    static long decodeLifetime(String token) {
+        String[] parts = token.split("\\.");
+        if (parts.length < 2) {
+            return 0;
+        }
+        try {
+            String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
+            JsonObject claims = JsonParser.parseString(payload).getAsJsonObject();
+            JsonElement exp = claims.get("exp");
+            JsonElement iat = claims.get("iat");
+            if (exp == null) {
+                return 0;
+            }
+            long issuedAt = iat != null ? iat.getAsLong() * 1000 : System.currentTimeMillis();
+            return Math.max(0, exp.getAsLong() * 1000 - issuedAt);
+        } catch (IllegalArgumentException | IllegalStateException | UnsupportedOperationException | JsonParseException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Returns how long to wait before renewing a token: the lead before its
+     * expiry, or half its lifetime if that is sooner, less the time since it
+     * was fetched, and never less than {@link #MIN_REFRESH_DELAY_MILLIS}.
+     *
+     * @param credentials The credentials in use.
+     * @param leadMillis  The renewal lead in milliseconds.
+     * @param nowNanos    The current {@link System#nanoTime()}.
+     * @return The delay in milliseconds.
+     */
+    static long refreshDelay(Credentials credentials, long leadMillis, long nowNanos) {
+        long lifetime = credentials.lifetimeMillis();
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(nowNanos - credentials.fetchedNanos());
+        long delay = lifetime - Math.min(leadMillis, lifetime / 2) - elapsed;
+        return Math.max(MIN_REFRESH_DELAY_MILLIS, delay);
+    }
+
+    /**
+     * Returns how long to wait before retrying a renewal.
+     *
+     * @param failures The number of renewals that failed in a row, at least 1.
+     * @return The delay in milliseconds.
+     */
+    static long retryDelay(int failures) {
+        int doublings = Math.min(failures - 1, 16);
+        return Math.min(MAX_RETRY_DELAY_MILLIS, MIN_RETRY_DELAY_MILLIS << doublings);
+    }
+
+    /**
+     * A token with the socket it is valid for.
+     *
+     * @param token          The JWT.
+     * @param socketUrl      The WebSocket URL.
+     * @param lifetimeMillis The lifetime of the token in milliseconds, or 0 if unknown.
+     * @param fetchedNanos   The {@link System#nanoTime()} at which the token was received.
+     */
+    public record Credentials(String token, String socketUrl, long lifetimeMillis, long fetchedNanos) {
+    }
+
+    /**
+     * The pending renewal for one connection.
+     */
+    private class RefreshSchedule {
+
+        private final Server server;
+        private final Consumer<Credentials> renewed;
+        private ScheduledFuture<?> next;
+        private int failures;
+        private boolean cancelled;
+
+        private RefreshSchedule(Server server, Consumer<Credentials> renewed) {
+            this.server = server;
+            this.renewed = renewed;
+        }
+
+        private synchronized void scheduleFor(Credentials credentials) {
+            if (cancelled || credentials.lifetimeMillis() <= 0) {
+                return;
+            }
+            schedule(refreshDelay(credentials, leadMillis, System.nanoTime()));
+        }
+
+        private synchronized void schedule(long delay) {
+            if (!cancelled) {
+                next = scheduler.schedule(this::refresh, delay, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        private void refresh() {
+            fetch(server).whenComplete((credentials, e) -> {
+                if (e != null) {
+                    long delay;
+                    synchronized (this) {
+                        delay = retryDelay(++failures);
+                    }
+                    System.err.println("Failed to refresh WebSocket token for " + server.getIdentifier() + ", retrying in "
+                            + delay / 1000 + " s: " + e.getMessage());
+                    schedule(delay);
+                    return;
+                }
+                synchronized (this) {
+                    if (cancelled) {
+                        return;
+                    }
+                    failures = 0;
+                }
+                renewed.accept(credentials);
+                scheduleFor(credentials);
+            });
+        }
+
+        private synchronized void cancel() {
+            cancelled = true;
+            if (next != null) {
+                next.cancel(false);
+            }
+        }
+    }
+}
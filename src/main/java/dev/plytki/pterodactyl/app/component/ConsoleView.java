@@ -0,0 +1,354 @@
+package dev.plytki.pterodactyl.app.component;
+
+import dev.plytki.pterodactyl.app.console.AnsiStyle;
+import dev.plytki.pterodactyl.app.console.LineSource;
+import dev.plytki.pterodactyl.app.console.StyledLine;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.datatransfer.StringSelection;
+import java.awt.event.ActionEvent;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A virtualized, read-only log view backed by a {@link LineSource}. The view
+ * holds no lines of its own; it paints only the rows intersecting the current
+ * clip by reading through a snapshot of the source, so repainting cost depends
+ * on the viewport height rather than on the amount of history. Style runs are
+ * taken pre-parsed from the source and drawn with the style's own colours.
+ * <p>
+ * Lines are not wrapped: every line is one row, and lines wider than the
+ * viewport are reached by scrolling horizontally. Row positions therefore
+ * follow directly from sequence numbers, without measuring every line. The
+ * width grows to the longest line painted so far, so opening a view over a
+ * long history reads only the rows on screen.
+ */
+public class ConsoleView extends JComponent implements Scrollable {
+
+    private final LineSource source;
+    private final AtomicBoolean refreshPending = new AtomicBoolean();
+    private final Color selectionColor = new Color(70, 70, 90);
+    private final Font[] fonts = new Font[4];
+    private final FontMetrics[] fontMetrics = new FontMetrics[4];
+    private char[] chars = new char[256];
+    private LineSource.Snapshot snapshot;
+    private int lineHeight;
+    private int ascent;
+    private int charWidth;
+    private int longestLine;
+    private boolean followTail = true;
+    private long selectionStart = -1;
+    private long selectionEnd = -1;
+
+    /**
+     * Constructs a ConsoleView over the given line source.
+     *
+     * @param source The line source to display.
+     */
+    public ConsoleView(LineSource source) {
+        this.source = source;
+        this.snapshot = new LineSource.Snapshot(source, 0, 0);
+        setOpaque(true);
+        setFocusable(true);
+        installSelectionHandling();
+        installCopyAction();
+    }
+
+    /**
+     * Schedules a refresh on the EDT. Safe to call from any thread; multiple
+     * requests made before the refresh runs are coalesced into one.
+     */
+    public void requestRefresh() {
+        if (refreshPending.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(() -> {
+                refreshPending.set(false);
+                refresh();
+            });
+        }
+    }
+
+    /**
+     * Picks up lines appended to the source since the last refresh. Must be
+     * called on the EDT.
+     */
+    public void refresh() {
+        LineSource.Snapshot previous = snapshot;
+        snapshot = source.snapshot();
+        revalidate();
+        repaint();
+
+        if (followTail) {
+            scrollToEnd();
+        } else {
+            keepPosition((int) (snapshot.first() - previous.first()));
+        }
+    }
+
+    /**
+     * Sets whether the view keeps the last line visible as lines are appended.
+     *
+     * @param followTail true to follow the tail of the source.
+     */
+    public void setFollowTail(boolean followTail) {
+        this.followTail = followTail;
+        if (followTail) {
+            scrollToEnd();
+        }
+    }
+
+    /**
+     * Returns the number of lines currently shown by the view.
+     *
+     * @return The line count.
+     */
+    public int getLineCount() {
+        return snapshot.size();
+    }
+
+    /**
+     * Scrolls the enclosing viewport so the last line is visible. The scroll is
+     * deferred until pending layout has been applied.
+     */
+    public void scrollToEnd() {
+        SwingUtilities.invokeLater(() -> scrollRectToVisible(new Rectangle(0, getHeight() - 1, 1, 1)));
+    }
+
+    @Override
+    public void setFont(Font font) {
+        super.setFont(font);
+        FontMetrics metrics = getFontMetrics(font);
+        lineHeight = metrics.getHeight();
+        ascent = metrics.getAscent();
+        charWidth = metrics.charWidth('M');
+        for (int variant = 0; variant < fonts.length; variant++) {
+            fonts[variant] = variant == 0 ? font : font.deriveFont(variant);
+            fontMetrics[variant] = getFontMetrics(fonts[variant]);
+        }
+        revalidate();
+        repaint();
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        Insets insets = getInsets();
+        return new Dimension(
+                longestLine * charWidth + insets.left + insets.right,
+                snapshot.size() * lineHeight + insets.top + insets.bottom
+        );
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        g.setColor(getBackground());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        if (lineHeight == 0 || snapshot.size() == 0) {
+            return;
+        }
+
+        Graphics2D g2d = (Graphics2D) g;
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        Insets insets = getInsets();
+        int first = Math.max(0, (clip.y - insets.top) / lineHeight);
+        int last = Math.min(snapshot.size() - 1, (clip.y + clip.height - insets.top) / lineHeight);
+        long selectionLow = Math.min(selectionStart, selectionEnd);
+        long selectionHigh = Math.max(selectionStart, selectionEnd);
+        int widest = 0;
+
+        for (int row = first; row <= last; row++) {
+            long sequence = snapshot.first() + row;
+            int y = insets.top + row * lineHeight;
+            if (selectionLow >= 0 && sequence >= selectionLow && sequence <= selectionHigh) {
+                g2d.setColor(selectionColor);
+                g2d.fillRect(clip.x, y, clip.width, lineHeight);
+            }
+            StyledLine line = snapshot.getStyled(row);
+            if (line == null) {
+                continue;
+            }
+            widest = Math.max(widest, line.text().length());
+            if (line.runCount() == 0) {
+                g2d.setFont(fonts[0]);
+                g2d.setColor(getForeground());
+                g2d.drawString(line.text(), insets.left, y + ascent);
+            } else {
+                paintRuns(g2d, line, insets.left, y);
+            }
+        }
+        if (widest > longestLine) {
+            longestLine = widest;
+            revalidate();
+        }
+    }
+
+    /**
+     * Paints a line run by run using the pre-built attributes of each style.
+     * The text is copied once into a reused buffer and each run is drawn from
+     * its char range.
+     *
+     * @param g2d  The graphics to paint with.
+     * @param line The styled line.
+     * @param x    The x coordinate of the line start.
+     * @param y    The y coordinate of the top of the row.
+     */
+    private void paintRuns(Graphics2D g2d, StyledLine line, int x, int y) {
+        String text = line.text();
+        if (chars.length < text.length()) {
+            chars = new char[Math.max(text.length(), chars.length * 2)];
+        }
+        text.getChars(0, text.length(), chars, 0);
+        if (line.runStart(0) > 0) {
+            x = paintRun(g2d, 0, line.runStart(0), AnsiStyle.DEFAULT, x, y);
+        }
+        for (int run = 0; run < line.runCount(); run++) {
+            x = paintRun(g2d, line.runStart(run), line.runEnd(run), line.runStyle(run), x, y);
+        }
+    }
+
+    /**
+     * Paints one run of the buffered text with its style: the background, the
+     * text in the style's font variant and colour, and the underline.
+     *
+     * @param g2d   The graphics to paint with.
+     * @param start The index of the first char of the run.
+     * @param end   The index after the last char of the run.
+     * @param style The style of the run.
+     * @param x     The x coordinate of the run start.
+     * @param y     The y coordinate of the top of the row.
+     * @return The x coordinate after the run.
+     */
+    private int paintRun(Graphics2D g2d, int start, int end, AnsiStyle style, int x, int y) {
+        int variant = (style.isBold() ? Font.BOLD : 0) | (style.isItalic() ? Font.ITALIC : 0);
+        int width = fontMetrics[variant].charsWidth(chars, start, end - start);
+        if (style.getBackground() != null) {
+            g2d.setColor(style.getBackground());
+            g2d.fillRect(x, y, width, lineHeight);
+        }
+        g2d.setFont(fonts[variant]);
+        g2d.setColor(style.getForeground() != null ? style.getForeground() : getForeground());
+        g2d.drawChars(chars, start, end - start, x, y + ascent);
+        if (style.isUnderline()) {
+            g2d.drawLine(x, y + ascent + 1, x + width - 1, y + ascent + 1);
+        }
+        return x + width;
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return getPreferredSize();
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? lineHeight : charWidth;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? visibleRect.height - lineHeight : visibleRect.width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        Container parent = getParent();
+        return parent instanceof JViewport && parent.getWidth() > getPreferredSize().width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        Container parent = getParent();
+        return parent instanceof JViewport && parent.getHeight() > getPreferredSize().height;
+    }
+
+    /**
+     * Shifts the viewport up when lines were evicted from the front of the
+     * source, so the rows the user is reading stay in place.
+     *
+     * @param evicted The number of lines evicted since the last refresh.
+     */
+    private void keepPosition(int evicted) {
+        if (evicted <= 0 || !(getParent() instanceof JViewport viewport)) {
+            return;
+        }
+        Point position = viewport.getViewPosition();
+        position.y = Math.max(0, position.y - evicted * lineHeight);
+        viewport.setViewPosition(position);
+    }
+
+    /**
+     * Installs mouse handling for line-granular selection.
+     */
+    private void installSelectionHandling() {
+        MouseAdapter adapter = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                requestFocusInWindow();
+                selectionStart = sequenceAt(e.getY());
+                selectionEnd = selectionStart;
+                repaint();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                selectionEnd = sequenceAt(e.getY());
+                scrollRectToVisible(new Rectangle(e.getX(), e.getY(), 1, 1));
+                repaint();
+            }
+        };
+        addMouseListener(adapter);
+        addMouseMotionListener(adapter);
+    }
+
+    /**
+     * Binds the platform copy shortcut to copying the selected lines.
+     */
+    private void installCopyAction() {
+        int menuMask = Toolkit.getDefaultToolkit().getMenuShortcutKeyMaskEx();
+        getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_C, menuMask), "copy");
+        getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_INSERT, InputEvent.CTRL_DOWN_MASK), "copy");
+        getActionMap().put("copy", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                copySelection();
+            }
+        });
+    }
+
+    /**
+     * Copies the selected lines that are still retained to the system clipboard.
+     */
+    private void copySelection() {
+        if (selectionStart < 0) {
+            return;
+        }
+        long low = Math.min(selectionStart, selectionEnd);
+        long high = Math.max(selectionStart, selectionEnd);
+        StringBuilder builder = new StringBuilder();
+        for (long sequence = low; sequence <= high; sequence++) {
+            String line = source.get(sequence);
+            if (line == null) continue;
+            if (!builder.isEmpty()) builder.append('\n');
+            builder.append(line);
+        }
+        Toolkit.getDefaultToolkit().getSystemClipboard().setContents(new StringSelection(builder.toString()), null);
+    }
+
+    /**
+     * Returns the sequence number of the line at the given y coordinate,
+     * clamped to the lines shown.
+     *
+     * @param y The y coordinate in component space.
+     * @return The sequence number, or -1 if the view is empty.
+     */
+    private long sequenceAt(int y) {
+        if (snapshot.size() == 0 || lineHeight == 0) {
+            return -1;
+        }
+        int row = (y - getInsets().top) / lineHeight;
+        return snapshot.first() + Math.max(0, Math.min(snapshot.size() - 1, row));
+    }
+}
@@ -0,0 +1,88 @@
+package dev.plytki.pterodactyl.app.component;
+
+import dev.plytki.pterodactyl.app.data.Server;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Server rows built from one {@link ServerPanel} per server, stacked in a
+ * {@link BoxLayout}. Every row is a full component tree, so this suits lists
+ * of up to a few hundred servers.
+ */
+class PanelServerRows implements ServerRows {
+
+    private final JPanel panel = new JPanel();
+    private final Map<Server, ServerPanel> panels = new HashMap<>();
+
+    PanelServerRows() {
+        panel.setLayout(new BoxLayout(panel, BoxLayout.Y_AXIS));
+        panel.setBackground(new Color(30, 30, 30));
+    }
+
+    @Override
+    public JComponent getComponent() {
+        return panel;
+    }
+
+    @Override
+    public int size() {
+        return panel.getComponentCount();
+    }
+
+    @Override
+    public void add(int index, Server server) {
+        ServerPanel serverPanel = new ServerPanel(server);
+        panels.put(server, serverPanel);
+        panel.add(serverPanel, index);
+    }
+
+    @Override
+    public void update(Server server) {
+        panels.get(server).update(server);
+    }
+
+    @Override
+    public boolean move(Server server, int index) {
+        ServerPanel serverPanel = panels.get(server);
+        if (panel.getComponentZOrder(serverPanel) == index) {
+            return false;
+        }
+        panel.setComponentZOrder(serverPanel, index);
+        return true;
+    }
+
+    @Override
+    public void remove(Server server) {
+        ServerPanel serverPanel = panels.remove(server);
+        panel.remove(serverPanel);
+        serverPanel.dispose();
+        panel.revalidate();
+        panel.repaint();
+    }
+
+    @Override
+    public List<Server> getVisibleServers() {
+        Rectangle visible = panel.getVisibleRect();
+        if (visible.isEmpty()) {
+            return List.of();
+        }
+        List<Server> servers = new ArrayList<>();
+        for (Component component : panel.getComponents()) {
+            if (component.getBounds().intersects(visible)) {
+                servers.add(((ServerPanel) component).getServer());
+            }
+        }
+        return servers;
+    }
+
+    @Override
+    public void rowsChanged() {
+        panel.revalidate();
+        panel.repaint();
+    }
+}
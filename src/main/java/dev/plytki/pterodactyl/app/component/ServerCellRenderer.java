@@ -0,0 +1,152 @@
+package dev.plytki.pterodactyl.app.component;
+
+import dev.plytki.pterodactyl.app.data.Server;
+import dev.plytki.pterodactyl.app.data.Statistics;
+import dev.plytki.pterodactyl.app.font.HackFont;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.geom.RoundRectangle2D;
+
+/**
+ * Flyweight renderer drawing a server row with the same look as a
+ * {@link ServerPanel}. A single instance paints every visible row; it holds no
+ * per-server components and reads the latest statistics from the server's
+ * connection while painting. The copy and manage buttons are drawn, not
+ * components, so their bounds are exposed for hit testing.
+ */
+class ServerCellRenderer extends JComponent implements ListCellRenderer<Server> {
+
+    static final int ROW_HEIGHT = 130;
+
+    private static final int MARGIN = 5;
+    private static final int PADDING = 11;
+    private static final int INDICATOR_WIDTH = 12;
+    private static final int MANAGE_WIDTH = 180;
+    private static final int MANAGE_HEIGHT = 70;
+
+    private static final Color LIST_BACKGROUND = new Color(30, 30, 30);
+    private static final Color CARD_COLOR = new Color(45, 45, 45);
+    private static final Color BORDER_COLOR = new Color(70, 70, 70);
+    private static final Color BUTTON_COLOR = new Color(70, 70, 70);
+    private static final Color BUTTON_BORDER_COLOR = new Color(100, 100, 100);
+
+    private final Font nameFont = HackFont.REGULAR.deriveFont(13f);
+    private final Font ipFont = HackFont.REGULAR.deriveFont(11f);
+    private final Font manageFont = HackFont.BOLD.deriveFont(13f);
+    private final Font statusFont = UIManager.getFont("Label.font");
+
+    private Server server;
+    private Statistics statistics;
+
+    @Override
+    public Component getListCellRendererComponent(JList<? extends Server> list, Server server, int index, boolean isSelected, boolean cellHasFocus) {
+        this.server = server;
+        this.statistics = server.getConnection().getLastStatistics();
+        return this;
+    }
+
+    /**
+     * Returns the bounds of the manage button within a row.
+     *
+     * @param cell The bounds of the row.
+     * @return The button bounds, in the same coordinates as the row.
+     */
+    Rectangle getManageButtonBounds(Rectangle cell) {
+        Rectangle inner = getInnerBounds(cell);
+        return new Rectangle(inner.x + inner.width - 5 - MANAGE_WIDTH, inner.y + inner.height - 5 - MANAGE_HEIGHT, MANAGE_WIDTH, MANAGE_HEIGHT);
+    }
+
+    /**
+     * Returns the bounds of the copy button within a row.
+     *
+     * @param server The server shown in the row.
+     * @param cell   The bounds of the row.
+     * @return The button bounds, in the same coordinates as the row.
+     */
+    Rectangle getCopyButtonBounds(Server server, Rectangle cell) {
+        Rectangle inner = getInnerBounds(cell);
+        FontMetrics metrics = getFontMetrics(ipFont);
+        int ipBaseline = inner.y + inner.height / 2 + 16;
+        int x = getTextX(inner) + metrics.stringWidth(ServerPanel.getIpPort(server)) + 10;
+        return new Rectangle(x, ipBaseline - metrics.getAscent() - 5, metrics.stringWidth("Copy") + 24, metrics.getHeight() + 10);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Graphics2D g2d = (Graphics2D) g.create();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g2d.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        Rectangle cell = new Rectangle(0, 0, getWidth(), getHeight());
+        g2d.setColor(LIST_BACKGROUND);
+        g2d.fill(cell);
+
+        g2d.setColor(CARD_COLOR);
+        g2d.fillRoundRect(MARGIN, MARGIN, cell.width - 2 * MARGIN, cell.height - 2 * MARGIN, 15, 15);
+        g2d.setColor(BORDER_COLOR);
+        g2d.setStroke(new BasicStroke(1.5f));
+        g2d.draw(new RoundRectangle2D.Double(MARGIN, MARGIN, cell.width - 2 * MARGIN - 1.5, cell.height - 2 * MARGIN - 1.5, 15, 15));
+
+        Rectangle inner = getInnerBounds(cell);
+        g2d.setColor(ServerPanel.getStateColor(statistics));
+        g2d.fillRoundRect(inner.x, inner.y, INDICATOR_WIDTH, inner.height, 15, 15);
+
+        int textX = getTextX(inner);
+        g2d.setColor(Color.WHITE);
+        g2d.setFont(nameFont);
+        g2d.drawString(String.valueOf(server.getName()), textX, inner.y + inner.height / 2 - 4);
+        g2d.setColor(Color.LIGHT_GRAY);
+        g2d.setFont(ipFont);
+        g2d.drawString(ServerPanel.getIpPort(server), textX, inner.y + inner.height / 2 + 16);
+
+        Rectangle copy = getCopyButtonBounds(server, cell);
+        paintButton(g2d, copy, "Copy", ipFont);
+        Rectangle manage = getManageButtonBounds(cell);
+        paintButton(g2d, manage, "Manage", manageFont);
+        paintStatus(g2d, copy.x + copy.width, manage.x, inner.y + inner.height / 2);
+        g2d.dispose();
+    }
+
+    private void paintStatus(Graphics2D g2d, int left, int right, int centerY) {
+        boolean known = !statistics.getState().isEmpty();
+        String cpu = known ? String.format("CPU: %.2f%%", statistics.getCpuAbsolute()) : "CPU: ?";
+        String memory = known ? statistics.getFormattedMemory() : "Memory: ?";
+        String disk = known ? statistics.getFormattedDisk() : "Disk: ?";
+
+        g2d.setFont(statusFont);
+        g2d.setColor(Color.LIGHT_GRAY);
+        FontMetrics metrics = g2d.getFontMetrics();
+        int gap = 10;
+        int width = metrics.stringWidth(cpu) + metrics.stringWidth(memory) + metrics.stringWidth(disk) + 2 * gap;
+        int x = left + Math.max(gap, (right - left - width) / 2);
+        int baseline = centerY + metrics.getAscent() / 2;
+        g2d.drawString(cpu, x, baseline);
+        x += metrics.stringWidth(cpu) + gap;
+        g2d.drawString(memory, x, baseline);
+        x += metrics.stringWidth(memory) + gap;
+        g2d.drawString(disk, x, baseline);
+    }
+
+    private void paintButton(Graphics2D g2d, Rectangle bounds, String text, Font font) {
+        g2d.setColor(BUTTON_COLOR);
+        g2d.fillRoundRect(bounds.x, bounds.y, bounds.width, bounds.height, 8, 8);
+        g2d.setColor(BUTTON_BORDER_COLOR);
+        g2d.setStroke(new BasicStroke(1f));
+        g2d.drawRoundRect(bounds.x, bounds.y, bounds.width - 1, bounds.height - 1, 8, 8);
+        g2d.setColor(Color.WHITE);
+        g2d.setFont(font);
+        FontMetrics metrics = g2d.getFontMetrics();
+        int x = bounds.x + (bounds.width - metrics.stringWidth(text)) / 2;
+        int y = bounds.y + (bounds.height - metrics.getHeight()) / 2 + metrics.getAscent();
+        g2d.drawString(text, x, y);
+    }
+
+    private static Rectangle getInnerBounds(Rectangle cell) {
+        int inset = MARGIN + PADDING;
+        return new Rectangle(cell.x + inset, cell.y + inset, cell.width - 2 * inset, cell.height - 2 * inset);
+    }
+
+    private static int getTextX(Rectangle inner) {
+        return inner.x + INDICATOR_WIDTH + 15;
+    }
+}
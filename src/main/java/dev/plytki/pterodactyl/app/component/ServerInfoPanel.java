@@ -2,36 +2,137 @@ package dev.plytki.pterodactyl.app.component;
 
 import com.google.gson.Gson;
 import dev.plytki.pterodactyl.app.APIClient;
+import dev.plytki.pterodactyl.app.ConnectionManager;
+import dev.plytki.pterodactyl.app.ResourcePoller;
 import dev.plytki.pterodactyl.app.data.Server;
+import dev.plytki.pterodactyl.app.data.ServerCatalogCache;
 import dev.plytki.pterodactyl.app.data.ServerResponse;
 import dev.plytki.pterodactyl.app.data.Settings;
+import dev.plytki.pterodactyl.app.listener.Subscription;
+import dev.plytki.pterodactyl.app.net.IoExecutor;
+import dev.plytki.pterodactyl.app.net.IoScope;
+import dev.plytki.pterodactyl.app.util.StartupMetrics;
+import dev.plytki.pterodactyl.app.util.UiRefresher;
 import okhttp3.Response;
 
 import javax.swing.*;
+import javax.swing.Timer;
 import java.awt.*;
 import java.io.IOException;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Panel that displays information about servers fetched from the API.
+ * <p>
+ * When a snapshot of the last server list is cached, it is shown right away
+ * and then revalidated against the API, whose pages are fetched concurrently
+ * and shown as they land. Every list is applied as a diff keyed
+ * by server UUID, so only added, removed and changed servers touch their
+ * panels. A changed server is updated in place and keeps its connection. The
+ * list is refreshed in the background every {@code catalog.refresh.interval}
+ * seconds.
+ * <p>
+ * The rows are either one {@link ServerPanel} per server or, for large
+ * accounts, a virtualized list painted by a single renderer; see
+ * {@link ListMode}.
+ * <p>
+ * The panel always takes the width of the viewport it is scrolled in, so rows
+ * are never wider than the window and only scroll vertically.
+ * <p>
+ * Only servers whose rows are on screen, and pinned servers, hold a lease on
+ * their connection from the {@link ConnectionManager}; the others are not
+ * streamed, and their statistics are polled by the {@link ResourcePoller}.
  */
-public class ServerInfoPanel extends JPanel {
+public class ServerInfoPanel extends JPanel implements Scrollable {
+
+    private static final int SKELETON_ROWS = 4;
+    private static final int BATCH_SIZE = 25;
 
     private final Gson gson = new Gson();
     private final JPanel serverInfoPanel;
+    private final ServerRows rows;
+    private final Settings settings;
+    private final ServerCatalogCache cache;
+    private final IoScope scope;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<Server, Subscription> visibleLeases = new HashMap<>();
+    private Subscription visibilityBinding;
+    private Timer refreshTimer;
+    private boolean placeholderShown;
+    private boolean revalidated;
+    private boolean refreshing;
+    private boolean closed;
+    private int generation;
 
     /**
      * Constructs a ServerInfoPanel with the specified settings.
      *
      * @param settings The settings used to configure the API client.
+     * @param scope    The scope the requests run in.
      */
-    public ServerInfoPanel(Settings settings) {
+    public ServerInfoPanel(Settings settings, IoScope scope) {
+        this.settings = settings;
+        this.scope = scope;
+        this.rows = settings.options().getServerListMode() == ListMode.VIRTUAL ? new VirtualServerRows() : new PanelServerRows();
+        this.cache = settings.options().isCatalogCacheEnabled() ? ServerCatalogCache.forSettings(settings) : null;
         setLayout(new BoxLayout(this, BoxLayout.Y_AXIS));
         setBackground(new Color(30, 30, 30));
 
         serverInfoPanel = createServerInfoPanel();
         add(serverInfoPanel);
+        displaySkeletons();
+
+        if (cache != null) {
+            displayCachedServerInfo();
+        }
+        displayServerInfo();
+
+        int refreshInterval = settings.options().getCatalogRefreshInterval();
+        if (refreshInterval > 0) {
+            refreshTimer = new Timer(refreshInterval * 1000, e -> refresh((Timer) e.getSource()));
+            refreshTimer.start();
+        }
+    }
+
+    /**
+     * Releases every listed server: removes its row, releases its leases,
+     * stops polling it and closes its connection. Lists that land afterwards
+     * are ignored. Called when the window showing the panel is disposed.
+     */
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        generation++;
+        if (refreshTimer != null) {
+            refreshTimer.stop();
+        }
+        for (Entry entry : entries.values()) {
+            removeEntry(entry);
+        }
+        entries.clear();
+    }
 
-        displayServerInfo(settings);
+    /**
+     * Fetches the server list again, unless the previous fetch is still
+     * running. Stops the timer once the scope has been closed.
+     *
+     * @param timer The refresh timer.
+     */
+    private void refresh(Timer timer) {
+        if (scope.isClosed()) {
+            timer.stop();
+            return;
+        }
+        if (!refreshing) {
+            displayServerInfo();
+        }
     }
 
     /**
@@ -47,45 +148,404 @@ public class ServerInfoPanel extends JPanel {
     }
 
     /**
-     * Fetches and displays server information using the provided settings.
-     *
-     * @param settings The settings used to configure the API client.
+     * Fills the panel with placeholder rows until a server list arrives.
      */
-    private void displayServerInfo(Settings settings) {
+    private void displaySkeletons() {
+        for (int i = 0; i < SKELETON_ROWS; i++) {
+            serverInfoPanel.add(new SkeletonPanel());
+        }
+        placeholderShown = true;
+    }
+
+    /**
+     * Loads the cached server list on the IO executor and displays it, unless
+     * the API has already answered. A snapshot that fails to load is reported
+     * and otherwise ignored.
+     */
+    private void displayCachedServerInfo() {
+        scope.supply(cache::load).whenComplete((servers, e) -> {
+            if (e != null) {
+                if (!(e instanceof CancellationException)) {
+                    System.err.println("Failed to load server catalog snapshot: " + e);
+                }
+                return;
+            }
+            SwingUtilities.invokeLater(() -> {
+                if (servers != null && !revalidated) {
+                    applyServers(servers);
+                }
+            });
+        });
+    }
+
+    /**
+     * Fetches every page of the server list on the IO executor. The first page
+     * tells how many pages there are; the rest are then fetched concurrently
+     * and each is displayed as soon as it lands. Once all pages are in, the
+     * complete list is applied, which removes servers that are gone, and
+     * replaces the cached snapshot.
+     */
+    private void displayServerInfo() {
+        refreshing = true;
         APIClient apiClient = new APIClient(settings);
+        scope.supply(() -> fetchServerInfo(apiClient, 1)).whenComplete((firstPage, e) -> {
+            if (e instanceof CancellationException) {
+                return;
+            }
+            if (e != null || firstPage == null) {
+                String message = e != null ? "Error occurred while fetching server info." : "Failed to fetch server info.";
+                SwingUtilities.invokeLater(() -> {
+                    refreshing = false;
+                    displayErrorMessage(message);
+                });
+                return;
+            }
 
-        try (Response response = apiClient.getServerInfo()) {
+            AtomicReferenceArray<ServerResponse> pages = new AtomicReferenceArray<>(getTotalPages(firstPage));
+            pages.set(0, firstPage);
+            SwingUtilities.invokeLater(() -> applyPage(pages, 0));
+            fetchRemainingPages(apiClient, pages).whenComplete((ignored, pageError) -> {
+                if (pageError instanceof CancellationException) {
+                    return;
+                }
+                if (pageError != null) {
+                    SwingUtilities.invokeLater(() -> {
+                        refreshing = false;
+                        displayErrorMessage("Error occurred while fetching server info.");
+                    });
+                    return;
+                }
+                StartupMetrics.mark(StartupMetrics.Phase.SERVER_LIST_LOADED);
+                List<ServerResponse.ServerAttributes> servers = new ArrayList<>();
+                for (int i = 0; i < pages.length(); i++) {
+                    servers.addAll(getAttributes(pages.get(i)));
+                }
+                if (cache != null) {
+                    scope.run(() -> cache.save(servers));
+                }
+                SwingUtilities.invokeLater(() -> {
+                    refreshing = false;
+                    applyServers(servers);
+                });
+            });
+        });
+    }
+
+    /**
+     * Fetches pages 2 and up with at most the configured number of requests in
+     * flight. Each worker takes the next unfetched page until none are left.
+     *
+     * @param apiClient The API client.
+     * @param pages     The pages, with the first one already filled in.
+     * @return A future completed once every page has been fetched.
+     */
+    private CompletableFuture<Void> fetchRemainingPages(APIClient apiClient, AtomicReferenceArray<ServerResponse> pages) {
+        AtomicInteger nextPage = new AtomicInteger(1);
+        int workers = Math.min(Math.max(1, settings.options().getCatalogFetchParallelism()), pages.length() - 1);
+        CompletableFuture<?>[] tasks = new CompletableFuture<?>[Math.max(0, workers)];
+        for (int i = 0; i < tasks.length; i++) {
+            tasks[i] = scope.run(() -> {
+                int index;
+                while ((index = nextPage.getAndIncrement()) < pages.length()) {
+                    ServerResponse page = fetchServerInfo(apiClient, index + 1);
+                    if (page == null) {
+                        throw new IOException("Failed to fetch page " + (index + 1) + " of the server list");
+                    }
+                    pages.set(index, page);
+                    int landed = index;
+                    SwingUtilities.invokeLater(() -> applyPage(pages, landed));
+                }
+            });
+        }
+        return CompletableFuture.allOf(tasks);
+    }
+
+    /**
+     * Fetches and parses one page of the server list.
+     *
+     * @param apiClient The API client.
+     * @param page      The page number, starting at 1.
+     * @return The parsed response, or null if the request was not successful.
+     * @throws IOException If the request fails.
+     */
+    private ServerResponse fetchServerInfo(APIClient apiClient, int page) throws IOException {
+        try (Response response = apiClient.getServerInfo(page)) {
             if (response.isSuccessful()) {
                 String responseBody = response.body().string();
-                ServerResponse serverResponse = gson.fromJson(responseBody, ServerResponse.class);
+                return gson.fromJson(responseBody, ServerResponse.class);
+            }
+            return null;
+        }
+    }
 
-                serverInfoPanel.removeAll();
-                for (ServerResponse.ServerData serverData : serverResponse.data) {
-                    Server server = new Server(serverData.attributes, settings);
-                    ServerPanel serverPanel = new ServerPanel(server);
-                    serverInfoPanel.add(serverPanel);
-                }
-                serverInfoPanel.revalidate();
-                serverInfoPanel.repaint();
-            } else {
-                displayErrorMessage("Failed to fetch server info.");
+    private static int getTotalPages(ServerResponse serverResponse) {
+        if (serverResponse.meta == null || serverResponse.meta.pagination == null) {
+            return 1;
+        }
+        return Math.max(1, serverResponse.meta.pagination.total_pages);
+    }
+
+    private static List<ServerResponse.ServerAttributes> getAttributes(ServerResponse serverResponse) {
+        List<ServerResponse.ServerAttributes> servers = new ArrayList<>(serverResponse.data.size());
+        for (ServerResponse.ServerData serverData : serverResponse.data) {
+            servers.add(serverData.attributes);
+        }
+        return servers;
+    }
+
+    /**
+     * Adds or updates the servers of a page that has just landed. The page is
+     * placed after the servers of the earlier pages that have landed so far;
+     * the final complete list fixes up any order that differs. Servers are
+     * never removed here, since the rest of the list is not known yet.
+     *
+     * @param pages The pages fetched so far.
+     * @param index The index of the page that landed.
+     */
+    private void applyPage(AtomicReferenceArray<ServerResponse> pages, int index) {
+        if (closed) {
+            return;
+        }
+        generation++;
+        revalidated = true;
+        clearPlaceholder();
+        int offset = 0;
+        for (int i = 0; i < index; i++) {
+            ServerResponse page = pages.get(i);
+            offset += page != null ? page.data.size() : 0;
+        }
+
+        List<ServerResponse.ServerAttributes> servers = getAttributes(pages.get(index));
+        boolean changed = false;
+        for (int i = 0; i < servers.size(); i++) {
+            changed |= applyServer(servers.get(i), offset + i);
+        }
+        if (changed) {
+            rows.rowsChanged();
+        }
+    }
+
+    /**
+     * Brings the list in line with the given servers. Servers that are gone are
+     * removed right away. The rest are applied in batches, each in its own
+     * event, so the first rows are painted while the rest are still being
+     * built. A newer list abandons any batches left over from an older one.
+     *
+     * @param servers The servers to display, in display order.
+     */
+    private void applyServers(List<ServerResponse.ServerAttributes> servers) {
+        if (closed) {
+            return;
+        }
+        int currentGeneration = ++generation;
+        clearPlaceholder();
+
+        Set<String> uuids = new HashSet<>();
+        for (ServerResponse.ServerAttributes server : servers) {
+            uuids.add(server.uuid);
+        }
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next().getValue();
+            if (!uuids.contains(entry.server.getUuid())) {
+                iterator.remove();
+                removeEntry(entry);
             }
-        } catch (IOException e) {
-            displayErrorMessage("Error occurred while fetching server info.");
+        }
+        applyBatch(servers, 0, currentGeneration);
+    }
+
+    /**
+     * Removes the skeleton rows or error message, if they are shown.
+     */
+    private void clearPlaceholder() {
+        if (placeholderShown) {
+            serverInfoPanel.removeAll();
+            serverInfoPanel.add(rows.getComponent());
+            serverInfoPanel.revalidate();
+            serverInfoPanel.repaint();
+            placeholderShown = false;
         }
     }
 
     /**
-     * Displays an error message in the server info panel.
+     * Adds or updates the servers of one batch and schedules the next one.
+     *
+     * @param servers    The servers to display.
+     * @param start      The index of the first server in the batch.
+     * @param generation The list the batch belongs to.
+     */
+    private void applyBatch(List<ServerResponse.ServerAttributes> servers, int start, int generation) {
+        if (generation != this.generation) {
+            return;
+        }
+        int end = Math.min(start + BATCH_SIZE, servers.size());
+        boolean changed = false;
+        for (int i = start; i < end; i++) {
+            changed |= applyServer(servers.get(i), i);
+        }
+        if (changed) {
+            rows.rowsChanged();
+        }
+
+        if (end < servers.size()) {
+            SwingUtilities.invokeLater(() -> applyBatch(servers, end, generation));
+        } else if (revalidated) {
+            StartupMetrics.mark(StartupMetrics.Phase.SERVERS_DISPLAYED);
+        }
+    }
+
+    /**
+     * Adds, updates or moves the row of a single server. An existing server
+     * whose details changed is updated in place, keeping its connection.
+     *
+     * @param attributes The server attributes.
+     * @param index      The position of the server in the list.
+     * @return true if rows were added or moved.
+     */
+    private boolean applyServer(ServerResponse.ServerAttributes attributes, int index) {
+        byte[] record = ServerCatalogCache.encode(attributes);
+        Entry entry = entries.get(attributes.uuid);
+        if (entry == null) {
+            Server server = new Server(attributes, settings);
+            ConnectionManager connections = ConnectionManager.shared();
+            Subscription pin = connections.isPinned(server) ? connections.acquire(server) : null;
+            entries.put(attributes.uuid, new Entry(record, server, pin, ResourcePoller.shared().track(server)));
+            rows.add(Math.min(index, rows.size()), server);
+            return true;
+        }
+
+        if (!Arrays.equals(entry.record, record)) {
+            entry.server.update(attributes);
+            rows.update(entry.server);
+            entries.put(attributes.uuid, new Entry(record, entry.server, entry.pin, entry.poll));
+        }
+        return rows.move(entry.server, Math.min(index, rows.size() - 1));
+    }
+
+    /**
+     * Removes a server's row, releases its leases, stops polling it and closes
+     * its connection. Closing flushes the console spool, so it runs on the IO
+     * executor rather than on the EDT.
+     *
+     * @param entry The entry to remove.
+     */
+    private void removeEntry(Entry entry) {
+        rows.remove(entry.server);
+        Subscription lease = visibleLeases.remove(entry.server);
+        if (lease != null) {
+            lease.unsubscribe();
+        }
+        if (entry.pin != null) {
+            entry.pin.unsubscribe();
+        }
+        entry.poll.unsubscribe();
+        IoExecutor.application().run(entry.server::closeConnection);
+    }
+
+    /**
+     * Takes leases on servers that came into view and releases those of
+     * servers that left it.
+     *
+     * @param visible The servers now on screen.
+     */
+    private void updateVisibleServers(List<Server> visible) {
+        Set<Server> current = new HashSet<>(visible);
+        Iterator<Map.Entry<Server, Subscription>> iterator = visibleLeases.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Server, Subscription> lease = iterator.next();
+            if (!current.contains(lease.getKey())) {
+                lease.getValue().unsubscribe();
+                iterator.remove();
+            }
+        }
+        for (Server server : visible) {
+            if (!visibleLeases.containsKey(server)) {
+                visibleLeases.put(server, ConnectionManager.shared().acquire(server));
+            }
+        }
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return getPreferredSize();
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? ServerCellRenderer.ROW_HEIGHT / 4 : 16;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? visibleRect.height : visibleRect.width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return true;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        Container parent = getParent();
+        return parent instanceof JViewport && parent.getHeight() > getPreferredSize().height;
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        visibilityBinding = UiRefresher.shared().bind(rows::getVisibleServers, this::updateVisibleServers);
+        updateVisibleServers(rows.getVisibleServers());
+    }
+
+    @Override
+    public void removeNotify() {
+        visibilityBinding.unsubscribe();
+        updateVisibleServers(List.of());
+        super.removeNotify();
+    }
+
+    /**
+     * Displays an error message in the server info panel. If servers are
+     * already shown, they are kept and the error is only reported.
      *
      * @param message The error message to display.
      */
     private void displayErrorMessage(String message) {
+        if (!entries.isEmpty()) {
+            System.err.println(message + " Keeping the servers already shown.");
+            return;
+        }
+        generation++;
         serverInfoPanel.removeAll();
+        placeholderShown = true;
         JLabel errorLabel = new JLabel(message);
         errorLabel.setForeground(Color.RED);
         serverInfoPanel.add(errorLabel);
         serverInfoPanel.revalidate();
         serverInfoPanel.repaint();
     }
+
+    /**
+     * A displayed server with the record it was built from, its lease if the
+     * server is pinned, and its resource polling registration.
+     */
+    private record Entry(byte[] record, Server server, Subscription pin, Subscription poll) {
+    }
+
+    /**
+     * How the server rows are built.
+     */
+    public enum ListMode {
+        /**
+         * One {@link ServerPanel} per server.
+         */
+        PANELS,
+        /**
+         * A virtualized list painting only the visible rows with a single
+         * renderer.
+         */
+        VIRTUAL
+    }
 }
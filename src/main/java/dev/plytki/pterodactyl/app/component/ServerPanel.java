@@ -4,9 +4,10 @@ import dev.plytki.pterodactyl.app.ServerManagementWindow;
 import dev.plytki.pterodactyl.app.data.Server;
 import dev.plytki.pterodactyl.app.data.ServerResponse;
 import dev.plytki.pterodactyl.app.data.Statistics;
-import dev.plytki.pterodactyl.app.event.StatsEvent;
 import dev.plytki.pterodactyl.app.font.HackFont;
-import dev.plytki.pterodactyl.app.listener.StatsListener;
+import dev.plytki.pterodactyl.app.listener.Subscription;
+import dev.plytki.pterodactyl.app.util.UiRefresher;
+import lombok.Getter;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
@@ -23,19 +24,26 @@ import java.awt.geom.RoundRectangle2D;
  */
 public class ServerPanel extends JPanel {
 
+    @Getter
+    private final Server server;
+    private final Subscription statsBinding;
+    private final JLabel nameLabel;
+    private final JLabel ipLabel;
+
     /**
      * Constructs a ServerPanel for the given server.
      *
      * @param server The server to display information for.
      */
     public ServerPanel(Server server) {
+        this.server = server;
         setLayout(new BorderLayout());
         setBorder(new EmptyBorder(10, 10, 10, 10));
         setOpaque(false);
 
-        JLabel nameLabel = createNameLabel(server.getName());
-        JLabel ipLabel = createIpLabel(server);
-        JButton copyButton = createCopyButton(ipLabel.getText());
+        nameLabel = createNameLabel(server.getName());
+        ipLabel = createIpLabel(getIpPort(server));
+        JButton copyButton = createCopyButton();
         JLabel cpuLabel = createStatusLabel("CPU: ?");
         JLabel memoryLabel = createStatusLabel("Memory: ?");
         JLabel diskLabel = createStatusLabel("Disk: ?");
@@ -43,23 +51,46 @@ public class ServerPanel extends JPanel {
         JButton manageButton = createManageButton();
 
         manageButton.addActionListener(e -> openServerManagementWindow(server));
-        server.getConnection().registerListener((StatsListener) event ->
-                SwingUtilities.invokeLater(() -> updateStats(event, cpuLabel, memoryLabel, diskLabel, stateLabel))
-        );
 
         JPanel leftPanel = createLeftPanel(nameLabel, ipLabel, copyButton);
         JPanel rightPanel = createRightPanel(cpuLabel, memoryLabel, diskLabel);
         JPanel buttonPanel = createButtonPanel(manageButton);
         JPanel stateIndicator = createStateIndicator();
 
-        server.getConnection().registerListener((StatsListener) event ->
-                updateStateIndicator(event, stateIndicator)
-        );
+        statsBinding = UiRefresher.shared().bind(server.getConnection()::getLastStatistics, statistics -> {
+            updateStats(statistics, cpuLabel, memoryLabel, diskLabel, stateLabel);
+            updateStateIndicator(statistics, stateIndicator);
+        });
 
         addPanels(leftPanel, rightPanel, buttonPanel, stateIndicator);
         createBorder();
     }
 
+    /**
+     * Shows the server's current name and address after its details were
+     * updated. Labels whose text is unchanged are left alone, so the list is
+     * only laid out again when something visible changed.
+     *
+     * @param server The server shown by this panel.
+     */
+    public void update(Server server) {
+        if (!nameLabel.getText().equals(server.getName())) {
+            nameLabel.setText(server.getName());
+        }
+        String ipPort = getIpPort(server);
+        if (!ipLabel.getText().equals(ipPort)) {
+            ipLabel.setText(ipPort);
+        }
+    }
+
+    /**
+     * Stops updating this panel from the server's statistics. Call this once
+     * the panel has been removed from the list.
+     */
+    public void dispose() {
+        statsBinding.unsubscribe();
+    }
+
     private JLabel createNameLabel(String name) {
         JLabel nameLabel = new JLabel(name);
         nameLabel.setFont(HackFont.REGULAR.deriveFont(13f));
@@ -67,28 +98,31 @@ public class ServerPanel extends JPanel {
         return nameLabel;
     }
 
-    private JLabel createIpLabel(Server server) {
+    static String getIpPort(Server server) {
         ServerResponse.Allocations allocations = server.getRelationships().allocations;
         ServerResponse.AllocationData primaryAllocation = allocations.getPrimaryAllocation();
-        String ipPort = primaryAllocation.attributes.ip + ":" + primaryAllocation.attributes.port;
+        return primaryAllocation.attributes.ip + ":" + primaryAllocation.attributes.port;
+    }
+
+    private JLabel createIpLabel(String ipPort) {
         JLabel ipLabel = new JLabel(ipPort);
         ipLabel.setFont(HackFont.REGULAR.deriveFont(11f));
         ipLabel.setForeground(Color.LIGHT_GRAY);
         return ipLabel;
     }
 
-    private JButton createCopyButton(String ipPort) {
+    private JButton createCopyButton() {
         JButton copyButton = new JButton("Copy");
         copyButton.setFocusPainted(false);
         copyButton.setBackground(new Color(70, 70, 70));
         copyButton.setForeground(Color.WHITE);
         copyButton.setCursor(new Cursor(Cursor.HAND_CURSOR));
         copyButton.setFont(HackFont.REGULAR.deriveFont(11f));
-        copyButton.addActionListener(e -> copyToClipboard(ipPort));
+        copyButton.addActionListener(e -> copyToClipboard(ipLabel.getText()));
         return copyButton;
     }
 
-    private void copyToClipboard(String text) {
+    static void copyToClipboard(String text) {
         StringSelection stringSelection = new StringSelection(text);
         Clipboard clipboard = Toolkit.getDefaultToolkit().getSystemClipboard();
         clipboard.setContents(stringSelection, null);
@@ -191,30 +225,31 @@ public class ServerPanel extends JPanel {
         return gbc;
     }
 
-    private void openServerManagementWindow(Server server) {
+    static void openServerManagementWindow(Server server) {
         SwingUtilities.invokeLater(() -> {
             ServerManagementWindow serverManagementWindow = new ServerManagementWindow(server);
             serverManagementWindow.setVisible(true);
         });
     }
 
-    private void updateStats(StatsEvent event, JLabel cpuLabel, JLabel memoryLabel, JLabel diskLabel, JLabel stateLabel) {
-        Statistics statistics = event.getStatistics();
+    private void updateStats(Statistics statistics, JLabel cpuLabel, JLabel memoryLabel, JLabel diskLabel, JLabel stateLabel) {
         cpuLabel.setText(String.format("CPU: %.2f%%", statistics.getCpuAbsolute()));
         memoryLabel.setText(statistics.getFormattedMemory());
         diskLabel.setText(statistics.getFormattedDisk());
         stateLabel.setText("State: " + statistics.getState());
     }
 
-    private void updateStateIndicator(StatsEvent event, JPanel stateIndicator) {
-        String state = event.getStatistics().getState();
-        Color stateColor = switch (state) {
+    private void updateStateIndicator(Statistics statistics, JPanel stateIndicator) {
+        stateIndicator.setBackground(getStateColor(statistics));
+    }
+
+    static Color getStateColor(Statistics statistics) {
+        return switch (statistics.getState()) {
             case "running" -> new Color(48, 131, 48);
             case "offline" -> new Color(131, 48, 48);
             case "starting", "stopping" -> new Color(131, 105, 48);
             default -> Color.GRAY;
         };
-        stateIndicator.setBackground(stateColor);
     }
 
     @Override
@@ -0,0 +1,70 @@
+package dev.plytki.pterodactyl.app.component;
+
+import dev.plytki.pterodactyl.app.data.Server;
+
+import javax.swing.*;
+import java.util.List;
+
+/**
+ * The rows of the server list, as maintained by {@link ServerInfoPanel}. All
+ * methods are called on the EDT.
+ */
+interface ServerRows {
+
+    /**
+     * Returns the component showing the rows.
+     *
+     * @return The component.
+     */
+    JComponent getComponent();
+
+    /**
+     * Returns the number of rows.
+     *
+     * @return The row count.
+     */
+    int size();
+
+    /**
+     * Inserts a row for a server.
+     *
+     * @param index  The row index, at most {@link #size()}.
+     * @param server The server.
+     */
+    void add(int index, Server server);
+
+    /**
+     * Shows a server's details after {@link Server#update} changed them.
+     *
+     * @param server The server.
+     */
+    void update(Server server);
+
+    /**
+     * Moves a server's row to the given index.
+     *
+     * @param server The server.
+     * @param index  The row index, less than {@link #size()}.
+     * @return true if the row moved, false if it already was at the index.
+     */
+    boolean move(Server server, int index);
+
+    /**
+     * Removes a server's row.
+     *
+     * @param server The server.
+     */
+    void remove(Server server);
+
+    /**
+     * Returns the servers whose rows are at least partly on screen.
+     *
+     * @return The visible servers, in row order.
+     */
+    List<Server> getVisibleServers();
+
+    /**
+     * Lays out and repaints the rows after rows were added or moved.
+     */
+    void rowsChanged();
+}
@@ -0,0 +1,56 @@
+package dev.plytki.pterodactyl.app.component;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.geom.RoundRectangle2D;
+
+/**
+ * Placeholder row shown in place of a {@link ServerPanel} while the server
+ * list is loading. It has the same height and card shape as a server panel,
+ * with grey bars where the name, address and resource usage will appear, and
+ * takes its width from the list.
+ */
+public class SkeletonPanel extends JPanel {
+
+    private static final Color CARD_COLOR = new Color(45, 45, 45);
+    private static final Color BORDER_COLOR = new Color(70, 70, 70);
+    private static final Color BAR_COLOR = new Color(60, 60, 60);
+
+    /**
+     * Constructs a SkeletonPanel.
+     */
+    public SkeletonPanel() {
+        setOpaque(false);
+        setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        Graphics2D g2d = (Graphics2D) g.create();
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        Insets insets = getInsets();
+        int width = getWidth() - insets.left - insets.right;
+        int height = getHeight() - insets.top - insets.bottom;
+        g2d.translate(insets.left, insets.top);
+
+        g2d.setColor(CARD_COLOR);
+        g2d.fillRoundRect(0, 0, width, height, 15, 15);
+        g2d.setColor(BORDER_COLOR);
+        g2d.setStroke(new BasicStroke(1.5f));
+        g2d.draw(new RoundRectangle2D.Double(0, 0, width - 1.5, height - 1.5, 15, 15));
+
+        g2d.setColor(BAR_COLOR);
+        g2d.fillRoundRect(20, 15, 12, height - 30, 12, 12);
+        g2d.fillRoundRect(50, height / 2 - 22, 200, 16, 8, 8);
+        g2d.fillRoundRect(50, height / 2 + 6, 140, 12, 8, 8);
+        g2d.fillRoundRect(width / 2 - 150, height / 2 - 8, 300, 16, 8, 8);
+        g2d.fillRoundRect(width - 205, 15, 180, height - 30, 8, 8);
+        g2d.dispose();
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        return new Dimension(0, ServerCellRenderer.ROW_HEIGHT);
+    }
+}
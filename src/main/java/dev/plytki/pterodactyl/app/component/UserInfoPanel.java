@@ -5,11 +5,14 @@ import com.google.gson.JsonObject;
 import dev.plytki.pterodactyl.app.APIClient;
 import dev.plytki.pterodactyl.app.data.Settings;
 import dev.plytki.pterodactyl.app.font.HackFont;
+import dev.plytki.pterodactyl.app.net.IoScope;
+import dev.plytki.pterodactyl.app.util.StartupMetrics;
 import okhttp3.Response;
 
 import javax.swing.*;
 import java.awt.*;
 import java.io.IOException;
+import java.util.concurrent.CancellationException;
 
 /**
  * Panel that displays user information fetched from the API.
@@ -23,12 +26,13 @@ public class UserInfoPanel extends JPanel {
      * Constructs a UserInfoPanel with the specified settings.
      *
      * @param settings The settings used to configure the API client.
+     * @param scope    The scope the request runs in.
      */
-    public UserInfoPanel(Settings settings) {
+    public UserInfoPanel(Settings settings, IoScope scope) {
         setLayout(new BorderLayout());
         userInfoLabel = createUserInfoLabel();
         add(userInfoLabel, BorderLayout.CENTER);
-        displayUserInfo(settings);
+        displayUserInfo(settings, scope);
     }
 
     /**
@@ -37,7 +41,7 @@ public class UserInfoPanel extends JPanel {
      * @return The configured user info label.
      */
     private JLabel createUserInfoLabel() {
-        JLabel label = new JLabel("User info will be displayed here.");
+        JLabel label = new JLabel("Loading user info...");
         label.setFont(HackFont.ITALIC.deriveFont(10f));
         label.setForeground(Color.WHITE);
         label.setBackground(new Color(30, 30, 30));
@@ -47,12 +51,30 @@ public class UserInfoPanel extends JPanel {
     }
 
     /**
-     * Fetches and displays user information using the provided settings.
+     * Fetches user information on the IO executor and displays it once it arrives.
      *
      * @param settings The settings used to configure the API client.
+     * @param scope    The scope the request runs in.
      */
-    private void displayUserInfo(Settings settings) {
+    private void displayUserInfo(Settings settings, IoScope scope) {
         APIClient apiClient = new APIClient(settings);
+        scope.supply(() -> fetchUserInfo(apiClient)).whenComplete((text, e) -> {
+            if (e instanceof CancellationException) {
+                return;
+            }
+            StartupMetrics.mark(StartupMetrics.Phase.USER_INFO_LOADED);
+            SwingUtilities.invokeLater(() -> userInfoLabel.setText(e == null ? text : "Error occurred while fetching user info."));
+        });
+    }
+
+    /**
+     * Fetches user information and formats it for display.
+     *
+     * @param apiClient The API client.
+     * @return The text to display.
+     * @throws IOException If the request fails.
+     */
+    private String fetchUserInfo(APIClient apiClient) throws IOException {
         try (Response response = apiClient.getUserInfo()) {
             if (response.isSuccessful()) {
                 String responseBody = response.body().string();
@@ -61,12 +83,9 @@ public class UserInfoPanel extends JPanel {
                 String username = attributes.get("username").getAsString();
                 String firstName = attributes.get("first_name").getAsString();
                 String lastName = attributes.get("last_name").getAsString();
-                userInfoLabel.setText(String.format("User: %s (%s %s)", username, firstName, lastName));
-            } else {
-                userInfoLabel.setText("Failed to fetch user info.");
+                return String.format("User: %s (%s %s)", username, firstName, lastName);
             }
-        } catch (IOException e) {
-            userInfoLabel.setText("Error occurred while fetching user info.");
+            return "Failed to fetch user info.";
         }
     }
 }
@@ -0,0 +1,245 @@
+package dev.plytki.pterodactyl.app.component;
+
+import dev.plytki.pterodactyl.app.data.Server;
+import dev.plytki.pterodactyl.app.data.Statistics;
+import dev.plytki.pterodactyl.app.listener.Subscription;
+import dev.plytki.pterodactyl.app.util.UiRefresher;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Server rows shown in a {@link JList} with fixed-height cells, painted by a
+ * single {@link ServerCellRenderer}. Only the rows inside the visible area are
+ * painted, and no components exist per server, so layout and memory stay flat
+ * with thousands of servers. Live statistics are read from each server's
+ * connection; the visible rows are repainted when any of their statistics
+ * change.
+ */
+class VirtualServerRows implements ServerRows {
+
+    private final ServerListModel model = new ServerListModel();
+    private final ServerCellRenderer renderer = new ServerCellRenderer();
+    private final ServerList list = new ServerList();
+
+    VirtualServerRows() {
+        list.setCellRenderer(renderer);
+        // Rows span the list's width; a fixed width of 0 only keeps the list
+        // from measuring every cell for its preferred width.
+        list.setFixedCellHeight(ServerCellRenderer.ROW_HEIGHT);
+        list.setFixedCellWidth(0);
+        list.setBackground(new Color(30, 30, 30));
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        list.setFocusable(false);
+
+        MouseAdapter mouseHandler = new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (SwingUtilities.isLeftMouseButton(e)) {
+                    handleClick(e.getPoint());
+                }
+            }
+
+            @Override
+            public void mouseMoved(MouseEvent e) {
+                list.setCursor(Cursor.getPredefinedCursor(getButtonAt(e.getPoint()) != null ? Cursor.HAND_CURSOR : Cursor.DEFAULT_CURSOR));
+            }
+        };
+        list.addMouseListener(mouseHandler);
+        list.addMouseMotionListener(mouseHandler);
+    }
+
+    @Override
+    public JComponent getComponent() {
+        return list;
+    }
+
+    @Override
+    public int size() {
+        return model.getSize();
+    }
+
+    @Override
+    public void add(int index, Server server) {
+        model.add(index, server);
+    }
+
+    @Override
+    public void update(Server server) {
+        model.changed(server);
+    }
+
+    @Override
+    public boolean move(Server server, int index) {
+        return model.move(server, index);
+    }
+
+    @Override
+    public void remove(Server server) {
+        model.remove(server);
+    }
+
+    @Override
+    public List<Server> getVisibleServers() {
+        int first = list.getFirstVisibleIndex();
+        int last = list.getLastVisibleIndex();
+        if (first < 0) {
+            return List.of();
+        }
+        return List.copyOf(model.servers.subList(first, last + 1));
+    }
+
+    @Override
+    public void rowsChanged() {
+        // The model notifies the list of every change.
+    }
+
+    private void handleClick(Point point) {
+        String button = getButtonAt(point);
+        if (button == null) {
+            return;
+        }
+        Server server = model.getElementAt(list.locationToIndex(point));
+        switch (button) {
+            case "copy" -> ServerPanel.copyToClipboard(ServerPanel.getIpPort(server));
+            case "manage" -> ServerPanel.openServerManagementWindow(server);
+        }
+    }
+
+    /**
+     * Returns the button under the given point.
+     *
+     * @param point The point, in list coordinates.
+     * @return "copy", "manage", or null if the point is not on a button.
+     */
+    private String getButtonAt(Point point) {
+        int index = list.locationToIndex(point);
+        if (index < 0) {
+            return null;
+        }
+        Rectangle cell = list.getCellBounds(index, index);
+        if (cell == null || !cell.contains(point)) {
+            return null;
+        }
+        if (renderer.getManageButtonBounds(cell).contains(point)) {
+            return "manage";
+        }
+        if (renderer.getCopyButtonBounds(model.getElementAt(index), cell).contains(point)) {
+            return "copy";
+        }
+        return null;
+    }
+
+    /**
+     * Returns the current statistics of the visible rows. The list compares
+     * equal between ticks only if none of them changed.
+     *
+     * @return The statistics, in row order.
+     */
+    private List<Statistics> getVisibleStatistics() {
+        int first = list.getFirstVisibleIndex();
+        int last = list.getLastVisibleIndex();
+        if (first < 0) {
+            return List.of();
+        }
+        List<Statistics> statistics = new ArrayList<>(last - first + 1);
+        for (int i = first; i <= last; i++) {
+            statistics.add(model.getElementAt(i).getConnection().getLastStatistics());
+        }
+        return statistics;
+    }
+
+    /**
+     * The list, repainting its visible rows on refresher ticks while it is
+     * displayed.
+     */
+    private class ServerList extends JList<Server> {
+
+        private Subscription statsBinding;
+
+        private ServerList() {
+            super(model);
+        }
+
+        @Override
+        public Dimension getMaximumSize() {
+            return new Dimension(Integer.MAX_VALUE, getPreferredSize().height);
+        }
+
+        @Override
+        public void addNotify() {
+            super.addNotify();
+            statsBinding = UiRefresher.shared().bind(VirtualServerRows.this::getVisibleStatistics, statistics -> repaint(getVisibleRect()));
+        }
+
+        @Override
+        public void removeNotify() {
+            statsBinding.unsubscribe();
+            super.removeNotify();
+        }
+    }
+
+    /**
+     * The servers in display order, with the index of each server, so a row
+     * is found without scanning the list. Only the indexes in the range a
+     * change shifted are renumbered; appending a server or confirming its
+     * position costs constant time.
+     */
+    private static class ServerListModel extends AbstractListModel<Server> {
+
+        private final List<Server> servers = new ArrayList<>();
+        private final Map<Server, Integer> indexes = new HashMap<>();
+
+        @Override
+        public int getSize() {
+            return servers.size();
+        }
+
+        @Override
+        public Server getElementAt(int index) {
+            return servers.get(index);
+        }
+
+        private void add(int index, Server server) {
+            servers.add(index, server);
+            renumber(index, servers.size());
+            fireIntervalAdded(this, index, index);
+        }
+
+        private void changed(Server server) {
+            int index = indexes.get(server);
+            fireContentsChanged(this, index, index);
+        }
+
+        private boolean move(Server server, int index) {
+            int current = indexes.get(server);
+            if (current == index) {
+                return false;
+            }
+            servers.remove(current);
+            servers.add(index, server);
+            renumber(Math.min(current, index), Math.max(current, index) + 1);
+            fireContentsChanged(this, Math.min(current, index), Math.max(current, index));
+            return true;
+        }
+
+        private void remove(Server server) {
+            int index = indexes.remove(server);
+            servers.remove(index);
+            renumber(index, servers.size());
+            fireIntervalRemoved(this, index, index);
+        }
+
+        private void renumber(int from, int to) {
+            for (int i = from; i < to; i++) {
+                indexes.put(servers.get(i), i);
+            }
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package dev.plytki.pterodactyl.app.console;
+
+import java.util.Arrays;
+
+/**
+ * Parses console output into a {@link StyledLine}, turning SGR sequences into
+ * style runs and dropping every other escape sequence. The parser carries the
+ * current style from one line to the next, like a terminal does, so one
+ * instance should be used per output stream. Supported attributes are bold,
+ * italic, underline, and 16, 256 and 24-bit foreground and background colours.
+ * This class is not thread-safe.
+ */
+public class AnsiParser {
+
+    private static final int[] PALETTE = {
+            0x000000, 0xCD3131, 0x0DBC79, 0xE5E510, 0x2472C8, 0xBC3FBC, 0x11A8CD, 0xE5E5E5,
+            0x666666, 0xF14C4C, 0x23D18B, 0xF5F543, 0x3B8EEA, 0xD670D6, 0x29B8DB, 0xFFFFFF
+    };
+
+    private int foreground = -1;
+    private int background = -1;
+    private boolean bold;
+    private boolean italic;
+    private boolean underline;
+    private int[] runs = new int[16];
+    private int runCount;
+    private final int[] params = new int[32];
+    private int lastConsumed;
+
+    /**
+     * Parses one line of console output.
+     *
+     * @param raw The raw line, possibly containing escape sequences.
+     * @return The line text with its style runs.
+     */
+    public StyledLine parse(String raw) {
+        int length = raw.length();
+        int first = 0;
+        while (first < length && !AnsiStripper.isIntroducer(raw.charAt(first))) {
+            first++;
+        }
+        AnsiStyle style = currentStyle();
+        if (first == length && style == AnsiStyle.DEFAULT) {
+            return new StyledLine(raw, null);
+        }
+
+        StringBuilder text = new StringBuilder(length);
+        runCount = 0;
+        if (style != AnsiStyle.DEFAULT) {
+            addRun(0, style.getId());
+        }
+        int copyFrom = 0;
+        int position = first;
+        while (position < length) {
+            if (!AnsiStripper.isIntroducer(raw.charAt(position))) {
+                position++;
+                continue;
+            }
+            text.append(raw, copyFrom, position);
+            int end = AnsiStripper.sequenceEnd(raw, position);
+            if (AnsiStripper.isCsi(raw, position) && end > position && raw.charAt(end - 1) == 'm') {
+                int paramsStart = raw.charAt(position) == 0x1B ? position + 2 : position + 1;
+                applySgr(raw, paramsStart, end - 1);
+                switchStyle(text.length(), currentStyle().getId());
+            }
+            position = end;
+            copyFrom = end;
+        }
+        text.append(raw, copyFrom, length);
+
+        if (runCount > 0 && runs[(runCount - 1) * 2] == text.length()) {
+            runCount--;
+        }
+        if (runCount == 0 || (runCount == 1 && runs[1] == AnsiStyle.DEFAULT.getId())) {
+            return new StyledLine(text.toString(), null);
+        }
+        return new StyledLine(text.toString(), Arrays.copyOf(runs, runCount * 2));
+    }
+
+    private void switchStyle(int start, int styleId) {
+        if (runCount == 0) {
+            if (styleId != AnsiStyle.DEFAULT.getId()) {
+                if (start > 0) addRun(0, AnsiStyle.DEFAULT.getId());
+                addRun(start, styleId);
+            }
+            return;
+        }
+        int last = (runCount - 1) * 2;
+        if (runs[last + 1] == styleId) {
+            return;
+        }
+        if (runs[last] == start) {
+            runs[last + 1] = styleId;
+            if (runCount > 1 && runs[last - 1] == styleId) {
+                runCount--;
+            }
+        } else {
+            addRun(start, styleId);
+        }
+    }
+
+    private void addRun(int start, int styleId) {
+        if (runCount * 2 == runs.length) {
+            runs = Arrays.copyOf(runs, runs.length * 2);
+        }
+        runs[runCount * 2] = start;
+        runs[runCount * 2 + 1] = styleId;
+        runCount++;
+    }
+
+    private AnsiStyle currentStyle() {
+        if (foreground < 0 && background < 0 && !bold && !italic && !underline) {
+            return AnsiStyle.DEFAULT;
+        }
+        return AnsiStyle.of(foreground, background, bold, italic, underline);
+    }
+
+    /**
+     * Applies the SGR parameters between {@code start} and {@code end}.
+     */
+    private void applySgr(String raw, int start, int end) {
+        int count = 0;
+        int value = 0;
+        boolean digits = false;
+        for (int i = start; i <= end && count < params.length; i++) {
+            char c = i < end ? raw.charAt(i) : ';';
+            if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                digits = true;
+            } else if (c == ';' || c == ':') {
+                params[count++] = digits ? value : 0;
+                value = 0;
+                digits = false;
+            } else {
+                return;
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            int param = params[i];
+            switch (param) {
+                case 0 -> reset();
+                case 1 -> bold = true;
+                case 3 -> italic = true;
+                case 4 -> underline = true;
+                case 22 -> bold = false;
+                case 23 -> italic = false;
+                case 24 -> underline = false;
+                case 39 -> foreground = -1;
+                case 49 -> background = -1;
+                case 38, 48 -> {
+                    int color = extendedColor(i, count);
+                    i = lastConsumed;
+                    if (param == 38) foreground = color;
+                    else background = color;
+                }
+                default -> {
+                    if (param >= 30 && param <= 37) foreground = PALETTE[param - 30];
+                    else if (param >= 90 && param <= 97) foreground = PALETTE[param - 90 + 8];
+                    else if (param >= 40 && param <= 47) background = PALETTE[param - 40];
+                    else if (param >= 100 && param <= 107) background = PALETTE[param - 100 + 8];
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads a {@code 5;n} or {@code 2;r;g;b} colour following parameter
+     * {@code index}, recording the index of the last parameter consumed.
+     *
+     * @return The RGB value, or -1 for a malformed colour.
+     */
+    private int extendedColor(int index, int count) {
+        if (index + 2 < count && params[index + 1] == 5) {
+            lastConsumed = index + 2;
+            return indexedColor(params[index + 2]);
+        }
+        if (index + 4 < count && params[index + 1] == 2) {
+            lastConsumed = index + 4;
+            return (clamp(params[index + 2]) << 16) | (clamp(params[index + 3]) << 8) | clamp(params[index + 4]);
+        }
+        lastConsumed = count;
+        return -1;
+    }
+
+    private static int indexedColor(int index) {
+        if (index < 16) {
+            return PALETTE[Math.max(0, index)];
+        }
+        if (index < 232) {
+            int cube = index - 16;
+            int r = cube / 36;
+            int g = (cube / 6) % 6;
+            int b = cube % 6;
+            return (cubeLevel(r) << 16) | (cubeLevel(g) << 8) | cubeLevel(b);
+        }
+        int gray = 8 + (Math.min(index, 255) - 232) * 10;
+        return (gray << 16) | (gray << 8) | gray;
+    }
+
+    private static int cubeLevel(int level) {
+        return level == 0 ? 0 : 55 + level * 40;
+    }
+
+    private static int clamp(int value) {
+        return Math.max(0, Math.min(255, value));
+    }
+
+    private void reset() {
+        foreground = -1;
+        background = -1;
+        bold = false;
+        italic = false;
+        underline = false;
+    }
+}
@@ -0,0 +1,158 @@
+package dev.plytki.pterodactyl.app.console;
+
+/**
+ * Single-pass removal of ANSI/ECMA-48 escape sequences from console output.
+ * Handles CSI sequences, OSC and the other string sequences (DCS, SOS, PM,
+ * APC) terminated by BEL or ST, nF escapes such as charset selection, two-byte
+ * escapes, and their 8-bit C1 forms. Text without an escape introducer is
+ * returned as is, without copying.
+ */
+public final class AnsiStripper {
+
+    private static final char ESC = 0x1B;
+    private static final char BEL = 0x07;
+    private static final char C1_DCS = 0x90;
+    private static final char C1_SOS = 0x98;
+    private static final char C1_CSI = 0x9B;
+    private static final char C1_ST = 0x9C;
+    private static final char C1_OSC = 0x9D;
+    private static final char C1_PM = 0x9E;
+    private static final char C1_APC = 0x9F;
+
+    private AnsiStripper() {
+    }
+
+    /**
+     * Removes all escape sequences from the given text.
+     *
+     * @param text The text to clean.
+     * @return The text without escape sequences; the same instance if it contained none.
+     */
+    public static String strip(String text) {
+        int length = text.length();
+        int start = 0;
+        while (start < length && !isIntroducer(text.charAt(start))) {
+            start++;
+        }
+        if (start == length) {
+            return text;
+        }
+
+        StringBuilder builder = new StringBuilder(length);
+        int copyFrom = 0;
+        int position = start;
+        while (position < length) {
+            if (isIntroducer(text.charAt(position))) {
+                builder.append(text, copyFrom, position);
+                position = sequenceEnd(text, position);
+                copyFrom = position;
+            } else {
+                position++;
+            }
+        }
+        builder.append(text, copyFrom, length);
+        return builder.toString();
+    }
+
+    /**
+     * Returns whether the character starts an escape sequence.
+     *
+     * @param c The character to test.
+     * @return true for ESC and the C1 sequence introducers.
+     */
+    public static boolean isIntroducer(char c) {
+        return c == ESC || c == C1_CSI || c == C1_OSC || c == C1_DCS || c == C1_SOS || c == C1_PM || c == C1_APC;
+    }
+
+    /**
+     * Returns whether the escape sequence starting at {@code start} is a CSI
+     * sequence, in either its 7-bit or 8-bit form.
+     *
+     * @param text  The text containing the sequence.
+     * @param start The index of the introducer.
+     * @return true for CSI sequences.
+     */
+    public static boolean isCsi(String text, int start) {
+        char c = text.charAt(start);
+        return c == C1_CSI || (c == ESC && start + 1 < text.length() && text.charAt(start + 1) == '[');
+    }
+
+    /**
+     * Returns the index just past the escape sequence starting at
+     * {@code start}. An unterminated sequence extends to the end of the text.
+     *
+     * @param text  The text containing the sequence.
+     * @param start The index of the introducer.
+     * @return The index after the sequence.
+     */
+    public static int sequenceEnd(String text, int start) {
+        int length = text.length();
+        char introducer = text.charAt(start);
+        if (introducer == C1_CSI) {
+            return csiEnd(text, start + 1);
+        }
+        if (introducer != ESC) {
+            return stringEnd(text, start + 1, introducer == C1_OSC);
+        }
+        if (start + 1 >= length) {
+            return length;
+        }
+
+        char next = text.charAt(start + 1);
+        if (next == '[') {
+            return csiEnd(text, start + 2);
+        }
+        if (next == ']') {
+            return stringEnd(text, start + 2, true);
+        }
+        if (next == 'P' || next == 'X' || next == '^' || next == '_') {
+            return stringEnd(text, start + 2, false);
+        }
+        if (next >= 0x20 && next <= 0x2F) {
+            int position = start + 2;
+            while (position < length && text.charAt(position) >= 0x20 && text.charAt(position) <= 0x2F) {
+                position++;
+            }
+            return position < length ? position + 1 : length;
+        }
+        return next >= 0x30 && next <= 0x7E ? start + 2 : start + 1;
+    }
+
+    /**
+     * Skips CSI parameter and intermediate bytes and the final byte. A
+     * character outside the CSI grammar aborts the sequence without consuming it.
+     */
+    private static int csiEnd(String text, int position) {
+        int length = text.length();
+        while (position < length) {
+            char c = text.charAt(position);
+            if (c >= 0x40 && c <= 0x7E) {
+                return position + 1;
+            }
+            if (c < 0x20 || c > 0x3F) {
+                return position;
+            }
+            position++;
+        }
+        return length;
+    }
+
+    /**
+     * Skips the body of a string sequence up to and including its terminator:
+     * ST in either form, or BEL for OSC.
+     */
+    private static int stringEnd(String text, int position, boolean bellTerminates) {
+        int length = text.length();
+        while (position < length) {
+            char c = text.charAt(position);
+            if (c == C1_ST || (bellTerminates && c == BEL)) {
+                return position + 1;
+            }
+            if (c == ESC && position + 1 < length && text.charAt(position + 1) == '\\') {
+                return position + 2;
+            }
+            position++;
+        }
+        return length;
+    }
+}
@@ -0,0 +1,129 @@
+package dev.plytki.pterodactyl.app.console;
+
+import lombok.Getter;
+
+import java.awt.Color;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * An interned text style produced by SGR sequences. Styles are identified by a
+ * small integer id so styled runs can be stored as plain {@code int}s, and each
+ * style holds pre-built {@link Color} objects so painting does not allocate.
+ * Id 0 is always the default style.
+ */
+@Getter
+public final class AnsiStyle {
+
+    private static final int MAX_STYLES = 4096;
+    private static final int BOLD = 1;
+    private static final int ITALIC = 2;
+    private static final int UNDERLINE = 4;
+
+    private static final ConcurrentMap<Long, AnsiStyle> BY_KEY = new ConcurrentHashMap<>();
+    private static volatile AnsiStyle[] byId = new AnsiStyle[64];
+    private static volatile int count;
+
+    public static final AnsiStyle DEFAULT = intern(0);
+
+    private final int id;
+    private final long key;
+    private final Color foreground;
+    private final Color background;
+    private final boolean bold;
+    private final boolean italic;
+    private final boolean underline;
+
+    private AnsiStyle(int id, long key) {
+        this.id = id;
+        this.key = key;
+        int foregroundBits = (int) (key & 0x1FFFFFF);
+        int backgroundBits = (int) ((key >>> 25) & 0x1FFFFFF);
+        int flags = (int) (key >>> 50);
+        this.foreground = foregroundBits == 0 ? null : new Color(foregroundBits & 0xFFFFFF);
+        this.background = backgroundBits == 0 ? null : new Color(backgroundBits & 0xFFFFFF);
+        this.bold = (flags & BOLD) != 0;
+        this.italic = (flags & ITALIC) != 0;
+        this.underline = (flags & UNDERLINE) != 0;
+    }
+
+    /**
+     * Returns the style with the given id.
+     *
+     * @param id The style id.
+     * @return The style, or the default style for an unknown id.
+     */
+    public static AnsiStyle byId(int id) {
+        AnsiStyle[] styles = byId;
+        if (id < 0 || id >= styles.length || styles[id] == null) {
+            return DEFAULT;
+        }
+        return styles[id];
+    }
+
+    /**
+     * Returns the interned style for the given attributes.
+     *
+     * @param foreground The foreground RGB value, or -1 for the default.
+     * @param background The background RGB value, or -1 for the default.
+     * @param bold       Whether the text is bold.
+     * @param italic     Whether the text is italic.
+     * @param underline  Whether the text is underlined.
+     * @return The interned style.
+     */
+    public static AnsiStyle of(int foreground, int background, boolean bold, boolean italic, boolean underline) {
+        int flags = (bold ? BOLD : 0) | (italic ? ITALIC : 0) | (underline ? UNDERLINE : 0);
+        long key = key(foreground, background, flags);
+        AnsiStyle style = BY_KEY.get(key);
+        if (style != null) {
+            return style;
+        }
+        if (count >= MAX_STYLES) {
+            key = key(quantize(foreground), quantize(background), flags);
+            style = BY_KEY.get(key);
+            if (style != null) {
+                return style;
+            }
+        }
+        return intern(key);
+    }
+
+    private static synchronized AnsiStyle intern(long key) {
+        AnsiStyle existing = BY_KEY.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        AnsiStyle style = new AnsiStyle(count, key);
+        AnsiStyle[] styles = byId;
+        if (count == styles.length) {
+            styles = Arrays.copyOf(styles, styles.length * 2);
+        }
+        styles[count++] = style;
+        byId = styles;
+        BY_KEY.put(key, style);
+        return style;
+    }
+
+    private static long key(int foreground, int background, int flags) {
+        return colorBits(foreground) | (colorBits(background) << 25) | ((long) flags << 50);
+    }
+
+    private static long colorBits(int rgb) {
+        return rgb < 0 ? 0 : 0x1000000L | (rgb & 0xFFFFFF);
+    }
+
+    /**
+     * Maps an RGB value to the nearest colour of the 6x6x6 xterm cube, which
+     * bounds the number of styles truecolor gradients can create.
+     */
+    private static int quantize(int rgb) {
+        if (rgb < 0) {
+            return rgb;
+        }
+        int r = Math.round(((rgb >> 16) & 0xFF) / 51f) * 51;
+        int g = Math.round(((rgb >> 8) & 0xFF) / 51f) * 51;
+        int b = Math.round((rgb & 0xFF) / 51f) * 51;
+        return (r << 16) | (g << 8) | b;
+    }
+}
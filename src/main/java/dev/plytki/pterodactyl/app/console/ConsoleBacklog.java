@@ -0,0 +1,121 @@
+package dev.plytki.pterodactyl.app.console;
+
+/**
+ * A bounded backlog of console lines stored in a {@link LineArena}. Lines are
+ * addressed by a monotonically increasing sequence number so readers can keep
+ * stable positions while older lines are evicted. The backlog is capped both
+ * by line count and by the number of UTF-8 bytes retained.
+ */
+public class ConsoleBacklog implements LineSource {
+
+    private final int maxLines;
+    private final long maxBytes;
+    private final EvictionPolicy evictionPolicy;
+    private final LineArena arena = new LineArena();
+
+    /**
+     * Constructs a ConsoleBacklog with the given budgets.
+     *
+     * @param maxLines       The maximum number of lines to retain.
+     * @param maxBytes       The maximum number of encoded bytes to retain.
+     * @param evictionPolicy What to do when a new line does not fit.
+     */
+    public ConsoleBacklog(int maxLines, long maxBytes, EvictionPolicy evictionPolicy) {
+        if (maxLines <= 0 || maxBytes <= 0) {
+            throw new IllegalArgumentException("Backlog budgets must be positive");
+        }
+        this.maxLines = maxLines;
+        this.maxBytes = maxBytes;
+        this.evictionPolicy = evictionPolicy;
+    }
+
+    /**
+     * Appends a line, evicting according to the configured policy if the
+     * backlog is over budget.
+     *
+     * @param line The line to append.
+     * @return true if the line was stored, false if it was rejected.
+     */
+    public boolean append(String line) {
+        return append(new StyledLine(line, null));
+    }
+
+    /**
+     * Appends a line with its style runs, evicting according to the configured
+     * policy if the backlog is over budget.
+     *
+     * @param line The styled line to append.
+     * @return true if the line was stored, false if it was rejected.
+     */
+    public synchronized boolean append(StyledLine line) {
+        long size = Utf8.length(line.text());
+        if (size > maxBytes) {
+            return false;
+        }
+        if (evictionPolicy == EvictionPolicy.DROP_NEWEST && !fits(size)) {
+            return false;
+        }
+        while (!fits(size)) {
+            arena.evictOldest();
+        }
+        arena.append(line.text(), line.runs());
+        return true;
+    }
+
+    @Override
+    public synchronized String get(long sequence) {
+        return arena.get(sequence);
+    }
+
+    @Override
+    public synchronized StyledLine getStyled(long sequence) {
+        return arena.getStyled(sequence);
+    }
+
+    @Override
+    public synchronized int length(long sequence) {
+        return arena.length(sequence);
+    }
+
+    @Override
+    public synchronized Snapshot snapshot() {
+        return new Snapshot(this, arena.getFirst(), arena.getEnd());
+    }
+
+    @Override
+    public synchronized long getFirst() {
+        return arena.getFirst();
+    }
+
+    @Override
+    public synchronized long getEnd() {
+        return arena.getEnd();
+    }
+
+    /**
+     * Returns the number of encoded bytes currently retained.
+     *
+     * @return The retained byte count.
+     */
+    public synchronized long getBytes() {
+        return arena.getBytes();
+    }
+
+    private boolean fits(long size) {
+        return arena.getEnd() - arena.getFirst() < maxLines && arena.getBytes() + size <= maxBytes;
+    }
+
+    /**
+     * Policy applied when a new line does not fit in the backlog.
+     */
+    public enum EvictionPolicy {
+        /**
+         * Evicts the oldest lines until the new one fits.
+         */
+        DROP_OLDEST,
+        /**
+         * Keeps the existing lines and rejects the new one.
+         */
+        DROP_NEWEST
+    }
+}
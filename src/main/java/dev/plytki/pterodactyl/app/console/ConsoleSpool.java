@@ -0,0 +1,631 @@
+package dev.plytki.pterodactyl.app.console;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spools console lines to newline-delimited UTF-8 segment files on disk and
+ * reads them back through memory-mapped I/O, so history can be scrolled
+ * without keeping it on the heap and survives a restart.
+ * <p>
+ * Each segment {@code console-N.log} has a sidecar {@code console-N.idx} that
+ * holds the segment's first sequence number followed by the byte offset of
+ * every {@value #INDEX_STRIDE}th line. A lookup jumps to the nearest indexed
+ * line and scans forward at most {@value #INDEX_STRIDE} lines. Segments are
+ * rotated once they exceed the configured size and the oldest ones are deleted
+ * beyond the configured count.
+ * <p>
+ * Styled lines are stored with normalized SGR sequences, so the files remain
+ * readable with ordinary tools. Lines read back are parsed once and kept in a
+ * small cache, so repainting the same rows does not parse them again; lines
+ * just appended go into the cache as well, so a view following the tail does
+ * not touch the files.
+ * <p>
+ * Appended lines are collected in a write buffer per segment and written in
+ * batches: when the buffer fills, when a read needs them, and at the latest
+ * {@value #FLUSH_DELAY_MILLIS} ms after they were appended. Each segment is
+ * mapped once and mapped again only when a read reaches lines written after
+ * the current mapping.
+ */
+public class ConsoleSpool implements LineSource, Closeable {
+
+    private static final int INDEX_STRIDE = 64;
+    private static final String SEGMENT_PREFIX = "console-";
+    private static final String LOG_SUFFIX = ".log";
+    private static final String INDEX_SUFFIX = ".idx";
+    private static final byte ESC = 0x1B;
+    private static final int CACHE_SIZE = 1024;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final long FLUSH_DELAY_MILLIS = 1000;
+
+    private final Path directory;
+    private final long maxSegmentBytes;
+    private final int maxSegments;
+    private final List<Segment> segments = new ArrayList<>();
+    private final Map<Long, StyledLine> cache = new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, StyledLine> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+    private byte[] buffer = new byte[1024];
+    private boolean opened;
+    private boolean disabled;
+    private boolean flushScheduled;
+
+    /**
+     * Constructs a ConsoleSpool writing into the given directory. Files are
+     * opened lazily on first use.
+     *
+     * @param directory       The directory holding the segment files.
+     * @param maxSegmentBytes The size after which the active segment is rotated.
+     * @param maxSegments     The number of segments to keep.
+     */
+    public ConsoleSpool(Path directory, long maxSegmentBytes, int maxSegments) {
+        if (maxSegmentBytes <= 0 || maxSegmentBytes > Integer.MAX_VALUE || maxSegments <= 0) {
+            throw new IllegalArgumentException("Invalid spool limits");
+        }
+        this.directory = directory;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.maxSegments = maxSegments;
+    }
+
+    /**
+     * Appends a line to the active segment. Line breaks inside the line are
+     * replaced with spaces so that one stored line is one console line.
+     *
+     * @param line The line to append.
+     */
+    public void append(String line) {
+        append(new StyledLine(line, null));
+    }
+
+    /**
+     * Appends a styled line to the active segment, encoding its runs as SGR
+     * sequences.
+     *
+     * @param styledLine The styled line to append.
+     */
+    public synchronized void append(StyledLine styledLine) {
+        String line = styledLine.toAnsi();
+        if (!ensureOpen()) {
+            return;
+        }
+        try {
+            Segment active = segments.get(segments.size() - 1);
+            if (active.size >= maxSegmentBytes) {
+                active = rotate(active);
+            }
+            cache.put(active.end(), withoutLineBreaks(styledLine));
+            int length = Utf8.length(line);
+            if (buffer.length < length + 1) {
+                buffer = new byte[Math.max(length + 1, buffer.length * 2)];
+            }
+            int end = Utf8.encode(line, buffer, 0);
+            for (int i = 0; i < end; i++) {
+                if (buffer[i] == '\n' || buffer[i] == '\r') {
+                    buffer[i] = ' ';
+                }
+            }
+            buffer[end++] = '\n';
+            active.write(buffer, end);
+            if (!flushScheduled) {
+                flushScheduled = true;
+                Flusher.SCHEDULER.schedule(this::flush, FLUSH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        } catch (IOException e) {
+            fail("Failed to spool console output", e);
+        }
+    }
+
+    /**
+     * Writes the lines still held in the write buffer to disk.
+     */
+    public synchronized void flush() {
+        flushScheduled = false;
+        if (disabled || !opened) {
+            return;
+        }
+        try {
+            segments.get(segments.size() - 1).flush();
+        } catch (IOException e) {
+            fail("Failed to spool console output", e);
+        }
+    }
+
+    private static StyledLine withoutLineBreaks(StyledLine line) {
+        String text = line.text();
+        if (text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return line;
+        }
+        return new StyledLine(text.replace('\n', ' ').replace('\r', ' '), line.runs());
+    }
+
+    @Override
+    public synchronized long getFirst() {
+        if (!ensureOpen()) {
+            return 0;
+        }
+        return segments.get(0).firstSequence;
+    }
+
+    @Override
+    public synchronized long getEnd() {
+        if (!ensureOpen()) {
+            return 0;
+        }
+        return segments.get(segments.size() - 1).end();
+    }
+
+    @Override
+    public synchronized Snapshot snapshot() {
+        if (!ensureOpen()) {
+            return new Snapshot(this, 0, 0);
+        }
+        return new Snapshot(this, segments.get(0).firstSequence, segments.get(segments.size() - 1).end());
+    }
+
+    @Override
+    public synchronized String get(long sequence) {
+        StyledLine line = getStyled(sequence);
+        return line == null ? null : line.text();
+    }
+
+    @Override
+    public synchronized StyledLine getStyled(long sequence) {
+        StyledLine line = cache.get(sequence);
+        if (line == null) {
+            String raw = readRaw(sequence);
+            if (raw == null) {
+                return null;
+            }
+            line = new AnsiParser().parse(raw);
+            cache.put(sequence, line);
+        }
+        return line;
+    }
+
+    @Override
+    public synchronized int length(long sequence) {
+        StyledLine line = cache.get(sequence);
+        if (line != null) {
+            return line.text().length();
+        }
+        return visibleLength(sequence);
+    }
+
+    private String readRaw(long sequence) {
+        Segment segment = segmentFor(sequence);
+        if (segment == null) {
+            return null;
+        }
+        try {
+            int position = (int) (sequence - segment.firstSequence);
+            MappedByteBuffer mapped = segment.map(position);
+            int start = segment.offsetOf(mapped, position);
+            int length = lineEnd(mapped, start) - start;
+            if (buffer.length < length) {
+                buffer = new byte[Math.max(length, buffer.length * 2)];
+            }
+            mapped.get(start, buffer, 0, length);
+            return new String(buffer, 0, length, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            fail("Failed to read console history", e);
+            return null;
+        }
+    }
+
+    /**
+     * Counts the chars a stored line shows, skipping the SGR sequences it was
+     * stored with, without decoding it.
+     */
+    private int visibleLength(long sequence) {
+        Segment segment = segmentFor(sequence);
+        if (segment == null) {
+            return -1;
+        }
+        try {
+            int position = (int) (sequence - segment.firstSequence);
+            MappedByteBuffer mapped = segment.map(position);
+            int start = segment.offsetOf(mapped, position);
+            int end = lineEnd(mapped, start);
+            int chars = 0;
+            for (int i = start; i < end; i++) {
+                int b = mapped.get(i);
+                if (b == ESC) {
+                    if (i + 1 < end && mapped.get(i + 1) == '[') {
+                        i += 2;
+                        while (i < end && (mapped.get(i) < 0x40 || mapped.get(i) > 0x7E)) {
+                            i++;
+                        }
+                    }
+                } else if ((b & 0xC0) != 0x80) {
+                    chars += (b & 0xF8) == 0xF0 ? 2 : 1;
+                }
+            }
+            return chars;
+        } catch (IOException e) {
+            fail("Failed to read console history", e);
+            return -1;
+        }
+    }
+
+    /**
+     * Closes the open segment files. Lines already written stay on disk.
+     */
+    @Override
+    public synchronized void close() {
+        for (Segment segment : segments) {
+            segment.seal();
+        }
+        disabled = true;
+    }
+
+    private Segment segmentFor(long sequence) {
+        if (!ensureOpen()) {
+            return null;
+        }
+        if (sequence < segments.get(0).firstSequence || sequence >= segments.get(segments.size() - 1).end()) {
+            return null;
+        }
+        int low = 0;
+        int high = segments.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (segments.get(mid).firstSequence <= sequence) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return segments.get(low);
+    }
+
+    private boolean ensureOpen() {
+        if (disabled) {
+            return false;
+        }
+        if (opened) {
+            return true;
+        }
+        try {
+            Files.createDirectories(directory);
+            loadSegments();
+            if (segments.isEmpty()) {
+                segments.add(Segment.create(directory, 0, 0));
+            } else {
+                segments.get(segments.size() - 1).openForAppend();
+            }
+            opened = true;
+            return true;
+        } catch (IOException e) {
+            fail("Failed to open console history in " + directory, e);
+            return false;
+        }
+    }
+
+    private void loadSegments() throws IOException {
+        List<Integer> numbers = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + LOG_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                try {
+                    numbers.add(Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - LOG_SUFFIX.length())));
+                } catch (NumberFormatException ignored) {
+                }
+            }
+        }
+        numbers.sort(Comparator.naturalOrder());
+        for (int number : numbers) {
+            long expectedFirst = segments.isEmpty() ? -1 : segments.get(segments.size() - 1).end();
+            segments.add(Segment.load(directory, number, expectedFirst));
+        }
+    }
+
+    private Segment rotate(Segment active) throws IOException {
+        active.seal();
+        Segment next = Segment.create(directory, active.number + 1, active.end());
+        segments.add(next);
+        while (segments.size() > maxSegments) {
+            segments.remove(0).delete();
+        }
+        long retainedFirst = segments.get(0).firstSequence;
+        cache.keySet().removeIf(sequence -> sequence < retainedFirst);
+        return next;
+    }
+
+    private void fail(String message, IOException e) {
+        System.err.println(message + ": " + e.getMessage());
+        for (Segment segment : segments) {
+            segment.seal();
+        }
+        disabled = true;
+    }
+
+    private static int lineEnd(ByteBuffer mapped, int start) {
+        int position = start;
+        int limit = mapped.limit();
+        while (position < limit && mapped.get(position) != '\n') {
+            position++;
+        }
+        return position;
+    }
+
+    /**
+     * A single log file with its in-memory sparse line index.
+     */
+    private static final class Segment {
+
+        private final int number;
+        private final Path logPath;
+        private final Path indexPath;
+        private final long firstSequence;
+        private long[] offsets = new long[16];
+        private int offsetCount;
+        private int lineCount;
+        private long size;
+        private FileChannel logChannel;
+        private FileChannel indexChannel;
+        private ByteBuffer pending;
+        private int writtenOffsets;
+        private int writtenLines;
+        private MappedByteBuffer mapped;
+        private int mappedLines;
+
+        private Segment(Path directory, int number, long firstSequence) {
+            this.number = number;
+            this.logPath = directory.resolve(SEGMENT_PREFIX + number + LOG_SUFFIX);
+            this.indexPath = directory.resolve(SEGMENT_PREFIX + number + INDEX_SUFFIX);
+            this.firstSequence = firstSequence;
+        }
+
+        /**
+         * Creates a new, empty segment and opens it for appending.
+         */
+        private static Segment create(Path directory, int number, long firstSequence) throws IOException {
+            Segment segment = new Segment(directory, number, firstSequence);
+            Files.deleteIfExists(segment.logPath);
+            Files.deleteIfExists(segment.indexPath);
+            segment.openForAppend();
+            return segment;
+        }
+
+        /**
+         * Loads an existing segment, reading its index and scanning only the
+         * lines written after the last indexed one. A missing or damaged index
+         * is rebuilt from the log file.
+         *
+         * @param expectedFirst The sequence number the segment must start at, or -1 if unknown.
+         */
+        private static Segment load(Path directory, int number, long expectedFirst) throws IOException {
+            Path indexPath = directory.resolve(SEGMENT_PREFIX + number + INDEX_SUFFIX);
+            long storedFirst = 0;
+            long[] storedOffsets = new long[0];
+            if (Files.exists(indexPath)) {
+                ByteBuffer index = ByteBuffer.wrap(Files.readAllBytes(indexPath));
+                if (index.remaining() >= Long.BYTES) {
+                    storedFirst = index.getLong();
+                    storedOffsets = new long[index.remaining() / Long.BYTES];
+                    for (int i = 0; i < storedOffsets.length; i++) {
+                        storedOffsets[i] = index.getLong();
+                    }
+                }
+            }
+
+            Segment segment = new Segment(directory, number, expectedFirst >= 0 ? expectedFirst : storedFirst);
+            long fileSize = Files.size(segment.logPath);
+            for (long offset : storedOffsets) {
+                if (offset >= fileSize || (segment.offsetCount > 0 && offset <= segment.offsets[segment.offsetCount - 1])) {
+                    break;
+                }
+                segment.addOffset(offset);
+            }
+            if (segment.offsetCount == 0 || segment.offsets[0] != 0) {
+                segment.offsetCount = 0;
+            }
+            segment.scanTail(fileSize);
+            segment.writeIndex();
+            segment.writtenLines = segment.lineCount;
+            return segment;
+        }
+
+        private long end() {
+            return firstSequence + lineCount;
+        }
+
+        private void openForAppend() throws IOException {
+            logChannel = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            logChannel.truncate(size);
+            logChannel.position(size);
+            if (!Files.exists(indexPath)) {
+                writeIndex();
+            }
+            indexChannel = FileChannel.open(indexPath, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            pending = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+            writtenLines = lineCount;
+        }
+
+        /**
+         * Appends an encoded line to the write buffer, writing the buffer out
+         * first if the line does not fit. Lines larger than the buffer are
+         * written directly.
+         */
+        private void write(byte[] bytes, int length) throws IOException {
+            if (lineCount % INDEX_STRIDE == 0) {
+                addOffset(size);
+            }
+            if (pending.remaining() < length) {
+                flush();
+            }
+            if (length > pending.capacity()) {
+                writeFully(logChannel, ByteBuffer.wrap(bytes, 0, length));
+            } else {
+                pending.put(bytes, 0, length);
+            }
+            size += length;
+            lineCount++;
+        }
+
+        /**
+         * Writes the buffered lines and the index entries added since the
+         * last flush.
+         */
+        private void flush() throws IOException {
+            if (logChannel == null) {
+                return;
+            }
+            pending.flip();
+            writeFully(logChannel, pending);
+            pending.clear();
+            if (writtenOffsets < offsetCount) {
+                ByteBuffer entries = ByteBuffer.allocate(Long.BYTES * (offsetCount - writtenOffsets));
+                for (int i = writtenOffsets; i < offsetCount; i++) {
+                    entries.putLong(offsets[i]);
+                }
+                entries.flip();
+                writeFully(indexChannel, entries);
+                writtenOffsets = offsetCount;
+            }
+            writtenLines = lineCount;
+        }
+
+        private static void writeFully(FileChannel channel, ByteBuffer data) throws IOException {
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+        }
+
+        /**
+         * Returns a mapping of the log file that covers the line at the given
+         * position, flushing and mapping again only if the current mapping
+         * ends before it.
+         */
+        private MappedByteBuffer map(int line) throws IOException {
+            if (mapped == null || line >= mappedLines) {
+                if (line >= writtenLines) {
+                    flush();
+                }
+                try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.READ)) {
+                    mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                }
+                mappedLines = writtenLines;
+            }
+            return mapped;
+        }
+
+        /**
+         * Returns the byte offset of the line at the given position in this
+         * segment, starting from the nearest indexed line.
+         */
+        private int offsetOf(ByteBuffer mapped, int line) {
+            int position = (int) offsets[line / INDEX_STRIDE];
+            for (int skip = line % INDEX_STRIDE; skip > 0; skip--) {
+                position = lineEnd(mapped, position) + 1;
+            }
+            return position;
+        }
+
+        /**
+         * Counts the lines after the last indexed offset, extending the index,
+         * and drops a trailing partial line left by an interrupted write.
+         */
+        private void scanTail(long fileSize) throws IOException {
+            long start = offsetCount == 0 ? 0 : offsets[offsetCount - 1];
+            lineCount = offsetCount == 0 ? 0 : (offsetCount - 1) * INDEX_STRIDE;
+            size = start;
+            if (fileSize == 0) {
+                return;
+            }
+            try (FileChannel channel = FileChannel.open(logPath, StandardOpenOption.READ)) {
+                MappedByteBuffer tail = channel.map(FileChannel.MapMode.READ_ONLY, start, fileSize - start);
+                int limit = tail.limit();
+                for (int position = 0; position < limit; position++) {
+                    if (tail.get(position) == '\n') {
+                        if (lineCount % INDEX_STRIDE == 0 && (offsetCount == 0 || offsets[offsetCount - 1] != size)) {
+                            addOffset(size);
+                        }
+                        lineCount++;
+                        size = start + position + 1;
+                    }
+                }
+            }
+            if (lineCount % INDEX_STRIDE == 0 && offsetCount > 0 && offsets[offsetCount - 1] == size) {
+                offsetCount--;
+            }
+        }
+
+        private void addOffset(long offset) {
+            if (offsetCount == offsets.length) {
+                long[] grown = new long[offsets.length * 2];
+                System.arraycopy(offsets, 0, grown, 0, offsetCount);
+                offsets = grown;
+            }
+            offsets[offsetCount++] = offset;
+        }
+
+        private void writeIndex() throws IOException {
+            ByteBuffer index = ByteBuffer.allocate(Long.BYTES * (offsetCount + 1));
+            index.putLong(firstSequence);
+            for (int i = 0; i < offsetCount; i++) {
+                index.putLong(offsets[i]);
+            }
+            Files.write(indexPath, index.array());
+            writtenOffsets = offsetCount;
+        }
+
+        private void seal() {
+            try {
+                flush();
+            } catch (IOException e) {
+                System.err.println("Failed to write console history segment: " + e.getMessage());
+            }
+            try {
+                if (logChannel != null) logChannel.close();
+                if (indexChannel != null) indexChannel.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close console history segment: " + e.getMessage());
+            }
+            logChannel = null;
+            indexChannel = null;
+            pending = null;
+        }
+
+        private void delete() {
+            seal();
+            mapped = null;
+            try {
+                Files.deleteIfExists(logPath);
+                Files.deleteIfExists(indexPath);
+            } catch (IOException e) {
+                System.err.println("Failed to delete console history segment: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * The daemon thread writing out buffered lines of every spool.
+     */
+    private static final class Flusher {
+        private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "console-spool-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
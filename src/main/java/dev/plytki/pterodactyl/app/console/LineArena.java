@@ -0,0 +1,224 @@
+package dev.plytki.pterodactyl.app.console;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Append-only storage for text lines encoded as UTF-8 in chunked byte arenas.
+ * Each chunk is a single {@code byte[]} plus an {@code int[]} index of line end
+ * offsets, so a stored line costs its encoded bytes plus four bytes of index
+ * instead of a String object with its own header and backing array. Lines are
+ * decoded only when they are read. Style runs parsed at ingest are kept in a
+ * parallel {@code int[]} arena per chunk, so they are never reparsed.
+ * <p>
+ * Lines are addressed by sequence number. The oldest lines can be evicted one
+ * at a time; a chunk's memory is released once all of its lines are evicted.
+ * This class is not thread-safe.
+ */
+public class LineArena {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+    private static final int INITIAL_INDEX_SIZE = 256;
+
+    private final List<Chunk> chunks = new ArrayList<>();
+    private long first;
+    private long end;
+    private long bytes;
+
+    /**
+     * Appends a line without style runs to the arena.
+     *
+     * @param line The line to append.
+     * @return The number of bytes the encoded line occupies.
+     */
+    public int append(String line) {
+        return append(line, null);
+    }
+
+    /**
+     * Appends a line and its style runs to the arena.
+     *
+     * @param line The line to append.
+     * @param runs The style runs as laid out by {@link StyledLine}, or null.
+     * @return The number of bytes the encoded line occupies.
+     */
+    public int append(String line, int[] runs) {
+        int length = Utf8.length(line);
+        Chunk chunk = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+        if (chunk == null || !chunk.fits(length)) {
+            chunk = new Chunk(end, Math.max(CHUNK_SIZE, length));
+            chunks.add(chunk);
+        }
+        chunk.append(line, length, runs);
+        bytes += length;
+        end++;
+        return length;
+    }
+
+    /**
+     * Decodes the line with the given sequence number.
+     *
+     * @param sequence The sequence number of the line.
+     * @return The line, or null if it has been evicted or does not exist yet.
+     */
+    public String get(long sequence) {
+        if (sequence < first || sequence >= end) {
+            return null;
+        }
+        Chunk chunk = chunkFor(sequence);
+        int index = (int) (sequence - chunk.firstSequence);
+        int start = chunk.startOf(index);
+        return new String(chunk.data, start, chunk.ends[index] - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodes the line with the given sequence number together with its style runs.
+     *
+     * @param sequence The sequence number of the line.
+     * @return The styled line, or null if it has been evicted or does not exist yet.
+     */
+    public StyledLine getStyled(long sequence) {
+        String text = get(sequence);
+        if (text == null) {
+            return null;
+        }
+        Chunk chunk = chunkFor(sequence);
+        return new StyledLine(text, chunk.runsOf((int) (sequence - chunk.firstSequence)));
+    }
+
+    /**
+     * Returns the length in chars of the line with the given sequence number,
+     * counted from its encoded bytes without decoding it.
+     *
+     * @param sequence The sequence number of the line.
+     * @return The length in chars, or -1 if the line is not retained.
+     */
+    public int length(long sequence) {
+        if (sequence < first || sequence >= end) {
+            return -1;
+        }
+        Chunk chunk = chunkFor(sequence);
+        int index = (int) (sequence - chunk.firstSequence);
+        return Utf8.charCount(chunk.data, chunk.startOf(index), chunk.ends[index]);
+    }
+
+    /**
+     * Evicts the oldest retained line, releasing its chunk if it was the last
+     * live line in it.
+     *
+     * @return The number of bytes the evicted line occupied, or 0 if the arena is empty.
+     */
+    public int evictOldest() {
+        if (first == end) {
+            return 0;
+        }
+        Chunk chunk = chunks.get(0);
+        int index = (int) (first - chunk.firstSequence);
+        int length = chunk.ends[index] - chunk.startOf(index);
+        first++;
+        bytes -= length;
+        if (first - chunk.firstSequence == chunk.count && chunks.size() > 1) {
+            chunks.remove(0);
+        }
+        return length;
+    }
+
+    /**
+     * Returns the sequence number of the oldest retained line.
+     *
+     * @return The first sequence number.
+     */
+    public long getFirst() {
+        return first;
+    }
+
+    /**
+     * Returns the sequence number that the next appended line will receive.
+     *
+     * @return The end sequence number.
+     */
+    public long getEnd() {
+        return end;
+    }
+
+    /**
+     * Returns the number of encoded bytes held by retained lines.
+     *
+     * @return The retained byte count.
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    private Chunk chunkFor(long sequence) {
+        int low = 0;
+        int high = chunks.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (chunks.get(mid).firstSequence <= sequence) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return chunks.get(low);
+    }
+
+    /**
+     * A single arena: encoded line bytes plus the end offset of every line.
+     */
+    private static final class Chunk {
+
+        private final long firstSequence;
+        private final byte[] data;
+        private int[] ends = new int[INITIAL_INDEX_SIZE];
+        private int[] runEnds = new int[INITIAL_INDEX_SIZE];
+        private int[] runs = new int[0];
+        private int count;
+        private int used;
+        private int runsUsed;
+
+        private Chunk(long firstSequence, int capacity) {
+            this.firstSequence = firstSequence;
+            this.data = new byte[capacity];
+        }
+
+        private boolean fits(int length) {
+            return data.length - used >= length;
+        }
+
+        private int startOf(int index) {
+            return index == 0 ? 0 : ends[index - 1];
+        }
+
+        private int[] runsOf(int index) {
+            int start = index == 0 ? 0 : runEnds[index - 1];
+            return start == runEnds[index] ? null : Arrays.copyOfRange(runs, start, runEnds[index]);
+        }
+
+        private void append(String line, int length, int[] lineRuns) {
+            if (count == ends.length) {
+                ends = Arrays.copyOf(ends, ends.length * 2);
+                runEnds = Arrays.copyOf(runEnds, runEnds.length * 2);
+            }
+            if (lineRuns != null) {
+                if (runsUsed + lineRuns.length > runs.length) {
+                    runs = Arrays.copyOf(runs, Math.max(runsUsed + lineRuns.length, Math.max(64, runs.length * 2)));
+                }
+                System.arraycopy(lineRuns, 0, runs, runsUsed, lineRuns.length);
+                runsUsed += lineRuns.length;
+            }
+            runEnds[count] = runsUsed;
+            if (length == line.length()) {
+                for (int i = 0; i < length; i++) {
+                    data[used++] = (byte) line.charAt(i);
+                }
+            } else {
+                used = Utf8.encode(line, data, used);
+            }
+            ends[count++] = used;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package dev.plytki.pterodactyl.app.console;
+
+/**
+ * A sequence of text lines addressed by monotonically increasing sequence
+ * numbers. Older lines may disappear from the front as the source evicts them.
+ */
+public interface LineSource {
+
+    /**
+     * Returns the sequence number of the oldest available line.
+     *
+     * @return The first sequence number.
+     */
+    long getFirst();
+
+    /**
+     * Returns the sequence number that the next appended line will receive.
+     *
+     * @return The end sequence number.
+     */
+    long getEnd();
+
+    /**
+     * Returns the line with the given sequence number.
+     *
+     * @param sequence The sequence number of the line.
+     * @return The line, or null if it is not available.
+     */
+    String get(long sequence);
+
+    /**
+     * Returns the line with the given sequence number together with its style
+     * runs. Sources that do not keep styles return the plain line.
+     *
+     * @param sequence The sequence number of the line.
+     * @return The styled line, or null if it is not available.
+     */
+    default StyledLine getStyled(long sequence) {
+        String text = get(sequence);
+        return text == null ? null : new StyledLine(text, null);
+    }
+
+    /**
+     * Returns the number of visible characters in the line with the given
+     * sequence number, without decoding it where the source allows. Escape
+     * sequences stored with the line are not counted.
+     *
+     * @param sequence The sequence number of the line.
+     * @return The length in chars, or -1 if the line is not available.
+     */
+    int length(long sequence);
+
+    /**
+     * Captures the current bounds of the source. The snapshot does not copy
+     * any lines; it reads through to the source on access.
+     *
+     * @return A snapshot of the current bounds.
+     */
+    Snapshot snapshot();
+
+    /**
+     * A read-through view of a line source bounded at the time it was taken.
+     *
+     * @param source The source being viewed.
+     * @param first  The first sequence number in the snapshot.
+     * @param end    The sequence number after the last line in the snapshot.
+     */
+    record Snapshot(LineSource source, long first, long end) {
+
+        /**
+         * Returns the number of lines in the snapshot.
+         *
+         * @return The line count.
+         */
+        public int size() {
+            return (int) (end - first);
+        }
+
+        /**
+         * Returns the line at the given position in the snapshot.
+         *
+         * @param index The zero-based position.
+         * @return The line, or null if it became unavailable after the snapshot was taken.
+         */
+        public String get(int index) {
+            return source.get(first + index);
+        }
+
+        /**
+         * Returns the styled line at the given position in the snapshot.
+         *
+         * @param index The zero-based position.
+         * @return The styled line, or null if it became unavailable after the snapshot was taken.
+         */
+        public StyledLine getStyled(int index) {
+            return source.getStyled(first + index);
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package dev.plytki.pterodactyl.app.console;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Drops the part of a console backlog replay that is already stored. When a
+ * socket is opened, the daemon replays its recent console output, which
+ * mostly repeats lines received before the socket was lost. The reconciler
+ * keeps a 64-bit hash of each of the last lines it let through. After
+ * {@link #expectReplay()}, incoming lines are held back while they match a
+ * run of the lines stored before the replay; once the run reaches the newest
+ * of them, the held lines are known duplicates and are dropped, and
+ * everything after them is passed on as new. Replayed lines that match
+ * nothing are passed on straight away while the search goes on, for at most
+ * as many lines as are remembered.
+ * <p>
+ * Lines are compared by their visible text, without escape sequences, which
+ * is what the console spool keeps, so the window can be seeded from the spool
+ * with {@link #remember} after a restart. Held lines are passed on by
+ * {@link #finishReplay} when no more replay is expected.
+ * <p>
+ * All methods must be called from the same thread.
+ */
+public class ReplayReconciler {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final long[] hashes;
+    private final long[] candidates;
+    private final List<String> pending = new ArrayList<>();
+    private final List<Long> pendingHashes = new ArrayList<>();
+    private boolean replayRequested;
+    private boolean replaying;
+    private long remembered;
+    private long replayEnd;
+    private int replayLines;
+    private int candidateCount;
+    private int overlap;
+    private long dropped;
+
+    /**
+     * Constructs a ReplayReconciler remembering the given number of lines.
+     *
+     * @param window The number of recent lines to compare replays against.
+     */
+    public ReplayReconciler(int window) {
+        if (window <= 0) {
+            throw new IllegalArgumentException("Window must be positive");
+        }
+        this.hashes = new long[window];
+        this.candidates = new long[window];
+    }
+
+    /**
+     * Records a line stored before this reconciler was created, so a replay
+     * of it is recognized. Seeded lines are not passed on.
+     *
+     * @param text The visible text of the stored line.
+     */
+    public void remember(String text) {
+        hashes[(int) (remembered % hashes.length)] = hash(text);
+        remembered++;
+    }
+
+    /**
+     * Announces that the next lines may be a replay of earlier output.
+     */
+    public void expectReplay() {
+        replayRequested = true;
+    }
+
+    /**
+     * Returns whether lines are held back while a possible replay is matched.
+     *
+     * @return true if lines are held.
+     */
+    public boolean isHolding() {
+        return !pending.isEmpty();
+    }
+
+    /**
+     * Ends the current replay: held lines that complete a match are dropped,
+     * the rest are passed on, and later lines are passed on unchecked until
+     * the next {@link #expectReplay()}.
+     *
+     * @param sink Receives the new lines, in order.
+     */
+    public void finishReplay(Consumer<String> sink) {
+        flush(sink);
+        replaying = false;
+    }
+
+    /**
+     * Passes a line on unless it repeats output that was already passed on.
+     * Lines of a replay may be held back until it is clear whether they are
+     * new.
+     *
+     * @param line The raw console line.
+     * @param sink Receives the lines to store, in order.
+     */
+    public void accept(String line, Consumer<String> sink) {
+        long hash = hash(line);
+        if (replayRequested) {
+            replayRequested = false;
+            flush(sink);
+            replaying = true;
+            replayEnd = remembered - 1;
+            replayLines = 0;
+        }
+        if (!replaying) {
+            pass(line, hash, sink);
+            return;
+        }
+
+        if (!pending.isEmpty() && advanceRuns(hash) == 0) {
+            // The run broke off: a completed run ends the replay. A partial
+            // one was a coincidence, and the line that broke it may start
+            // the actual overlap, so it is tested again below.
+            boolean completed = overlap > 0;
+            flush(sink);
+            if (completed) {
+                replaying = false;
+                pass(line, hash, sink);
+                return;
+            }
+        }
+        if (pending.isEmpty()) {
+            startRuns(hash);
+        }
+
+        if (candidateCount == 0) {
+            pass(line, hash, sink);
+        } else {
+            pending.add(line);
+            pendingHashes.add(hash);
+            for (int k = 0; k < candidateCount; k++) {
+                if (candidates[k] == replayEnd) {
+                    overlap = pending.size();
+                }
+            }
+        }
+        if (++replayLines >= hashes.length) {
+            flush(sink);
+            replaying = false;
+        }
+    }
+
+    /**
+     * Returns the number of replayed lines dropped as duplicates.
+     *
+     * @return The dropped line count.
+     */
+    public long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Drops the held lines that overlap the stored ones and passes the rest
+     * on.
+     *
+     * @param sink Receives the new lines.
+     */
+    private void flush(Consumer<String> sink) {
+        dropped += overlap;
+        for (int i = overlap; i < pending.size(); i++) {
+            pass(pending.get(i), pendingHashes.get(i), sink);
+        }
+        pending.clear();
+        pendingHashes.clear();
+        candidateCount = 0;
+        overlap = 0;
+    }
+
+    /**
+     * Finds every remembered line before the replay that matches a line, as
+     * the starts of possible runs.
+     *
+     * @param hash The hash of the line.
+     */
+    private void startRuns(long hash) {
+        int alive = 0;
+        for (long sequence = Math.max(0, remembered - hashes.length); sequence <= replayEnd; sequence++) {
+            if (hashAt(sequence) == hash) {
+                candidates[alive++] = sequence;
+            }
+        }
+        candidateCount = alive;
+    }
+
+    /**
+     * Extends the runs whose next remembered line matches a line and drops
+     * the others.
+     *
+     * @param hash The hash of the line.
+     * @return The number of runs left.
+     */
+    private int advanceRuns(long hash) {
+        int alive = 0;
+        long oldest = remembered - hashes.length;
+        for (int k = 0; k < candidateCount; k++) {
+            long next = candidates[k] + 1;
+            if (next <= replayEnd && next >= oldest && hashAt(next) == hash) {
+                candidates[alive++] = next;
+            }
+        }
+        candidateCount = alive;
+        return alive;
+    }
+
+    private void pass(String line, long hash, Consumer<String> sink) {
+        hashes[(int) (remembered % hashes.length)] = hash;
+        remembered++;
+        sink.accept(line);
+    }
+
+    private long hashAt(long sequence) {
+        return hashes[(int) (sequence % hashes.length)];
+    }
+
+    private static long hash(String line) {
+        long hash = FNV_OFFSET;
+        int i = 0;
+        while (i < line.length()) {
+            char c = line.charAt(i);
+            if (AnsiStripper.isIntroducer(c)) {
+                i = AnsiStripper.sequenceEnd(line, i);
+                continue;
+            }
+            hash ^= c;
+            hash *= FNV_PRIME;
+            i++;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,88 @@
+package dev.plytki.pterodactyl.app.console;
+
+/**
+ * A console line with its pre-parsed style runs. Runs are stored flat as
+ * {@code [start, styleId, start, styleId, ...]}, where each start is a char
+ * index into the text and each style id refers to an interned
+ * {@link AnsiStyle}. A line without runs is drawn in the default style.
+ *
+ * @param text The text of the line without escape sequences.
+ * @param runs The style runs, or null if the whole line uses the default style.
+ */
+public record StyledLine(String text, int[] runs) {
+
+    private static final char ESC = 0x1B;
+
+    /**
+     * Returns the number of style runs.
+     *
+     * @return The run count.
+     */
+    public int runCount() {
+        return runs == null ? 0 : runs.length / 2;
+    }
+
+    /**
+     * Returns the char index at which the given run starts.
+     *
+     * @param run The run index.
+     * @return The start index.
+     */
+    public int runStart(int run) {
+        return runs[run * 2];
+    }
+
+    /**
+     * Returns the char index at which the given run ends.
+     *
+     * @param run The run index.
+     * @return The end index.
+     */
+    public int runEnd(int run) {
+        return run + 1 < runCount() ? runs[(run + 1) * 2] : text.length();
+    }
+
+    /**
+     * Returns the style of the given run.
+     *
+     * @param run The run index.
+     * @return The style.
+     */
+    public AnsiStyle runStyle(int run) {
+        return AnsiStyle.byId(runs[run * 2 + 1]);
+    }
+
+    /**
+     * Encodes the line back into text with normalized SGR sequences. Every run
+     * starts with a full reset so the result can be parsed without context.
+     *
+     * @return The text with embedded SGR sequences.
+     */
+    public String toAnsi() {
+        if (runs == null) {
+            return text;
+        }
+        StringBuilder builder = new StringBuilder(text.length() + runCount() * 16);
+        builder.append(text, 0, runStart(0));
+        for (int run = 0; run < runCount(); run++) {
+            AnsiStyle style = runStyle(run);
+            builder.append(ESC).append("[0");
+            if (style.isBold()) builder.append(";1");
+            if (style.isItalic()) builder.append(";3");
+            if (style.isUnderline()) builder.append(";4");
+            if (style.getForeground() != null) appendColor(builder, 38, style.getForeground().getRGB());
+            if (style.getBackground() != null) appendColor(builder, 48, style.getBackground().getRGB());
+            builder.append('m');
+            builder.append(text, runStart(run), runEnd(run));
+        }
+        builder.append(ESC).append("[0m");
+        return builder.toString();
+    }
+
+    private static void appendColor(StringBuilder builder, int selector, int rgb) {
+        builder.append(';').append(selector).append(";2;")
+                .append((rgb >> 16) & 0xFF).append(';')
+                .append((rgb >> 8) & 0xFF).append(';')
+                .append(rgb & 0xFF);
+    }
+}
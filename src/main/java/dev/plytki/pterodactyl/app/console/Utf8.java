@@ -0,0 +1,94 @@
+package dev.plytki.pterodactyl.app.console;
+
+/**
+ * Allocation-free UTF-8 encoding helpers for console storage. Unpaired
+ * surrogates are encoded as U+FFFD.
+ */
+public final class Utf8 {
+
+    private Utf8() {
+    }
+
+    /**
+     * Returns the number of bytes that {@code text} occupies when encoded as UTF-8.
+     *
+     * @param text The text to measure.
+     * @return The encoded length in bytes.
+     */
+    public static int length(String text) {
+        int length = text.length();
+        int bytes = length;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                continue;
+            }
+            if (c < 0x800) {
+                bytes += 1;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                bytes += 2;
+                i++;
+            } else {
+                bytes += 2;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns the number of chars that the UTF-8 bytes in the given range
+     * decode to, without decoding them. Code points outside the Basic
+     * Multilingual Plane count as two chars, as in a String.
+     *
+     * @param bytes The encoded text.
+     * @param start The position of the first byte.
+     * @param end   The position after the last byte.
+     * @return The decoded length in chars.
+     */
+    public static int charCount(byte[] bytes, int start, int end) {
+        int chars = 0;
+        for (int i = start; i < end; i++) {
+            int b = bytes[i];
+            if ((b & 0xC0) != 0x80) {
+                chars += (b & 0xF8) == 0xF0 ? 2 : 1;
+            }
+        }
+        return chars;
+    }
+
+    /**
+     * Encodes {@code text} into {@code target} starting at {@code offset}. The
+     * target must have at least {@link #length(String)} bytes of room.
+     *
+     * @param text   The text to encode.
+     * @param target The array to write into.
+     * @param offset The position of the first byte to write.
+     * @return The position after the last byte written.
+     */
+    public static int encode(String text, byte[] target, int offset) {
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                target[offset++] = (byte) c;
+            } else if (c < 0x800) {
+                target[offset++] = (byte) (0xC0 | (c >> 6));
+                target[offset++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                target[offset++] = (byte) (0xF0 | (codePoint >> 18));
+                target[offset++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                target[offset++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                target[offset++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else {
+                if (Character.isSurrogate(c)) {
+                    c = '\uFFFD';
+                }
+                target[offset++] = (byte) (0xE0 | (c >> 12));
+                target[offset++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                target[offset++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return offset;
+    }
+}
@@ -0,0 +1,209 @@
+package dev.plytki.pterodactyl.app.data;
+
+import dev.plytki.pterodactyl.app.component.ServerInfoPanel;
+import dev.plytki.pterodactyl.app.console.ConsoleBacklog;
+import dev.plytki.pterodactyl.app.net.FramePipeline;
+import dev.plytki.pterodactyl.app.net.WebSocketTransport;
+import dev.plytki.pterodactyl.app.util.UiRefresher;
+import lombok.Getter;
+
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Tunable application options read from the configuration file. Every option
+ * has a default, so a missing or empty configuration yields a usable instance.
+ */
+@Getter
+public class Options {
+
+    public static final String CONSOLE_MAX_LINES_PROPERTY = "console.max.lines";
+    public static final String CONSOLE_MAX_BYTES_PROPERTY = "console.max.bytes";
+    public static final String CONSOLE_EVICTION_PROPERTY = "console.eviction";
+    public static final String CONSOLE_COLORS_PROPERTY = "console.colors";
+    public static final String CONSOLE_SPOOL_ENABLED_PROPERTY = "console.spool.enabled";
+    public static final String CONSOLE_SPOOL_DIRECTORY_PROPERTY = "console.spool.directory";
+    public static final String CONSOLE_SPOOL_SEGMENT_BYTES_PROPERTY = "console.spool.segment.bytes";
+    public static final String CONSOLE_SPOOL_SEGMENTS_PROPERTY = "console.spool.segments";
+    public static final String PIPELINE_FRAME_CAPACITY_PROPERTY = "pipeline.frame.capacity";
+    public static final String PIPELINE_CONSOLE_CAPACITY_PROPERTY = "pipeline.console.capacity";
+    public static final String PIPELINE_CONSOLE_OVERFLOW_PROPERTY = "pipeline.console.overflow";
+    public static final String UI_REFRESH_RATE_PROPERTY = "ui.refresh.rate";
+    public static final String HTTP_MAX_REQUESTS_PROPERTY = "http.max.requests";
+    public static final String HTTP_MAX_REQUESTS_PER_HOST_PROPERTY = "http.max.requests.per.host";
+    public static final String HTTP_MAX_IDLE_CONNECTIONS_PROPERTY = "http.max.idle.connections";
+    public static final String HTTP_KEEP_ALIVE_SECONDS_PROPERTY = "http.keep.alive.seconds";
+    public static final String WEBSOCKET_TRANSPORT_PROPERTY = "websocket.transport";
+    public static final String WEBSOCKET_IO_THREADS_PROPERTY = "websocket.io.threads";
+    public static final String WEBSOCKET_COMPRESSION_PROPERTY = "websocket.compression";
+    public static final String CATALOG_CACHE_ENABLED_PROPERTY = "catalog.cache.enabled";
+    public static final String CATALOG_CACHE_DIRECTORY_PROPERTY = "catalog.cache.directory";
+    public static final String CATALOG_FETCH_PARALLELISM_PROPERTY = "catalog.fetch.parallelism";
+    public static final String CATALOG_REFRESH_INTERVAL_PROPERTY = "catalog.refresh.interval";
+    public static final String SERVER_LIST_MODE_PROPERTY = "server.list.mode";
+    public static final String CONNECTION_PARK_GRACE_SECONDS_PROPERTY = "connection.park.grace.seconds";
+    public static final String CONNECTION_MAX_HANDSHAKES_PROPERTY = "connection.max.handshakes";
+    public static final String CONNECTION_PINNED_PROPERTY = "connection.pinned";
+    public static final String CONNECTION_RECONNECT_INITIAL_MILLIS_PROPERTY = "connection.reconnect.initial.millis";
+    public static final String CONNECTION_RECONNECT_MAX_MILLIS_PROPERTY = "connection.reconnect.max.millis";
+    public static final String CONNECTION_TOKEN_REFRESH_LEAD_SECONDS_PROPERTY = "connection.token.refresh.lead.seconds";
+    public static final String RESOURCES_POLL_ENABLED_PROPERTY = "resources.poll.enabled";
+    public static final String RESOURCES_POLL_INTERVAL_PROPERTY = "resources.poll.interval";
+    public static final String RESOURCES_POLL_BATCH_SIZE_PROPERTY = "resources.poll.batch.size";
+    public static final String RESOURCES_POLL_BATCH_INTERVAL_PROPERTY = "resources.poll.batch.interval";
+    public static final String STATS_HISTORY_SECONDS_PROPERTY = "stats.history.seconds";
+    public static final String STATS_HISTORY_MINUTES_PROPERTY = "stats.history.minutes";
+    public static final String STATS_HISTORY_HOURS_PROPERTY = "stats.history.hours";
+
+    private final int consoleMaxLines;
+    private final long consoleMaxBytes;
+    private final ConsoleBacklog.EvictionPolicy consoleEviction;
+    private final boolean consoleColors;
+    private final boolean consoleSpoolEnabled;
+    private final String consoleSpoolDirectory;
+    private final long consoleSpoolSegmentBytes;
+    private final int consoleSpoolSegments;
+    private final int pipelineFrameCapacity;
+    private final int pipelineConsoleCapacity;
+    private final FramePipeline.OverflowPolicy pipelineConsoleOverflow;
+    private final int uiRefreshRate;
+    private final int httpMaxRequests;
+    private final int httpMaxRequestsPerHost;
+    private final int httpMaxIdleConnections;
+    private final long httpKeepAliveSeconds;
+    private final WebSocketTransport.Type webSocketTransport;
+    private final int webSocketIoThreads;
+    private final boolean webSocketCompression;
+    private final boolean catalogCacheEnabled;
+    private final String catalogCacheDirectory;
+    private final int catalogFetchParallelism;
+    private final int catalogRefreshInterval;
+    private final ServerInfoPanel.ListMode serverListMode;
+    private final long connectionParkGraceSeconds;
+    private final int connectionMaxHandshakes;
+    private final Set<String> connectionPinned;
+    private final long connectionReconnectInitialMillis;
+    private final long connectionReconnectMaxMillis;
+    private final long connectionTokenRefreshLeadSeconds;
+    private final boolean resourcesPollEnabled;
+    private final int resourcesPollInterval;
+    private final int resourcesPollBatchSize;
+    private final int resourcesPollBatchInterval;
+    private final int statsHistorySeconds;
+    private final int statsHistoryMinutes;
+    private final int statsHistoryHours;
+
+    /**
+     * Constructs Options with all defaults.
+     */
+    public Options() {
+        this(new Properties());
+    }
+
+    /**
+     * Constructs Options from the given configuration properties.
+     *
+     * @param config The configuration properties.
+     */
+    public Options(Properties config) {
+        this.consoleMaxLines = getInt(config, CONSOLE_MAX_LINES_PROPERTY, 50_000);
+        this.consoleMaxBytes = getLong(config, CONSOLE_MAX_BYTES_PROPERTY, 8L * 1024 * 1024);
+        this.consoleEviction = getEnum(config, CONSOLE_EVICTION_PROPERTY, ConsoleBacklog.EvictionPolicy.DROP_OLDEST);
+        this.consoleColors = getBoolean(config, CONSOLE_COLORS_PROPERTY, true);
+        this.consoleSpoolEnabled = getBoolean(config, CONSOLE_SPOOL_ENABLED_PROPERTY, true);
+        this.consoleSpoolDirectory = config.getProperty(CONSOLE_SPOOL_DIRECTORY_PROPERTY, "history");
+        this.consoleSpoolSegmentBytes = getLong(config, CONSOLE_SPOOL_SEGMENT_BYTES_PROPERTY, 16L * 1024 * 1024);
+        this.consoleSpoolSegments = getInt(config, CONSOLE_SPOOL_SEGMENTS_PROPERTY, 8);
+        this.pipelineFrameCapacity = getInt(config, PIPELINE_FRAME_CAPACITY_PROPERTY, 1024);
+        this.pipelineConsoleCapacity = getInt(config, PIPELINE_CONSOLE_CAPACITY_PROPERTY, 4096);
+        this.pipelineConsoleOverflow = getEnum(config, PIPELINE_CONSOLE_OVERFLOW_PROPERTY, FramePipeline.OverflowPolicy.DROP_OLDEST);
+        this.uiRefreshRate = getInt(config, UI_REFRESH_RATE_PROPERTY, UiRefresher.DEFAULT_RATE);
+        this.httpMaxRequests = getInt(config, HTTP_MAX_REQUESTS_PROPERTY, 64);
+        this.httpMaxRequestsPerHost = getInt(config, HTTP_MAX_REQUESTS_PER_HOST_PROPERTY, 16);
+        this.httpMaxIdleConnections = getInt(config, HTTP_MAX_IDLE_CONNECTIONS_PROPERTY, 8);
+        this.httpKeepAliveSeconds = getLong(config, HTTP_KEEP_ALIVE_SECONDS_PROPERTY, 300);
+        this.webSocketTransport = getEnum(config, WEBSOCKET_TRANSPORT_PROPERTY, WebSocketTransport.Type.NIO);
+        this.webSocketIoThreads = getInt(config, WEBSOCKET_IO_THREADS_PROPERTY, 2);
+        this.webSocketCompression = getBoolean(config, WEBSOCKET_COMPRESSION_PROPERTY, true);
+        this.catalogCacheEnabled = getBoolean(config, CATALOG_CACHE_ENABLED_PROPERTY, true);
+        this.catalogCacheDirectory = config.getProperty(CATALOG_CACHE_DIRECTORY_PROPERTY, "cache");
+        this.catalogFetchParallelism = getInt(config, CATALOG_FETCH_PARALLELISM_PROPERTY, 4);
+        this.catalogRefreshInterval = getInt(config, CATALOG_REFRESH_INTERVAL_PROPERTY, 60);
+        this.serverListMode = getEnum(config, SERVER_LIST_MODE_PROPERTY, ServerInfoPanel.ListMode.PANELS);
+        this.connectionParkGraceSeconds = getLong(config, CONNECTION_PARK_GRACE_SECONDS_PROPERTY, 30);
+        this.connectionMaxHandshakes = getInt(config, CONNECTION_MAX_HANDSHAKES_PROPERTY, 8);
+        this.connectionPinned = getSet(config, CONNECTION_PINNED_PROPERTY);
+        this.connectionReconnectInitialMillis = getLong(config, CONNECTION_RECONNECT_INITIAL_MILLIS_PROPERTY, 1000);
+        this.connectionReconnectMaxMillis = getLong(config, CONNECTION_RECONNECT_MAX_MILLIS_PROPERTY, 60_000);
+        this.connectionTokenRefreshLeadSeconds = getLong(config, CONNECTION_TOKEN_REFRESH_LEAD_SECONDS_PROPERTY, 90);
+        this.resourcesPollEnabled = getBoolean(config, RESOURCES_POLL_ENABLED_PROPERTY, true);
+        this.resourcesPollInterval = getInt(config, RESOURCES_POLL_INTERVAL_PROPERTY, 30);
+        this.resourcesPollBatchSize = getInt(config, RESOURCES_POLL_BATCH_SIZE_PROPERTY, 8);
+        this.resourcesPollBatchInterval = getInt(config, RESOURCES_POLL_BATCH_INTERVAL_PROPERTY, 4);
+        this.statsHistorySeconds = getInt(config, STATS_HISTORY_SECONDS_PROPERTY, 600);
+        this.statsHistoryMinutes = getInt(config, STATS_HISTORY_MINUTES_PROPERTY, 1440);
+        this.statsHistoryHours = getInt(config, STATS_HISTORY_HOURS_PROPERTY, 720);
+    }
+
+    private static Set<String> getSet(Properties config, String key) {
+        String value = config.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return Set.of();
+        }
+        Set<String> values = new HashSet<>();
+        for (String item : value.split(",")) {
+            if (!item.isBlank()) {
+                values.add(item.trim());
+            }
+        }
+        return Set.copyOf(values);
+    }
+
+    private static boolean getBoolean(Properties config, String key, boolean defaultValue) {
+        String value = config.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        return Boolean.parseBoolean(value.trim());
+    }
+
+    private static int getInt(Properties config, String key, int defaultValue) {
+        String value = config.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+
+    private static long getLong(Properties config, String key, long defaultValue) {
+        String value = config.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+
+    private static <E extends Enum<E>> E getEnum(Properties config, String key, E defaultValue) {
+        String value = config.getProperty(key);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Enum.valueOf(defaultValue.getDeclaringClass(), value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("Invalid value for " + key + ": " + value);
+            return defaultValue;
+        }
+    }
+}
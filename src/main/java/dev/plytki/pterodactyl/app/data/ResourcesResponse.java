@@ -0,0 +1,32 @@
+package dev.plytki.pterodactyl.app.data;
+
+/**
+ * Represents the response of the server resources endpoint, the REST
+ * counterpart of the WebSocket "stats" event.
+ */
+public class ResourcesResponse {
+
+    public String object;
+    public ResourcesAttributes attributes;
+
+    /**
+     * Represents the current state and resource usage of a server.
+     */
+    public static class ResourcesAttributes {
+        public String current_state;
+        public boolean is_suspended;
+        public Resources resources;
+    }
+
+    /**
+     * Represents the resource usage of a server.
+     */
+    public static class Resources {
+        public long memory_bytes;
+        public double cpu_absolute;
+        public long disk_bytes;
+        public long network_rx_bytes;
+        public long network_tx_bytes;
+        public long uptime;
+    }
+}
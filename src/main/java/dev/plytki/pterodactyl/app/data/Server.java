@@ -5,26 +5,28 @@ import lombok.Getter;
 
 /**
  * Represents a server with various attributes and settings.
- * Manages the connection to the server.
+ * Manages the connection to the server, which is created on first use by any
+ * thread and closed for good by {@link #closeConnection()}.
  */
 @Getter
 public class Server {
 
     private final Settings settings;
     private ServerConnection connection;
+    private boolean connectionClosed;
 
-    private final boolean serverOwner;
     private final String identifier;
     private final String uuid;
-    private final String name;
-    private final String node;
-    private final ServerResponse.SftpDetails sftpDetails;
-    private final String description;
-    private final ServerResponse.Limits limits;
-    private final ServerResponse.FeatureLimits featureLimits;
-    private final boolean isSuspended;
-    private final boolean isInstalling;
-    private final ServerResponse.Relationships relationships;
+    private volatile boolean serverOwner;
+    private volatile String name;
+    private volatile String node;
+    private volatile ServerResponse.SftpDetails sftpDetails;
+    private volatile String description;
+    private volatile ServerResponse.Limits limits;
+    private volatile ServerResponse.FeatureLimits featureLimits;
+    private volatile boolean isSuspended;
+    private volatile boolean isInstalling;
+    private volatile ServerResponse.Relationships relationships;
 
     /**
      * Constructs a Server object with the given attributes and settings.
@@ -36,6 +38,16 @@ public class Server {
         this.settings = settings;
         this.identifier = attributes.identifier;
         this.uuid = attributes.uuid;
+        update(attributes);
+    }
+
+    /**
+     * Replaces the server's details with newer ones from the API. The
+     * identity of the server and its open connection are kept.
+     *
+     * @param attributes The server attributes.
+     */
+    public void update(ServerResponse.ServerAttributes attributes) {
         this.name = attributes.name;
         this.node = attributes.node;
         this.sftpDetails = attributes.sftp_details;
@@ -50,13 +62,55 @@ public class Server {
 
     /**
      * Returns the connection to the server, initializing it if necessary.
+     * Once {@link #closeConnection()} has been called, the closed connection
+     * is returned instead of a new one.
      *
      * @return The ServerConnection object.
      */
-    public ServerConnection getConnection() {
+    public synchronized ServerConnection getConnection() {
         if (connection == null) {
             connection = new ServerConnection(this);
+            if (connectionClosed) {
+                connection.closeWebSocket();
+            }
         }
         return connection;
     }
+
+    /**
+     * Returns the connection to the server without creating it.
+     *
+     * @return The ServerConnection object, or null if none has been created.
+     */
+    public synchronized ServerConnection getExistingConnection() {
+        return connection;
+    }
+
+    /**
+     * Closes the connection to the server, if one has been opened. The
+     * server is marked closed first, so no connection is created for it
+     * afterwards.
+     */
+    public void closeConnection() {
+        ServerConnection closing;
+        synchronized (this) {
+            if (connectionClosed) {
+                return;
+            }
+            connectionClosed = true;
+            closing = connection;
+        }
+        if (closing != null) {
+            closing.closeWebSocket();
+        }
+    }
+
+    /**
+     * Returns whether {@link #closeConnection()} has been called.
+     *
+     * @return true if the connection is closed for good.
+     */
+    public synchronized boolean isConnectionClosed() {
+        return connectionClosed;
+    }
 }
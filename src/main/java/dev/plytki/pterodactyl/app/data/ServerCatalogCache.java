@@ -0,0 +1,273 @@
+package dev.plytki.pterodactyl.app.data;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Local snapshot of the last server list, so the list can be shown at startup
+ * before the API has answered.
+ * <p>
+ * The snapshot is a compact binary file: a header with the server count,
+ * followed by one length-prefixed record per server. The same record encoding
+ * is used by {@link #encode} to compare servers, since two servers with equal
+ * records display identically.
+ */
+public class ServerCatalogCache {
+
+    private static final int MAGIC = 0x50544331; // "PTC1"
+
+    private final Path file;
+
+    /**
+     * Constructs a ServerCatalogCache backed by the given file.
+     *
+     * @param file The snapshot file.
+     */
+    public ServerCatalogCache(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Returns the cache for the account and panel in the given settings.
+     * Every API key and hostname pair gets its own snapshot file.
+     *
+     * @param settings The settings.
+     * @return The cache.
+     */
+    public static ServerCatalogCache forSettings(Settings settings) {
+        String key = settings.getURLPrefix() + settings.hostname() + "\n" + settings.apiKey();
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            String name = "catalog-" + HexFormat.of().formatHex(digest, 0, 8) + ".bin";
+            return new ServerCatalogCache(Path.of(settings.options().getCatalogCacheDirectory(), name));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Loads the snapshot. Every count and length in the file is checked
+     * against the bytes that are left before anything is allocated for it, so
+     * a corrupt snapshot is ignored rather than exhausting the heap.
+     *
+     * @return The cached servers, or null if there is no usable snapshot.
+     */
+    public List<ServerResponse.ServerAttributes> load() {
+        try {
+            ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+            if (in.getInt() != MAGIC) {
+                System.err.println("Ignoring server catalog snapshot with unknown format: " + file);
+                return null;
+            }
+            int count = readCount(in, Integer.BYTES);
+            List<ServerResponse.ServerAttributes> servers = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int length = readCount(in, 1);
+                servers.add(decode(in.slice(in.position(), length)));
+                in.position(in.position() + length);
+            }
+            return servers;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            System.err.println("Failed to load server catalog snapshot: " + e.getMessage());
+            return null;
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            System.err.println("Ignoring corrupt server catalog snapshot: " + file);
+            return null;
+        }
+    }
+
+    /**
+     * Replaces the snapshot with the given servers. The file is written under
+     * a temporary name and moved into place, so a crash never leaves a
+     * truncated snapshot behind.
+     *
+     * @param servers The servers to store.
+     */
+    public void save(List<ServerResponse.ServerAttributes> servers) {
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 64 * 1024))) {
+                out.writeInt(MAGIC);
+                out.writeInt(servers.size());
+                for (ServerResponse.ServerAttributes server : servers) {
+                    byte[] record = encode(server);
+                    out.writeInt(record.length);
+                    out.write(record);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("Failed to save server catalog snapshot: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Encodes a server into its snapshot record.
+     *
+     * @param server The server attributes.
+     * @return The record bytes.
+     */
+    public static byte[] encode(ServerResponse.ServerAttributes server) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeBoolean(server.server_owner);
+            writeString(out, server.identifier);
+            writeString(out, server.uuid);
+            writeString(out, server.name);
+            writeString(out, server.node);
+            writeString(out, server.description);
+            out.writeBoolean(server.is_suspended);
+            out.writeBoolean(server.is_installing);
+
+            out.writeBoolean(server.sftp_details != null);
+            if (server.sftp_details != null) {
+                writeString(out, server.sftp_details.ip);
+                out.writeInt(server.sftp_details.port);
+            }
+            out.writeBoolean(server.limits != null);
+            if (server.limits != null) {
+                out.writeInt(server.limits.memory);
+                out.writeInt(server.limits.swap);
+                out.writeInt(server.limits.disk);
+                out.writeInt(server.limits.io);
+                out.writeInt(server.limits.cpu);
+            }
+            out.writeBoolean(server.feature_limits != null);
+            if (server.feature_limits != null) {
+                out.writeInt(server.feature_limits.databases);
+                out.writeInt(server.feature_limits.allocations);
+                out.writeInt(server.feature_limits.backups);
+            }
+
+            List<ServerResponse.AllocationData> allocations = server.relationships == null || server.relationships.allocations == null
+                    ? null
+                    : server.relationships.allocations.data;
+            out.writeInt(allocations == null ? -1 : allocations.size());
+            if (allocations != null) {
+                for (ServerResponse.AllocationData allocation : allocations) {
+                    ServerResponse.AllocationAttributes attributes = allocation.attributes;
+                    out.writeInt(attributes.id);
+                    writeString(out, attributes.ip);
+                    writeString(out, attributes.ip_alias);
+                    out.writeInt(attributes.port);
+                    writeString(out, attributes.notes);
+                    out.writeBoolean(attributes.is_default);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static ServerResponse.ServerAttributes decode(ByteBuffer in) {
+        ServerResponse.ServerAttributes server = new ServerResponse.ServerAttributes();
+        server.server_owner = in.get() != 0;
+        server.identifier = readString(in);
+        server.uuid = readString(in);
+        server.name = readString(in);
+        server.node = readString(in);
+        server.description = readString(in);
+        server.is_suspended = in.get() != 0;
+        server.is_installing = in.get() != 0;
+
+        if (in.get() != 0) {
+            server.sftp_details = new ServerResponse.SftpDetails();
+            server.sftp_details.ip = readString(in);
+            server.sftp_details.port = in.getInt();
+        }
+        if (in.get() != 0) {
+            server.limits = new ServerResponse.Limits();
+            server.limits.memory = in.getInt();
+            server.limits.swap = in.getInt();
+            server.limits.disk = in.getInt();
+            server.limits.io = in.getInt();
+            server.limits.cpu = in.getInt();
+        }
+        if (in.get() != 0) {
+            server.feature_limits = new ServerResponse.FeatureLimits();
+            server.feature_limits.databases = in.getInt();
+            server.feature_limits.allocations = in.getInt();
+            server.feature_limits.backups = in.getInt();
+        }
+
+        int allocationCount = in.getInt();
+        if (allocationCount >= 0) {
+            checkRemaining(in, allocationCount, 1);
+            server.relationships = new ServerResponse.Relationships();
+            server.relationships.allocations = new ServerResponse.Allocations();
+            server.relationships.allocations.object = "list";
+            server.relationships.allocations.data = new ArrayList<>(allocationCount);
+            for (int i = 0; i < allocationCount; i++) {
+                ServerResponse.AllocationAttributes attributes = new ServerResponse.AllocationAttributes();
+                attributes.id = in.getInt();
+                attributes.ip = readString(in);
+                attributes.ip_alias = readString(in);
+                attributes.port = in.getInt();
+                attributes.notes = readString(in);
+                attributes.is_default = in.get() != 0;
+                ServerResponse.AllocationData allocation = new ServerResponse.AllocationData();
+                allocation.object = "allocation";
+                allocation.attributes = attributes;
+                server.relationships.allocations.data.add(allocation);
+            }
+        }
+        return server;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        checkRemaining(in, length, 1);
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    /**
+     * Reads a non-negative count of items that each take at least the given
+     * number of bytes.
+     *
+     * @throws IllegalArgumentException If the count is negative or more items than the bytes left can hold.
+     */
+    private static int readCount(ByteBuffer in, int minItemBytes) {
+        int count = in.getInt();
+        if (count < 0) {
+            throw new IllegalArgumentException("Negative count " + count);
+        }
+        checkRemaining(in, count, minItemBytes);
+        return count;
+    }
+
+    private static void checkRemaining(ByteBuffer in, int count, int minItemBytes) {
+        if (count > in.remaining() / minItemBytes) {
+            throw new IllegalArgumentException(count + " items do not fit in " + in.remaining() + " bytes");
+        }
+    }
+}
@@ -1,6 +1,6 @@
 package dev.plytki.pterodactyl.app.data;
 
-public record Settings(String apiKey, String hostname, boolean ssl) {
+public record Settings(String apiKey, String hostname, boolean ssl, Options options) {
 
     public String getURLPrefix() {
         return ssl ? "https://" : "http://";
@@ -47,7 +47,7 @@ public class Statistics {
         return String.format("Network: Rx %s, Tx %s", formatBytes(network.rxBytes(), ""), formatBytes(network.txBytes(), ""));
     }
 
-    private String formatBytes(long bytes, String label) {
+    public static String formatBytes(long bytes, String label) {
         double value = bytes;
         String unit = "B";
 
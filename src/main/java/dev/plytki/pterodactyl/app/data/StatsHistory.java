@@ -0,0 +1,265 @@
+package dev.plytki.pterodactyl.app.data;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+
+/**
+ * The statistics history of one server, kept at three resolutions: one point
+ * per second, per minute and per hour. Each resolution is a fixed-size ring of
+ * primitive columns, and every sample is folded into the open point of each
+ * ring, so recording allocates nothing. A point holds the mean and the peak of
+ * CPU and memory over its interval, and the last disk and network values,
+ * which are totals already.
+ * <p>
+ * With the default capacities (10 minutes of seconds, a day of minutes and 30
+ * days of hours) a history takes about 170 KiB. The rings are allocated on the
+ * first sample, so a history that never receives one costs a few bytes.
+ */
+public class StatsHistory {
+
+    private final int[] points;
+    private final Ring[] rings = new Ring[Resolution.values().length];
+
+    /**
+     * Constructs a StatsHistory with the given ring sizes.
+     *
+     * @param secondPoints The number of one-second points to keep.
+     * @param minutePoints The number of one-minute points to keep.
+     * @param hourPoints   The number of one-hour points to keep.
+     */
+    public StatsHistory(int secondPoints, int minutePoints, int hourPoints) {
+        if (secondPoints <= 0 || minutePoints <= 0 || hourPoints <= 0) {
+            throw new IllegalArgumentException("History sizes must be positive");
+        }
+        this.points = new int[]{secondPoints, minutePoints, hourPoints};
+    }
+
+    /**
+     * Records one sample.
+     *
+     * @param timestamp   The time of the sample in epoch milliseconds.
+     * @param cpuAbsolute CPU usage in percent.
+     * @param memoryBytes Memory in use.
+     * @param diskBytes   Disk usage.
+     * @param rxBytes     Bytes received in total.
+     * @param txBytes     Bytes transmitted in total.
+     */
+    public synchronized void record(long timestamp, double cpuAbsolute, long memoryBytes, long diskBytes, long rxBytes, long txBytes) {
+        for (Resolution resolution : Resolution.values()) {
+            Ring ring = rings[resolution.ordinal()];
+            if (ring == null) {
+                ring = new Ring(resolution.getBucketMillis(), points[resolution.ordinal()]);
+                rings[resolution.ordinal()] = ring;
+            }
+            ring.add(timestamp, cpuAbsolute, memoryBytes, diskBytes, rxBytes, txBytes);
+        }
+    }
+
+    /**
+     * Returns the number of points available at a resolution, including the
+     * point still being filled.
+     *
+     * @param resolution The resolution.
+     * @return The point count.
+     */
+    public synchronized int size(Resolution resolution) {
+        Ring ring = rings[resolution.ordinal()];
+        if (ring == null) {
+            return 0;
+        }
+        return ring.count + (ring.samples > 0 ? 1 : 0);
+    }
+
+    /**
+     * Copies the points of a resolution starting at or after a time into a
+     * series, oldest first. The last point may still be filling. The series'
+     * columns are reused when they are large enough, so a series kept by the
+     * caller makes repeated reads allocation-free.
+     *
+     * @param resolution The resolution.
+     * @param since      The earliest point time to include, in epoch milliseconds.
+     * @param target     The series to fill.
+     * @return The number of points copied, also available as {@link Series#getSize()}.
+     */
+    public synchronized int read(Resolution resolution, long since, Series target) {
+        Ring ring = rings[resolution.ordinal()];
+        target.size = 0;
+        if (ring == null) {
+            return 0;
+        }
+        target.ensureCapacity(ring.count + 1);
+        int capacity = ring.timestamps.length;
+        int oldest = Math.floorMod(ring.head - ring.count, capacity);
+        for (int i = 0; i < ring.count; i++) {
+            int slot = (oldest + i) % capacity;
+            if (ring.timestamps[slot] >= since) {
+                target.put(ring.timestamps[slot], ring.cpu[slot], ring.cpuPeak[slot], ring.memory[slot],
+                        ring.memoryPeak[slot], ring.disk[slot], ring.rx[slot], ring.tx[slot]);
+            }
+        }
+        if (ring.samples > 0 && ring.bucket * ring.bucketMillis >= since) {
+            target.put(ring.bucket * ring.bucketMillis, ring.cpuSum / ring.samples, ring.openCpuPeak,
+                    ring.memorySum / ring.samples, ring.openMemoryPeak, ring.lastDisk, ring.lastRx, ring.lastTx);
+        }
+        return target.size;
+    }
+
+    /**
+     * Returns the number of bytes held by the columns of this history, 0
+     * until the first sample.
+     *
+     * @return The retained column bytes.
+     */
+    public synchronized long getRetainedBytes() {
+        long bytes = 0;
+        for (Ring ring : rings) {
+            if (ring != null) {
+                bytes += (long) ring.timestamps.length * Ring.BYTES_PER_POINT;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * The resolutions kept by a history.
+     */
+    @Getter
+    public enum Resolution {
+        SECOND(1000L),
+        MINUTE(60_000L),
+        HOUR(3_600_000L);
+
+        private final long bucketMillis;
+
+        Resolution(long bucketMillis) {
+            this.bucketMillis = bucketMillis;
+        }
+    }
+
+    /**
+     * Points copied out of a history, as columns. Only the first
+     * {@link #getSize()} entries of each column are valid.
+     */
+    @Getter
+    public static class Series {
+
+        private long[] timestamps = new long[0];
+        private double[] cpu = new double[0];
+        private double[] cpuPeak = new double[0];
+        private long[] memory = new long[0];
+        private long[] memoryPeak = new long[0];
+        private long[] disk = new long[0];
+        private long[] rx = new long[0];
+        private long[] tx = new long[0];
+        private int size;
+
+        private void ensureCapacity(int capacity) {
+            if (timestamps.length >= capacity) {
+                return;
+            }
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            cpu = Arrays.copyOf(cpu, capacity);
+            cpuPeak = Arrays.copyOf(cpuPeak, capacity);
+            memory = Arrays.copyOf(memory, capacity);
+            memoryPeak = Arrays.copyOf(memoryPeak, capacity);
+            disk = Arrays.copyOf(disk, capacity);
+            rx = Arrays.copyOf(rx, capacity);
+            tx = Arrays.copyOf(tx, capacity);
+        }
+
+        private void put(long timestamp, double cpu, double cpuPeak, long memory, long memoryPeak, long disk, long rx, long tx) {
+            this.timestamps[size] = timestamp;
+            this.cpu[size] = cpu;
+            this.cpuPeak[size] = cpuPeak;
+            this.memory[size] = memory;
+            this.memoryPeak[size] = memoryPeak;
+            this.disk[size] = disk;
+            this.rx[size] = rx;
+            this.tx[size] = tx;
+            size++;
+        }
+    }
+
+    /**
+     * One resolution: closed points in a ring, and the point being filled.
+     */
+    private static final class Ring {
+
+        private static final int BYTES_PER_POINT = 8 * Long.BYTES;
+
+        private final long bucketMillis;
+        private final long[] timestamps;
+        private final double[] cpu;
+        private final double[] cpuPeak;
+        private final long[] memory;
+        private final long[] memoryPeak;
+        private final long[] disk;
+        private final long[] rx;
+        private final long[] tx;
+        private int head;
+        private int count;
+
+        private long bucket;
+        private int samples;
+        private double cpuSum;
+        private double openCpuPeak;
+        private long memorySum;
+        private long openMemoryPeak;
+        private long lastDisk;
+        private long lastRx;
+        private long lastTx;
+
+        private Ring(long bucketMillis, int points) {
+            this.bucketMillis = bucketMillis;
+            this.timestamps = new long[points];
+            this.cpu = new double[points];
+            this.cpuPeak = new double[points];
+            this.memory = new long[points];
+            this.memoryPeak = new long[points];
+            this.disk = new long[points];
+            this.rx = new long[points];
+            this.tx = new long[points];
+        }
+
+        private void add(long timestamp, double cpuAbsolute, long memoryBytes, long diskBytes, long rxBytes, long txBytes) {
+            long sampleBucket = Math.floorDiv(timestamp, bucketMillis);
+            if (samples > 0 && sampleBucket != bucket) {
+                close();
+            }
+            if (samples == 0) {
+                bucket = sampleBucket;
+                cpuSum = 0;
+                openCpuPeak = cpuAbsolute;
+                memorySum = 0;
+                openMemoryPeak = memoryBytes;
+            }
+            samples++;
+            cpuSum += cpuAbsolute;
+            openCpuPeak = Math.max(openCpuPeak, cpuAbsolute);
+            memorySum += memoryBytes;
+            openMemoryPeak = Math.max(openMemoryPeak, memoryBytes);
+            lastDisk = diskBytes;
+            lastRx = rxBytes;
+            lastTx = txBytes;
+        }
+
+        /**
+         * Writes the open point into the ring, overwriting the oldest point
+         * once the ring is full.
+         */
+        private void close() {
+            timestamps[head] = bucket * bucketMillis;
+            cpu[head] = cpuSum / samples;
+            cpuPeak[head] = openCpuPeak;
+            memory[head] = memorySum / samples;
+            memoryPeak[head] = openMemoryPeak;
+            disk[head] = lastDisk;
+            rx[head] = lastRx;
+            tx[head] = lastTx;
+            head = (head + 1) % timestamps.length;
+            count = Math.min(count + 1, timestamps.length);
+            samples = 0;
+        }
+    }
+}
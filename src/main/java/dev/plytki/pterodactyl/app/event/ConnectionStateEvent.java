@@ -0,0 +1,23 @@
+package dev.plytki.pterodactyl.app.event;
+
+import dev.plytki.pterodactyl.app.ServerConnection;
+import dev.plytki.pterodactyl.app.data.Server;
+import lombok.Getter;
+
+import java.util.EventObject;
+
+@Getter
+public class ConnectionStateEvent extends EventObject {
+
+    private final Server server;
+    private final ServerConnection.State state;
+    private final long retryDelayMillis;
+
+    public ConnectionStateEvent(Object source, Server server, ServerConnection.State state, long retryDelayMillis) {
+        super(source);
+        this.server = server;
+        this.state = state;
+        this.retryDelayMillis = retryDelayMillis;
+    }
+
+}
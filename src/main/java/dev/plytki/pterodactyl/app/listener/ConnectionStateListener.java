@@ -0,0 +1,9 @@
+package dev.plytki.pterodactyl.app.listener;
+
+import dev.plytki.pterodactyl.app.event.ConnectionStateEvent;
+
+public interface ConnectionStateListener {
+
+    void onEvent(ConnectionStateEvent event);
+
+}
@@ -0,0 +1,105 @@
+package dev.plytki.pterodactyl.app.listener;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * A thread-safe, copy-on-write list of listeners. Registration and removal may
+ * happen on any thread while events are dispatched on another; dispatch
+ * iterates a snapshot and never blocks. Listeners can be held weakly, in which
+ * case they are dropped automatically once nothing else references them.
+ *
+ * @param <L> The listener type.
+ */
+public class ListenerRegistry<L> {
+
+    private final List<Entry<L>> entries = new CopyOnWriteArrayList<>();
+
+    /**
+     * Registers a listener, holding it strongly until it is unsubscribed.
+     *
+     * @param listener The listener to register.
+     * @return The subscription removing the listener.
+     */
+    public Subscription subscribe(L listener) {
+        return add(new Entry<>(this, listener, null));
+    }
+
+    /**
+     * Registers a listener through a weak reference. The caller must keep the
+     * listener reachable for as long as it should receive events.
+     *
+     * @param listener The listener to register.
+     * @return The subscription removing the listener.
+     */
+    public Subscription subscribeWeak(L listener) {
+        return add(new Entry<>(this, null, new WeakReference<>(listener)));
+    }
+
+    /**
+     * Calls the given action for every registered listener. A listener that
+     * throws does not prevent the others from being called.
+     *
+     * @param action The action to call.
+     */
+    public void forEach(Consumer<L> action) {
+        for (Entry<L> entry : entries) {
+            L listener = entry.get();
+            if (listener == null) {
+                entries.remove(entry);
+                continue;
+            }
+            try {
+                action.accept(listener);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of registered listeners, including weak listeners
+     * that have been collected but not yet pruned.
+     *
+     * @return The listener count.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Removes all listeners.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    private Subscription add(Entry<L> entry) {
+        entries.add(entry);
+        return entry;
+    }
+
+    private static class Entry<L> implements Subscription {
+
+        private final ListenerRegistry<L> registry;
+        private final L strong;
+        private final WeakReference<L> weak;
+
+        private Entry(ListenerRegistry<L> registry, L strong, WeakReference<L> weak) {
+            this.registry = registry;
+            this.strong = strong;
+            this.weak = weak;
+        }
+
+        private L get() {
+            return strong != null ? strong : weak.get();
+        }
+
+        @Override
+        public void unsubscribe() {
+            registry.entries.remove(this);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package dev.plytki.pterodactyl.app.listener;
+
+/**
+ * A handle to a registration that can be undone. Unsubscribing more than once
+ * has no further effect.
+ */
+@FunctionalInterface
+public interface Subscription {
+
+    /**
+     * Removes the registration this handle stands for.
+     */
+    void unsubscribe();
+
+}
@@ -0,0 +1,517 @@
+package dev.plytki.pterodactyl.app.net;
+
+/**
+ * Streaming decoder for Wings WebSocket frames of the form
+ * {@code {"event":"...","args":[...]}}. It scans the frame text once, matches
+ * the event name in place and hands the arguments to a {@link Handler} as
+ * primitives. The stats payload, which Wings sends as a JSON document encoded
+ * inside a JSON string, is read directly from the escaped text without
+ * unescaping it first, so decoding a stats frame does not allocate. Only
+ * console lines and unknown event names are materialized as Strings.
+ * <p>
+ * One decoder is meant to be used by one thread at a time.
+ */
+public class FrameDecoder {
+
+    private static final String[] KNOWN_STATES = {"running", "offline", "starting", "stopping"};
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final StringBuilder scratch = new StringBuilder(256);
+    private String text;
+    private int position;
+    private int limit;
+    private boolean escaped;
+
+    private long memoryBytes;
+    private long memoryLimitBytes;
+    private double cpuAbsolute;
+    private long rxBytes;
+    private long txBytes;
+    private String state;
+    private long diskBytes;
+
+    /**
+     * Decodes a frame and dispatches it to the handler.
+     *
+     * @param frame   The frame text.
+     * @param handler The handler receiving the decoded event.
+     * @throws IllegalArgumentException If the frame is not valid JSON of the expected shape.
+     */
+    public void decode(String frame, Handler handler) {
+        text = frame;
+        position = 0;
+        limit = frame.length();
+        escaped = false;
+
+        Event event = null;
+        int eventStart = -1;
+        int eventEnd = -1;
+        int argsPosition = -1;
+
+        expect('{');
+        if (!consume('}')) {
+            do {
+                int keyStart = stringStart();
+                int keyEnd = skipStringBody();
+                expect(':');
+                if (matches(keyStart, keyEnd, "event")) {
+                    eventStart = stringStart();
+                    eventEnd = skipStringBody();
+                    event = Event.match(text, eventStart, eventEnd);
+                } else if (matches(keyStart, keyEnd, "args")) {
+                    skipWhitespace();
+                    argsPosition = position;
+                    skipValue();
+                } else {
+                    skipValue();
+                }
+            } while (consume(','));
+            expect('}');
+        }
+        if (eventStart < 0) {
+            throw new IllegalArgumentException("Frame has no event");
+        }
+
+        switch (event) {
+            case STATS -> {
+                readFirstArgument(argsPosition);
+                decodeStats();
+                handler.onStats(memoryBytes, memoryLimitBytes, cpuAbsolute, rxBytes, txBytes, state, diskBytes);
+            }
+            case CONSOLE_OUTPUT -> {
+                readFirstArgument(argsPosition);
+                handler.onConsoleOutput(unescape(position, skipStringBody()));
+            }
+            case STATUS -> {
+                readFirstArgument(argsPosition);
+                int start = position;
+                handler.onStatus(knownState(start, skipStringBody()));
+            }
+            case UNKNOWN -> handler.onOtherEvent(unescape(eventStart, eventEnd));
+            default -> handler.onEvent(event);
+        }
+    }
+
+    /**
+     * Positions the cursor on the body of the first argument, which must be a string.
+     */
+    private void readFirstArgument(int argsPosition) {
+        if (argsPosition < 0) {
+            throw new IllegalArgumentException("Frame has no arguments");
+        }
+        position = argsPosition;
+        expect('[');
+        stringStart();
+    }
+
+    /**
+     * Decodes the stats document held in the string body at the cursor. The
+     * body is JSON escaped one level, so quotes appear as {@code \"}.
+     */
+    private void decodeStats() {
+        memoryBytes = 0;
+        memoryLimitBytes = 0;
+        cpuAbsolute = 0;
+        rxBytes = 0;
+        txBytes = 0;
+        state = "";
+        diskBytes = 0;
+
+        int outerLimit = limit;
+        int bodyStart = position;
+        int bodyEnd = skipStringBody();
+        position = bodyStart;
+        limit = bodyEnd;
+        escaped = true;
+        try {
+            readStatsObject(false);
+        } finally {
+            escaped = false;
+            limit = outerLimit;
+            position = bodyEnd;
+        }
+    }
+
+    private void readStatsObject(boolean network) {
+        expect('{');
+        if (consume('}')) {
+            return;
+        }
+        do {
+            int keyStart = stringStart();
+            int keyEnd = skipStringBody();
+            expect(':');
+            if (network) {
+                if (matches(keyStart, keyEnd, "rx_bytes")) rxBytes = readLong();
+                else if (matches(keyStart, keyEnd, "tx_bytes")) txBytes = readLong();
+                else skipValue();
+            } else if (matches(keyStart, keyEnd, "memory_bytes")) {
+                memoryBytes = readLong();
+            } else if (matches(keyStart, keyEnd, "memory_limit_bytes")) {
+                memoryLimitBytes = readLong();
+            } else if (matches(keyStart, keyEnd, "cpu_absolute")) {
+                cpuAbsolute = readDouble();
+            } else if (matches(keyStart, keyEnd, "disk_bytes")) {
+                diskBytes = readLong();
+            } else if (matches(keyStart, keyEnd, "state")) {
+                int start = stringStart();
+                state = knownState(start, skipStringBody());
+            } else if (matches(keyStart, keyEnd, "network")) {
+                skipWhitespace();
+                if (peek() == '{') readStatsObject(true);
+                else skipValue();
+            } else {
+                skipValue();
+            }
+        } while (consume(','));
+        expect('}');
+    }
+
+    /**
+     * Returns the constant for a known server state, allocating only for
+     * states this decoder does not know.
+     */
+    private String knownState(int start, int end) {
+        for (String known : KNOWN_STATES) {
+            if (matches(start, end, known)) {
+                return known;
+            }
+        }
+        return unescape(start, end);
+    }
+
+    private long readLong() {
+        skipWhitespace();
+        if (peek() == 'n') {
+            skipValue();
+            return 0;
+        }
+        int start = position;
+        boolean negative = consume('-');
+        long value = 0;
+        while (position < limit) {
+            char c = text.charAt(position);
+            if (c >= '0' && c <= '9') {
+                value = value * 10 + (c - '0');
+                position++;
+            } else if (c == '.' || c == 'e' || c == 'E') {
+                position = start;
+                return (long) readDouble();
+            } else {
+                break;
+            }
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Reads a JSON number. Numbers with at most 15 significant digits and no
+     * exponent take an exact fast path; anything else falls back to
+     * {@link Double#parseDouble(String)}.
+     */
+    private double readDouble() {
+        skipWhitespace();
+        if (peek() == 'n') {
+            skipValue();
+            return 0;
+        }
+        int start = position;
+        boolean negative = consume('-');
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean fraction = false;
+        boolean slowPath = false;
+        while (position < limit) {
+            char c = text.charAt(position);
+            if (c >= '0' && c <= '9') {
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (mantissa != 0) digits++;
+                    if (fraction) fractionDigits++;
+                } else {
+                    slowPath = true;
+                }
+            } else if (c == '.' && !fraction) {
+                fraction = true;
+            } else if (c == 'e' || c == 'E' || c == '+' || (c == '-' && position > start)) {
+                slowPath = true;
+            } else {
+                break;
+            }
+            position++;
+        }
+        if (position == start || (negative && position == start + 1)) {
+            throw new IllegalArgumentException("Expected a number at " + start);
+        }
+        if (slowPath || digits > 15 || fractionDigits >= POWERS_OF_TEN.length) {
+            return Double.parseDouble(text.substring(start, position));
+        }
+        double value = mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Skips any JSON value at the cursor.
+     */
+    private void skipValue() {
+        skipWhitespace();
+        char c = peek();
+        if (c == '{' || c == '[') {
+            char close = c == '{' ? '}' : ']';
+            position++;
+            if (consume(close)) {
+                return;
+            }
+            do {
+                if (c == '{') {
+                    stringStart();
+                    skipStringBody();
+                    expect(':');
+                }
+                skipValue();
+            } while (consume(','));
+            expect(close);
+        } else if (isQuote()) {
+            stringStart();
+            skipStringBody();
+        } else {
+            while (position < limit) {
+                char next = text.charAt(position);
+                if (next == ',' || next == '}' || next == ']' || next == ' ' || next == '\n' || next == '\r' || next == '\t') {
+                    break;
+                }
+                if (escaped && next == '\\') {
+                    break;
+                }
+                position++;
+            }
+        }
+    }
+
+    /**
+     * Consumes an opening quote and returns the index of the string body.
+     */
+    private int stringStart() {
+        skipWhitespace();
+        if (!isQuote()) {
+            throw new IllegalArgumentException("Expected a string at " + position);
+        }
+        position += escaped ? 2 : 1;
+        return position;
+    }
+
+    /**
+     * Skips a string body and its closing quote.
+     *
+     * @return The index just past the last character of the body, before the closing quote.
+     */
+    private int skipStringBody() {
+        while (position < limit) {
+            if (isQuote()) {
+                int end = position;
+                position += escaped ? 2 : 1;
+                return end;
+            }
+            if (escaped) {
+                boolean innerEscape = text.charAt(position) == '\\' && position + 1 < limit && text.charAt(position + 1) == '\\';
+                skipOuterUnit();
+                if (innerEscape && position < limit) {
+                    skipOuterUnit();
+                }
+            } else {
+                skipOuterUnit();
+            }
+        }
+        throw new IllegalArgumentException("Unterminated string");
+    }
+
+    /**
+     * Skips one character of the frame text, or one escape sequence.
+     */
+    private void skipOuterUnit() {
+        position += text.charAt(position) == '\\' ? 2 : 1;
+    }
+
+    /**
+     * Returns whether the cursor is at a quote at the current nesting level. In
+     * escaped mode a quote is written as {@code \"}, while an escape inside a
+     * nested string starts with an escaped backslash.
+     */
+    private boolean isQuote() {
+        if (!escaped) {
+            return position < limit && text.charAt(position) == '"';
+        }
+        return position + 1 < limit && text.charAt(position) == '\\' && text.charAt(position + 1) == '"';
+    }
+
+    /**
+     * Compares a raw string body with an ASCII literal without allocating.
+     * Bodies that contain escapes never match.
+     */
+    private boolean matches(int start, int end, String literal) {
+        return end - start == literal.length() && text.regionMatches(start, literal, 0, literal.length());
+    }
+
+    /**
+     * Materializes a string body, resolving JSON escapes.
+     */
+    private String unescape(int start, int end) {
+        int firstEscape = text.indexOf('\\', start);
+        if (firstEscape < 0 || firstEscape >= end) {
+            return text.substring(start, end);
+        }
+        StringBuilder builder = scratch;
+        builder.setLength(0);
+        int i = start;
+        while (i < end) {
+            char c = text.charAt(i++);
+            if (c != '\\' || i >= end) {
+                builder.append(c);
+                continue;
+            }
+            char escape = text.charAt(i++);
+            switch (escape) {
+                case 'n' -> builder.append('\n');
+                case 'r' -> builder.append('\r');
+                case 't' -> builder.append('\t');
+                case 'b' -> builder.append('\b');
+                case 'f' -> builder.append('\f');
+                case 'u' -> {
+                    if (i + 4 > end) {
+                        throw new IllegalArgumentException("Truncated unicode escape");
+                    }
+                    builder.append((char) Integer.parseInt(text, i, i + 4, 16));
+                    i += 4;
+                }
+                default -> builder.append(escape);
+            }
+        }
+        return builder.toString();
+    }
+
+    private void skipWhitespace() {
+        while (position < limit) {
+            char c = text.charAt(position);
+            if (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                position++;
+            } else if (escaped && c == '\\' && position + 1 < limit
+                    && (text.charAt(position + 1) == 'n' || text.charAt(position + 1) == 'r' || text.charAt(position + 1) == 't')) {
+                position += 2;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private char peek() {
+        if (position >= limit) {
+            throw new IllegalArgumentException("Unexpected end of frame");
+        }
+        return text.charAt(position);
+    }
+
+    private boolean consume(char c) {
+        skipWhitespace();
+        if (position < limit && text.charAt(position) == c) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char c) {
+        if (!consume(c)) {
+            throw new IllegalArgumentException("Expected '" + c + "' at " + position);
+        }
+    }
+
+    /**
+     * Events the decoder recognizes by name.
+     */
+    public enum Event {
+        STATS("stats"),
+        CONSOLE_OUTPUT("console output"),
+        STATUS("status"),
+        AUTH_SUCCESS("auth success"),
+        TOKEN_EXPIRING("token expiring"),
+        TOKEN_EXPIRED("token expired"),
+        JWT_ERROR("jwt error"),
+        DAEMON_ERROR("daemon error"),
+        UNKNOWN(null);
+
+        private static final Event[] VALUES = values();
+
+        private final String wireName;
+
+        Event(String wireName) {
+            this.wireName = wireName;
+        }
+
+        private static Event match(String text, int start, int end) {
+            for (Event event : VALUES) {
+                if (event.wireName != null && end - start == event.wireName.length()
+                        && text.regionMatches(start, event.wireName, 0, event.wireName.length())) {
+                    return event;
+                }
+            }
+            return UNKNOWN;
+        }
+    }
+
+    /**
+     * Receives decoded frames. Methods for events a handler does not care about
+     * can be left at their defaults.
+     */
+    public interface Handler {
+
+        /**
+         * Called for a "stats" frame.
+         *
+         * @param memoryBytes      Memory in use.
+         * @param memoryLimitBytes The memory limit.
+         * @param cpuAbsolute      CPU usage in percent.
+         * @param rxBytes          Bytes received.
+         * @param txBytes          Bytes transmitted.
+         * @param state            The server state.
+         * @param diskBytes        Disk usage.
+         */
+        default void onStats(long memoryBytes, long memoryLimitBytes, double cpuAbsolute, long rxBytes, long txBytes, String state, long diskBytes) {
+        }
+
+        /**
+         * Called for a "console output" frame.
+         *
+         * @param line The raw console line.
+         */
+        default void onConsoleOutput(String line) {
+        }
+
+        /**
+         * Called for a "status" frame.
+         *
+         * @param state The new server state.
+         */
+        default void onStatus(String state) {
+        }
+
+        /**
+         * Called for any other recognized event.
+         *
+         * @param event The event.
+         */
+        default void onEvent(Event event) {
+        }
+
+        /**
+         * Called for an event the decoder does not recognize.
+         *
+         * @param event The event name.
+         */
+        default void onOtherEvent(String event) {
+        }
+    }
+}
@@ -0,0 +1,433 @@
+package dev.plytki.pterodactyl.app.net;
+
+import dev.plytki.pterodactyl.app.data.Statistics;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * A per-connection pipeline that moves frame processing off the WebSocket
+ * read thread. Frames pass through three stages:
+ * <ol>
+ *     <li>receive, on the socket thread, which only enqueues the raw frame;</li>
+ *     <li>decode, which turns frames into console lines and statistics and
+ *     publishes them with {@link #publishConsole(String)} and
+ *     {@link #publishStats(Statistics)};</li>
+ *     <li>dispatch, which hands published items to the {@link Dispatcher}.</li>
+ * </ol>
+ * A pipeline owns no threads. Decode and dispatch are each a serial task,
+ * submitted to an executor shared by all pipelines whenever the stage has work
+ * and not already running, and resubmitted after a batch so a busy connection
+ * cannot hold a pool thread. Each stage therefore runs on one thread at a time
+ * and in order, and an idle or parked connection costs nothing.
+ * <p>
+ * Receiving never blocks and never loses a frame. Once the frame queue reaches
+ * its capacity, {@link #receive(String)} tells the receiver to stop reading,
+ * and {@link #whenDrained(Runnable)} tells it when to start again. Statistics
+ * are latest-wins: a new snapshot replaces one that has not been dispatched
+ * yet. Console lines follow the configured {@link OverflowPolicy}.
+ */
+public class FramePipeline implements Closeable {
+
+    private static final int BATCH = 256;
+
+    // Frames, and the actions queued between them by runAfterReceived.
+    private final Queue<Object> frames = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger frameCount = new AtomicInteger();
+    private final AtomicReference<Runnable> drainedAction = new AtomicReference<>();
+    private final int frameCapacity;
+    private final ArrayDeque<String> consoleLines;
+    private final int consoleCapacity;
+    private final OverflowPolicy consoleOverflow;
+    private final Consumer<String> decodeStage;
+    private final Dispatcher dispatcher;
+    private final Executor executor;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicBoolean decodeScheduled = new AtomicBoolean();
+    private final AtomicBoolean dispatchScheduled = new AtomicBoolean();
+    private final AtomicLong droppedConsoleLines = new AtomicLong();
+    private final AtomicLong coalescedStats = new AtomicLong();
+    private Statistics pendingStats;
+    private volatile boolean closed;
+
+    /**
+     * Constructs a FramePipeline running on the executor shared by all pipelines.
+     *
+     * @param frameCapacity   The number of queued frames at which the receiver is told to stop reading.
+     * @param consoleCapacity The capacity of the console dispatch queue.
+     * @param consoleOverflow What to do when the console dispatch queue is full.
+     * @param decodeStage     The decode stage, called once per frame.
+     * @param dispatcher      The dispatch stage.
+     */
+    public FramePipeline(int frameCapacity, int consoleCapacity, OverflowPolicy consoleOverflow,
+                         Consumer<String> decodeStage, Dispatcher dispatcher) {
+        this(frameCapacity, consoleCapacity, consoleOverflow, decodeStage, dispatcher, SharedExecutor.EXECUTOR);
+    }
+
+    /**
+     * Constructs a FramePipeline running its stages on the given executor.
+     *
+     * @param frameCapacity   The number of queued frames at which the receiver is told to stop reading.
+     * @param consoleCapacity The capacity of the console dispatch queue.
+     * @param consoleOverflow What to do when the console dispatch queue is full.
+     * @param decodeStage     The decode stage, called once per frame.
+     * @param dispatcher      The dispatch stage.
+     * @param executor        The executor the stage tasks are submitted to.
+     */
+    public FramePipeline(int frameCapacity, int consoleCapacity, OverflowPolicy consoleOverflow,
+                         Consumer<String> decodeStage, Dispatcher dispatcher, Executor executor) {
+        this.frameCapacity = Math.max(1, frameCapacity);
+        this.consoleCapacity = Math.max(1, consoleCapacity);
+        this.consoleLines = new ArrayDeque<>(Math.min(this.consoleCapacity, 1024));
+        this.consoleOverflow = consoleOverflow;
+        this.decodeStage = decodeStage;
+        this.dispatcher = dispatcher;
+        this.executor = executor;
+    }
+
+    /**
+     * Receives a raw frame without blocking. The frame is always queued; the
+     * result tells the receiver whether to go on reading.
+     *
+     * @param frame The frame text.
+     * @return true if there is room for more frames, false once the queue has
+     * reached its capacity and the receiver should pause until {@link #whenDrained(Runnable)}.
+     */
+    public boolean receive(String frame) {
+        if (closed) {
+            return true;
+        }
+        frames.add(frame);
+        int count = frameCount.incrementAndGet();
+        scheduleDecode();
+        return count < frameCapacity;
+    }
+
+    /**
+     * Queues an action to run on the decode stage once the frames received
+     * before it have been decoded, and before any frame received after it.
+     * Unlike a frame, the action never tells the receiver to stop reading.
+     *
+     * @param action The action.
+     */
+    public void runAfterReceived(Runnable action) {
+        if (closed) {
+            return;
+        }
+        frames.add(action);
+        frameCount.incrementAndGet();
+        scheduleDecode();
+    }
+
+    /**
+     * Runs an action once the frame queue has drained to half its capacity,
+     * on the decode stage, or right away if it already has. Only the action
+     * registered last is kept.
+     *
+     * @param action The action, typically resuming reading from the socket.
+     */
+    public void whenDrained(Runnable action) {
+        drainedAction.set(action);
+        runDrainedAction();
+    }
+
+    /**
+     * Publishes a statistics snapshot for dispatch, replacing any snapshot that
+     * has not been dispatched yet.
+     *
+     * @param statistics The statistics.
+     */
+    public void publishStats(Statistics statistics) {
+        lock.lock();
+        try {
+            if (pendingStats != null) {
+                coalescedStats.incrementAndGet();
+            }
+            pendingStats = statistics;
+        } finally {
+            lock.unlock();
+        }
+        scheduleDispatch();
+    }
+
+    /**
+     * Publishes a console line for dispatch, applying the overflow policy when
+     * the console queue is full. With {@link OverflowPolicy#BLOCK} the line is
+     * always queued, and decoding pauses until the dispatcher has made room.
+     *
+     * @param line The console line.
+     */
+    public void publishConsole(String line) {
+        lock.lock();
+        try {
+            if (consoleOverflow == OverflowPolicy.DROP_OLDEST) {
+                while (consoleLines.size() >= consoleCapacity) {
+                    consoleLines.pollFirst();
+                    droppedConsoleLines.incrementAndGet();
+                }
+            }
+            consoleLines.addLast(line);
+        } finally {
+            lock.unlock();
+        }
+        scheduleDispatch();
+    }
+
+    /**
+     * Returns the number of frames waiting to be decoded.
+     *
+     * @return The frame queue depth.
+     */
+    public int getFrameQueueDepth() {
+        return frameCount.get();
+    }
+
+    /**
+     * Returns the number of console lines waiting to be dispatched.
+     *
+     * @return The console queue depth.
+     */
+    public int getConsoleQueueDepth() {
+        lock.lock();
+        try {
+            return consoleLines.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns whether a statistics snapshot is waiting to be dispatched.
+     *
+     * @return true if a snapshot is pending.
+     */
+    public boolean hasPendingStats() {
+        lock.lock();
+        try {
+            return pendingStats != null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of console lines dropped from the dispatch queue.
+     *
+     * @return The dropped line count.
+     */
+    public long getDroppedConsoleLines() {
+        return droppedConsoleLines.get();
+    }
+
+    /**
+     * Returns the number of statistics snapshots replaced before dispatch.
+     *
+     * @return The coalesced snapshot count.
+     */
+    public long getCoalescedStats() {
+        return coalescedStats.get();
+    }
+
+    /**
+     * Stops both stages. A frame being decoded is finished, but nothing is
+     * decoded or dispatched afterwards. Does not wait for the stage tasks.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        frames.clear();
+        frameCount.set(0);
+        drainedAction.set(null);
+    }
+
+    private void runDrainedAction() {
+        if (frameCount.get() <= frameCapacity / 2) {
+            Runnable action = drainedAction.getAndSet(null);
+            if (action != null) {
+                action.run();
+            }
+        }
+    }
+
+    private void scheduleDecode() {
+        if (!closed && decodeScheduled.compareAndSet(false, true)) {
+            executor.execute(this::runDecodeStage);
+        }
+    }
+
+    private void scheduleDispatch() {
+        if (!closed && dispatchScheduled.compareAndSet(false, true)) {
+            executor.execute(this::runDispatchStage);
+        }
+    }
+
+    /**
+     * Returns whether decoding has to wait for the dispatcher, which is the
+     * case when the console queue is full under {@link OverflowPolicy#BLOCK}.
+     */
+    private boolean isConsoleFull() {
+        if (consoleOverflow != OverflowPolicy.BLOCK) {
+            return false;
+        }
+        lock.lock();
+        try {
+            return consoleLines.size() >= consoleCapacity;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Decodes up to one batch of frames. The task reschedules itself while
+     * frames are left, unless the console queue is full, in which case the
+     * dispatch stage reschedules it once it has made room.
+     */
+    private void runDecodeStage() {
+        for (int i = 0; i < BATCH && !closed && !isConsoleFull(); i++) {
+            Object frame = frames.poll();
+            if (frame == null) {
+                break;
+            }
+            frameCount.decrementAndGet();
+            try {
+                if (frame instanceof Runnable action) {
+                    action.run();
+                } else {
+                    decodeStage.accept((String) frame);
+                }
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+        runDrainedAction();
+        decodeScheduled.set(false);
+        if (!frames.isEmpty() && !isConsoleFull()) {
+            scheduleDecode();
+        }
+    }
+
+    /**
+     * Dispatches up to one batch of items, and reschedules itself while items
+     * are left.
+     */
+    private void runDispatchStage() {
+        for (int i = 0; i < BATCH && !closed; i++) {
+            Statistics statistics;
+            String line;
+            lock.lock();
+            try {
+                statistics = pendingStats;
+                pendingStats = null;
+                line = consoleLines.pollFirst();
+            } finally {
+                lock.unlock();
+            }
+            if (statistics == null && line == null) {
+                break;
+            }
+            try {
+                if (statistics != null) {
+                    dispatcher.dispatchStats(statistics);
+                }
+                if (line != null) {
+                    dispatcher.dispatchConsole(line);
+                }
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+        dispatchScheduled.set(false);
+        boolean pending;
+        lock.lock();
+        try {
+            pending = pendingStats != null || !consoleLines.isEmpty();
+        } finally {
+            lock.unlock();
+        }
+        if (pending) {
+            scheduleDispatch();
+        }
+        if (!frames.isEmpty() && !isConsoleFull()) {
+            scheduleDecode();
+        }
+    }
+
+    /**
+     * What to do with a new console line when the console dispatch queue is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Pause decoding until the dispatcher has made room. No line is lost,
+         * but a slow listener eventually stalls decoding and, through the frame
+         * queue, reading from the socket.
+         */
+        BLOCK,
+        /**
+         * Drop the oldest queued line. Lines are already stored in the console
+         * history by the decode stage, so only the listener notification is lost.
+         */
+        DROP_OLDEST
+    }
+
+    /**
+     * Receives the outputs of the pipeline on the dispatch stage, one item at a
+     * time and in order.
+     */
+    public interface Dispatcher {
+
+        /**
+         * Dispatches a statistics snapshot.
+         *
+         * @param statistics The statistics.
+         */
+        void dispatchStats(Statistics statistics);
+
+        /**
+         * Dispatches a console line.
+         *
+         * @param line The console line.
+         */
+        void dispatchConsole(String line);
+    }
+
+    /**
+     * The executor shared by all pipelines: daemon threads created on demand
+     * and reclaimed when idle. Stage tasks are mostly CPU-bound but may wait:
+     * decoding appends to the console spool, which writes to disk when its
+     * buffer fills and shares a lock with readers, and dispatching runs the
+     * listeners. A waiting task holds its thread until it returns, so there
+     * are twice as many threads as processors, and at least four, for the
+     * other connections to keep moving meanwhile; listeners should hand slow
+     * work off rather than block. A stage that falls behind only fills its
+     * own frame queue and pauses its own socket.
+     */
+    private static final class SharedExecutor {
+
+        private static final ExecutorService EXECUTOR = create();
+
+        private static ExecutorService create() {
+            int threads = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+            AtomicInteger counter = new AtomicInteger();
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "pipeline-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.allowCoreThreadTimeOut(true);
+            return executor;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package dev.plytki.pterodactyl.app.net;
+
+import dev.plytki.pterodactyl.app.data.Options;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the application-wide {@link OkHttpClient}. All HTTP traffic to the
+ * panel goes through this one client, so every caller shares its connection
+ * pool and dispatcher threads: only the first request to a host pays for the
+ * TLS handshake, and over TLS the panel connection negotiates HTTP/2 through
+ * ALPN so concurrent requests are multiplexed on it. Per-client variations
+ * should be derived with {@link OkHttpClient#newBuilder()}, which keeps the
+ * shared pool and dispatcher.
+ */
+public final class HttpClients {
+
+    private static Options options = new Options();
+    private static OkHttpClient shared;
+
+    private HttpClients() {
+    }
+
+    /**
+     * Sets the options used to build the shared client. Should be called once,
+     * before the first request; a client that was already built is replaced.
+     *
+     * @param options The application options.
+     */
+    public static synchronized void configure(Options options) {
+        HttpClients.options = options;
+        shared = null;
+    }
+
+    /**
+     * Returns the shared client, building it on first use.
+     *
+     * @return The shared client.
+     */
+    public static synchronized OkHttpClient shared() {
+        if (shared == null) {
+            shared = build(options);
+        }
+        return shared;
+    }
+
+    private static OkHttpClient build(Options options) {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(options.getHttpMaxRequests());
+        dispatcher.setMaxRequestsPerHost(options.getHttpMaxRequestsPerHost());
+        return new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(options.getHttpMaxIdleConnections(), options.getHttpKeepAliveSeconds(), TimeUnit.SECONDS))
+                .build();
+    }
+}
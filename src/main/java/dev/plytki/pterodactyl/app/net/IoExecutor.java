@@ -0,0 +1,85 @@
+package dev.plytki.pterodactyl.app.net;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The executor all blocking network work runs on. On a runtime with virtual
+ * threads every task gets its own virtual thread, so thousands of concurrent
+ * blocking calls cost no platform threads. On older runtimes it falls back to
+ * a cached pool of daemon platform threads that are reclaimed when idle.
+ * <p>
+ * Work is normally submitted through an {@link IoScope}, which ties it to the
+ * lifetime of a server connection or a window.
+ */
+public final class IoExecutor {
+
+    private static final ExecutorService EXECUTOR;
+    private static final boolean VIRTUAL;
+    private static final IoScope APPLICATION;
+
+    static {
+        ExecutorService virtual = createVirtualExecutor();
+        VIRTUAL = virtual != null;
+        EXECUTOR = virtual != null ? virtual : createPlatformExecutor();
+        APPLICATION = new IoScope("application", EXECUTOR);
+    }
+
+    private IoExecutor() {
+    }
+
+    /**
+     * Returns the scope for work that lives as long as the application.
+     *
+     * @return The application scope.
+     */
+    public static IoScope application() {
+        return APPLICATION;
+    }
+
+    /**
+     * Creates a new scope whose work can be cancelled as a unit.
+     *
+     * @param name The scope name, used in diagnostics.
+     * @return The new scope.
+     */
+    public static IoScope newScope(String name) {
+        return new IoScope(name, EXECUTOR);
+    }
+
+    /**
+     * Returns whether tasks run on virtual threads.
+     *
+     * @return true if virtual threads are in use.
+     */
+    public static boolean isVirtual() {
+        return VIRTUAL;
+    }
+
+    /**
+     * Looks up {@code Executors.newVirtualThreadPerTaskExecutor()} reflectively,
+     * so the application still builds and runs on runtimes without it.
+     */
+    private static ExecutorService createVirtualExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static ExecutorService createPlatformExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 30, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "io-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
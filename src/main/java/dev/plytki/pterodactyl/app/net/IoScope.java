@@ -0,0 +1,151 @@
+package dev.plytki.pterodactyl.app.net;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A group of blocking tasks with a shared lifetime, such as the network work
+ * of one server connection or one window. Closing the scope cancels every task
+ * still pending or running in it, interrupting blocked calls, and rejects new
+ * tasks.
+ */
+public class IoScope implements AutoCloseable {
+
+    private final String name;
+    private final Executor executor;
+    private final Set<CompletableFuture<?>> tasks = ConcurrentHashMap.newKeySet();
+    private volatile boolean closed;
+
+    IoScope(String name, Executor executor) {
+        this.name = name;
+        this.executor = executor;
+    }
+
+    /**
+     * Runs a blocking task in this scope.
+     *
+     * @param task The task.
+     * @param <T>  The result type.
+     * @return A future completed with the task's result or failure, or
+     * cancelled if the scope is closed first. Cancelling it interrupts the task.
+     */
+    public <T> CompletableFuture<T> supply(Callable<T> task) {
+        return submit(task, executor);
+    }
+
+    /**
+     * Runs a blocking task without a result in this scope once the given delay
+     * has passed. Closing the scope while the task is waiting cancels it.
+     *
+     * @param delay The delay.
+     * @param unit  The unit of the delay.
+     * @param task  The task.
+     * @return A future completed when the task finishes.
+     */
+    public CompletableFuture<Void> runAfter(long delay, TimeUnit unit, BlockingRunnable task) {
+        return submit(() -> {
+            task.run();
+            return null;
+        }, CompletableFuture.delayedExecutor(delay, unit, executor));
+    }
+
+    private <T> CompletableFuture<T> submit(Callable<T> task, Executor executor) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        FutureTask<Void> runner = new FutureTask<>(() -> {
+            try {
+                result.complete(task.call());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+            return null;
+        }) {
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    result.cancel(false);
+                }
+            }
+        };
+        tasks.add(result);
+        result.whenComplete((value, failure) -> {
+            tasks.remove(result);
+            if (result.isCancelled()) {
+                runner.cancel(true);
+            }
+        });
+        if (closed) {
+            result.cancel(false);
+            return result;
+        }
+        executor.execute(runner);
+        return result;
+    }
+
+    /**
+     * Runs a blocking task without a result in this scope.
+     *
+     * @param task The task.
+     * @return A future completed when the task finishes.
+     */
+    public CompletableFuture<Void> run(BlockingRunnable task) {
+        return supply(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Returns the number of tasks pending or running in this scope.
+     *
+     * @return The task count.
+     */
+    public int getTaskCount() {
+        return tasks.size();
+    }
+
+    /**
+     * Returns whether the scope has been closed.
+     *
+     * @return true if closed.
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Cancels every task in the scope and rejects new ones.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        // Cancel the results first, so a task that swallows the interrupt
+        // cannot complete them normally afterwards.
+        for (CompletableFuture<?> task : tasks) {
+            task.cancel(false);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "IoScope[" + name + "]";
+    }
+
+    /**
+     * A task that may block and throw.
+     */
+    @FunctionalInterface
+    public interface BlockingRunnable {
+
+        /**
+         * Runs the task.
+         *
+         * @throws Exception If the task fails.
+         */
+        void run() throws Exception;
+    }
+}
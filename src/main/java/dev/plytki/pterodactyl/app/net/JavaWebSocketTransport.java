@@ -0,0 +1,179 @@
+package dev.plytki.pterodactyl.app.net;
+
+import dev.plytki.pterodactyl.app.console.Utf8;
+import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.drafts.Draft_6455;
+import org.java_websocket.exceptions.InvalidDataException;
+import org.java_websocket.extensions.IExtension;
+import org.java_websocket.extensions.permessage_deflate.PerMessageDeflateExtension;
+import org.java_websocket.framing.DataFrame;
+import org.java_websocket.framing.Framedata;
+import org.java_websocket.handshake.ServerHandshake;
+
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * Transport backed by Java-WebSocket, where every connection owns a reader
+ * and a writer thread. Kept as a fallback for {@link NioWebSocketTransport}.
+ * Since the reader thread serves only its own connection, pausing reading
+ * simply holds it in {@code onMessage} until reading is resumed.
+ */
+public class JavaWebSocketTransport implements WebSocketTransport {
+
+    private final boolean compression;
+
+    /**
+     * Constructs a JavaWebSocketTransport.
+     *
+     * @param compression Whether to offer the permessage-deflate extension.
+     */
+    public JavaWebSocketTransport(boolean compression) {
+        this.compression = compression;
+    }
+
+    @Override
+    public Session connect(URI uri, Map<String, String> headers, Listener listener, WebSocketTraffic traffic) {
+        ClientSession session = new ClientSession(uri, headers, listener, traffic, compression);
+        session.connect();
+        return session;
+    }
+
+    @Override
+    public void close() {
+        // Connections are closed individually through their sessions.
+    }
+
+    private static class ClientSession implements Session {
+
+        private final WebSocketClient client;
+        private final WebSocketTraffic traffic;
+        private final Object readGate = new Object();
+        private boolean readPaused;
+        private volatile boolean compressed;
+
+        private ClientSession(URI uri, Map<String, String> headers, Listener listener, WebSocketTraffic traffic, boolean compression) {
+            this.traffic = traffic;
+            Draft_6455 draft = compression ? new Draft_6455(new CountingDeflateExtension(traffic)) : new Draft_6455();
+            this.client = new WebSocketClient(uri, draft, headers) {
+                @Override
+                public void onOpen(ServerHandshake handshake) {
+                    compressed = getConnection().getDraft() instanceof Draft_6455 negotiated
+                            && negotiated.getExtension() instanceof PerMessageDeflateExtension;
+                    traffic.setCompressed(compressed);
+                    listener.onOpen(ClientSession.this);
+                }
+
+                @Override
+                public void onMessage(String message) {
+                    // With compression, the wire bytes are counted by the extension.
+                    int length = Utf8.length(message);
+                    traffic.addReceived(compressed ? 0 : length, length);
+                    listener.onMessage(message);
+                    awaitReading();
+                }
+
+                @Override
+                public void onClose(int code, String reason, boolean remote) {
+                    listener.onClose(code, reason, remote);
+                }
+
+                @Override
+                public void onError(Exception ex) {
+                    listener.onError(ex);
+                }
+            };
+        }
+
+        private void connect() {
+            client.connect();
+        }
+
+        @Override
+        public boolean send(String text) {
+            if (!client.isOpen()) {
+                return false;
+            }
+            int length = Utf8.length(text);
+            traffic.addSent(compressed ? 0 : length, length);
+            client.send(text);
+            return true;
+        }
+
+        @Override
+        public void pauseReading() {
+            synchronized (readGate) {
+                readPaused = true;
+            }
+        }
+
+        @Override
+        public void resumeReading() {
+            synchronized (readGate) {
+                readPaused = false;
+                readGate.notifyAll();
+            }
+        }
+
+        @Override
+        public void close() {
+            resumeReading();
+            client.close();
+        }
+
+        /**
+         * Holds the reader thread while reading is paused.
+         */
+        private void awaitReading() {
+            synchronized (readGate) {
+                while (readPaused) {
+                    try {
+                        readGate.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }
+        }
+
+        @Override
+        public boolean isOpen() {
+            return client.isOpen();
+        }
+    }
+
+    /**
+     * The permessage-deflate extension, counting the compressed size of the
+     * data frames it decodes and encodes.
+     */
+    private static class CountingDeflateExtension extends PerMessageDeflateExtension {
+
+        private final WebSocketTraffic traffic;
+
+        private CountingDeflateExtension(WebSocketTraffic traffic) {
+            this.traffic = traffic;
+        }
+
+        @Override
+        public void decodeFrame(Framedata frame) throws InvalidDataException {
+            if (frame instanceof DataFrame) {
+                traffic.addReceived(frame.getPayloadData().remaining(), 0);
+            }
+            super.decodeFrame(frame);
+        }
+
+        @Override
+        public void encodeFrame(Framedata frame) {
+            super.encodeFrame(frame);
+            if (frame instanceof DataFrame) {
+                traffic.addSent(frame.getPayloadData().remaining(), 0);
+            }
+        }
+
+        @Override
+        public IExtension copyInstance() {
+            return new CountingDeflateExtension(traffic);
+        }
+    }
+}
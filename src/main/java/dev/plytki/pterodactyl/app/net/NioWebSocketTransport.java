@@ -0,0 +1,1032 @@
+package dev.plytki.pterodactyl.app.net;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLParameters;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A WebSocket client transport in which all connections are served by a small
+ * fixed pool of selector threads instead of threads per connection. Each
+ * connection is pinned to one selector thread, which performs the TCP connect,
+ * the TLS handshake through an {@link SSLEngine}, the HTTP upgrade and all
+ * frame reading and writing for it. Messages may be sent from any thread; they
+ * are queued and flushed by the connection's selector thread.
+ * <p>
+ * Only what the Wings console protocol needs is implemented: text messages,
+ * fragmentation, ping/pong and the closing handshake. Binary messages are
+ * ignored. When compression is enabled, the permessage-deflate extension is
+ * offered and, if the server accepts it, messages are compressed in both
+ * directions.
+ */
+public class NioWebSocketTransport implements WebSocketTransport {
+
+    private static final String ACCEPT_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+    private static final int OPCODE_CONTINUATION = 0x0;
+    private static final int OPCODE_TEXT = 0x1;
+    private static final int OPCODE_BINARY = 0x2;
+    private static final int OPCODE_CLOSE = 0x8;
+    private static final int OPCODE_PING = 0x9;
+    private static final int OPCODE_PONG = 0xA;
+    private static final int MAX_HEADER_BYTES = 16 * 1024;
+    private static final int MAX_MESSAGE_BYTES = 16 * 1024 * 1024;
+    private static final long CONNECT_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(15);
+    private static final long CLOSE_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(5);
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+    private static final byte[] DEFLATE_TAIL = {0x00, 0x00, (byte) 0xFF, (byte) 0xFF};
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final Worker[] workers;
+    private final AtomicInteger nextWorker = new AtomicInteger();
+    private final boolean compression;
+
+    /**
+     * Constructs a NioWebSocketTransport and starts its selector threads.
+     *
+     * @param threads     The number of selector threads.
+     * @param compression Whether to offer the permessage-deflate extension.
+     * @throws IllegalStateException If a selector cannot be opened.
+     */
+    public NioWebSocketTransport(int threads, boolean compression) {
+        this.compression = compression;
+        this.workers = new Worker[Math.max(1, threads)];
+        for (int i = 0; i < workers.length; i++) {
+            try {
+                workers[i] = new Worker("websocket-io-" + i);
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to open selector", e);
+            }
+            workers[i].start();
+        }
+    }
+
+    /**
+     * {@inheritDoc} The host name is resolved on the calling thread, so the
+     * selector threads never block on DNS.
+     */
+    @Override
+    public Session connect(URI uri, Map<String, String> headers, Listener listener, WebSocketTraffic traffic) {
+        Worker worker = workers[Math.floorMod(nextWorker.getAndIncrement(), workers.length)];
+        Connection connection = new Connection(worker, uri, headers, listener, traffic, compression);
+        boolean secure = "wss".equalsIgnoreCase(uri.getScheme());
+        InetSocketAddress address = new InetSocketAddress(uri.getHost(), uri.getPort() != -1 ? uri.getPort() : secure ? 443 : 80);
+        worker.execute(() -> connection.start(address, secure));
+        return connection;
+    }
+
+    /**
+     * Returns the number of connections currently registered with the selector threads.
+     *
+     * @return The connection count.
+     */
+    public int getConnectionCount() {
+        int count = 0;
+        for (Worker worker : workers) {
+            count += worker.connectionCount;
+        }
+        return count;
+    }
+
+    @Override
+    public void close() {
+        for (Worker worker : workers) {
+            worker.shutdown();
+        }
+    }
+
+    /**
+     * A selector thread and the connections pinned to it.
+     */
+    private static class Worker extends Thread {
+
+        private final Selector selector;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final Set<Connection> connections = new HashSet<>();
+        private volatile boolean running = true;
+        private volatile int connectionCount;
+
+        private Worker(String name) throws IOException {
+            super(name);
+            setDaemon(true);
+            this.selector = Selector.open();
+        }
+
+        private void execute(Runnable task) {
+            tasks.add(task);
+            selector.wakeup();
+        }
+
+        private void shutdown() {
+            execute(() -> {
+                for (Connection connection : new HashSet<>(connections)) {
+                    connection.terminate(1001, "Transport closed", false);
+                }
+                running = false;
+            });
+        }
+
+        @Override
+        public void run() {
+            long nextDeadlineCheck = System.nanoTime();
+            while (running) {
+                try {
+                    selector.select(1000);
+                } catch (IOException | ClosedSelectorException e) {
+                    e.printStackTrace();
+                    break;
+                }
+                Runnable task;
+                while ((task = tasks.poll()) != null) {
+                    try {
+                        task.run();
+                    } catch (RuntimeException e) {
+                        e.printStackTrace();
+                    }
+                }
+                for (SelectionKey key : selector.selectedKeys()) {
+                    Connection connection = (Connection) key.attachment();
+                    try {
+                        if (key.isConnectable()) {
+                            connection.onConnectable();
+                        }
+                        if (key.isValid() && key.isReadable()) {
+                            connection.onReadable();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            connection.flush();
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        connection.fail(e);
+                    }
+                }
+                selector.selectedKeys().clear();
+
+                long now = System.nanoTime();
+                if (now - nextDeadlineCheck >= 0) {
+                    nextDeadlineCheck = now + TimeUnit.SECONDS.toNanos(1);
+                    for (Connection connection : new HashSet<>(connections)) {
+                        connection.checkDeadline(now);
+                    }
+                }
+            }
+            try {
+                selector.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private enum State {
+        CONNECTING,
+        UPGRADING,
+        OPEN,
+        CLOSING,
+        CLOSED
+    }
+
+    /**
+     * One WebSocket connection. Apart from {@link #send}, {@link #close} and
+     * {@link #isOpen}, every method runs on the owning worker thread.
+     */
+    private static class Connection implements Session {
+
+        private final Worker worker;
+        private final URI uri;
+        private final Map<String, String> headers;
+        private final Listener listener;
+        private final WebSocketTraffic traffic;
+        private final boolean offerCompression;
+        private final Queue<ByteBuffer> outbound = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean flushScheduled = new AtomicBoolean();
+        private volatile State state = State.CONNECTING;
+        private volatile boolean readPaused;
+
+        private SocketChannel channel;
+        private SelectionKey key;
+        private SSLEngine engine;
+        private ByteBuffer netIn;
+        private ByteBuffer netOut;
+        private ByteBuffer appIn;
+        private String secKey;
+        private long deadline;
+        private boolean closeAfterFlush;
+        private int closeCode = 1000;
+        private String closeReason = "";
+        private boolean closeRemote;
+
+        private byte[] fragments;
+        private int fragmentLength;
+        private boolean fragmentedText;
+        private boolean fragmentedCompressed;
+        private int fragmentWire;
+
+        private boolean compressed;
+        private boolean serverNoContextTakeover;
+        private boolean clientNoContextTakeover;
+        private Deflater deflater;
+        private Inflater inflater;
+        private byte[] inflated;
+
+        private Connection(Worker worker, URI uri, Map<String, String> headers, Listener listener,
+                           WebSocketTraffic traffic, boolean offerCompression) {
+            this.worker = worker;
+            this.uri = uri;
+            this.headers = headers;
+            this.listener = listener;
+            this.traffic = traffic;
+            this.offerCompression = offerCompression;
+        }
+
+        @Override
+        public boolean send(String text) {
+            if (state != State.OPEN) {
+                return false;
+            }
+            byte[] payload = text.getBytes(StandardCharsets.UTF_8);
+            if (!compressed) {
+                traffic.addSent(payload.length, payload.length);
+                enqueue(encodeFrame(OPCODE_TEXT, payload, false));
+                return true;
+            }
+            // Compressed frames must be queued in the order the deflater saw them.
+            synchronized (this) {
+                if (deflater == null) {
+                    return false;
+                }
+                byte[] deflated = deflate(payload);
+                traffic.addSent(deflated.length, payload.length);
+                enqueue(encodeFrame(OPCODE_TEXT, deflated, true));
+            }
+            return true;
+        }
+
+        @Override
+        public void pauseReading() {
+            readPaused = true;
+            worker.execute(this::updateInterest);
+        }
+
+        @Override
+        public void resumeReading() {
+            readPaused = false;
+            worker.execute(() -> {
+                if (state != State.OPEN && state != State.CLOSING) {
+                    return;
+                }
+                updateInterest();
+                try {
+                    // Frames that arrived before the pause are still buffered.
+                    processInput();
+                    flush();
+                } catch (IOException | RuntimeException e) {
+                    fail(e);
+                }
+            });
+        }
+
+        @Override
+        public void close() {
+            readPaused = false;
+            worker.execute(() -> {
+                updateInterest();
+                if (state == State.OPEN) {
+                    beginClose(1000, "", false);
+                } else if (state != State.CLOSED && state != State.CLOSING) {
+                    terminate(1000, "", false);
+                }
+            });
+        }
+
+        @Override
+        public boolean isOpen() {
+            return state == State.OPEN;
+        }
+
+        /**
+         * Returns the read interest, which is dropped while reading is paused.
+         */
+        private int readInterest() {
+            return readPaused ? 0 : SelectionKey.OP_READ;
+        }
+
+        private void updateInterest() {
+            if (key != null && key.isValid() && state != State.CONNECTING) {
+                key.interestOps(key.interestOps() & SelectionKey.OP_WRITE | readInterest());
+            }
+        }
+
+        private void enqueue(ByteBuffer frame) {
+            outbound.add(frame);
+            if (flushScheduled.compareAndSet(false, true)) {
+                worker.execute(() -> {
+                    flushScheduled.set(false);
+                    try {
+                        flush();
+                    } catch (IOException | RuntimeException e) {
+                        fail(e);
+                    }
+                });
+            }
+        }
+
+        private void start(InetSocketAddress address, boolean secure) {
+            if (state != State.CONNECTING) {
+                return;
+            }
+            if (address.isUnresolved()) {
+                fail(new UnknownHostException(uri.getHost()));
+                return;
+            }
+            deadline = System.nanoTime() + CONNECT_TIMEOUT_NANOS;
+            try {
+                channel = SocketChannel.open();
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+                key = channel.register(worker.selector, SelectionKey.OP_CONNECT, this);
+                worker.connections.add(this);
+                worker.connectionCount = worker.connections.size();
+                if (secure) {
+                    engine = SSLContext.getDefault().createSSLEngine(uri.getHost(), address.getPort());
+                    engine.setUseClientMode(true);
+                    SSLParameters parameters = engine.getSSLParameters();
+                    parameters.setEndpointIdentificationAlgorithm("HTTPS");
+                    engine.setSSLParameters(parameters);
+                    netIn = ByteBuffer.allocate(engine.getSession().getPacketBufferSize());
+                    netOut = ByteBuffer.allocate(engine.getSession().getPacketBufferSize());
+                    appIn = ByteBuffer.allocate(engine.getSession().getApplicationBufferSize());
+                } else {
+                    netOut = ByteBuffer.allocate(16 * 1024);
+                    appIn = ByteBuffer.allocate(16 * 1024);
+                }
+                netOut.flip();
+                if (channel.connect(address)) {
+                    onConnectable();
+                }
+            } catch (IOException | GeneralSecurityException | RuntimeException e) {
+                fail(e);
+            }
+        }
+
+        private void onConnectable() throws IOException {
+            if (channel.isConnectionPending() && !channel.finishConnect()) {
+                return;
+            }
+            state = State.UPGRADING;
+            key.interestOps(readInterest());
+            if (engine != null) {
+                engine.beginHandshake();
+            }
+            outbound.add(upgradeRequest());
+            flush();
+        }
+
+        private ByteBuffer upgradeRequest() {
+            byte[] nonce = new byte[16];
+            RANDOM.nextBytes(nonce);
+            secKey = Base64.getEncoder().encodeToString(nonce);
+            String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+            if (uri.getRawQuery() != null) {
+                path += "?" + uri.getRawQuery();
+            }
+            StringBuilder request = new StringBuilder()
+                    .append("GET ").append(path).append(" HTTP/1.1\r\n")
+                    .append("Host: ").append(uri.getHost()).append(uri.getPort() != -1 ? ":" + uri.getPort() : "").append("\r\n")
+                    .append("Upgrade: websocket\r\n")
+                    .append("Connection: Upgrade\r\n")
+                    .append("Sec-WebSocket-Key: ").append(secKey).append("\r\n")
+                    .append("Sec-WebSocket-Version: 13\r\n");
+            if (offerCompression) {
+                request.append("Sec-WebSocket-Extensions: permessage-deflate\r\n");
+            }
+            headers.forEach((name, value) -> request.append(name).append(": ").append(value).append("\r\n"));
+            request.append("\r\n");
+            return ByteBuffer.wrap(request.toString().getBytes(StandardCharsets.ISO_8859_1));
+        }
+
+        private void onReadable() throws IOException {
+            int read;
+            if (engine == null) {
+                read = channel.read(appIn);
+            } else {
+                read = channel.read(netIn);
+                unwrap();
+            }
+            if (state == State.CLOSED) {
+                return;
+            }
+            processInput();
+            if (read < 0 && state != State.CLOSED) {
+                if (state == State.CLOSING) {
+                    terminate(closeCode, closeReason, closeRemote);
+                } else {
+                    terminate(1006, "Connection closed", true);
+                }
+                return;
+            }
+            flush();
+        }
+
+        /**
+         * Decrypts everything available in {@code netIn} into {@code appIn},
+         * servicing the TLS handshake along the way.
+         */
+        private void unwrap() throws IOException {
+            netIn.flip();
+            try {
+                while (true) {
+                    SSLEngineResult result = engine.unwrap(netIn, appIn);
+                    switch (result.getStatus()) {
+                        case BUFFER_OVERFLOW -> {
+                            appIn = grow(appIn, appIn.position() + engine.getSession().getApplicationBufferSize());
+                            continue;
+                        }
+                        case BUFFER_UNDERFLOW -> {
+                            if (netIn.limit() == netIn.capacity() && netIn.capacity() < engine.getSession().getPacketBufferSize()) {
+                                netIn.compact();
+                                netIn = grow(netIn, engine.getSession().getPacketBufferSize());
+                                netIn.flip();
+                            }
+                            return;
+                        }
+                        case CLOSED -> {
+                            return;
+                        }
+                        default -> {
+                        }
+                    }
+                    SSLEngineResult.HandshakeStatus handshake = runDelegatedTasks(result.getHandshakeStatus());
+                    if (handshake == SSLEngineResult.HandshakeStatus.NEED_WRAP) {
+                        flush();
+                    }
+                    if (!netIn.hasRemaining() || (result.bytesConsumed() == 0 && result.bytesProduced() == 0
+                            && handshake != SSLEngineResult.HandshakeStatus.NEED_UNWRAP)) {
+                        return;
+                    }
+                }
+            } finally {
+                netIn.compact();
+            }
+        }
+
+        private SSLEngineResult.HandshakeStatus runDelegatedTasks(SSLEngineResult.HandshakeStatus status) {
+            if (status != SSLEngineResult.HandshakeStatus.NEED_TASK) {
+                return status;
+            }
+            Runnable task;
+            while ((task = engine.getDelegatedTask()) != null) {
+                task.run();
+            }
+            return engine.getHandshakeStatus();
+        }
+
+        /**
+         * Writes pending output until the socket would block, wrapping queued
+         * plaintext through TLS when the connection is secure.
+         */
+        private void flush() throws IOException {
+            if (state == State.CLOSED || state == State.CONNECTING) {
+                return;
+            }
+            while (true) {
+                if (netOut.hasRemaining()) {
+                    channel.write(netOut);
+                    if (netOut.hasRemaining()) {
+                        key.interestOps(readInterest() | SelectionKey.OP_WRITE);
+                        return;
+                    }
+                }
+                netOut.clear();
+                boolean produced = engine == null ? fillPlain() : fillTls();
+                netOut.flip();
+                if (!produced) {
+                    break;
+                }
+            }
+            key.interestOps(readInterest());
+            if (closeAfterFlush && outbound.isEmpty()) {
+                terminate(closeCode, closeReason, closeRemote);
+            }
+        }
+
+        private boolean fillPlain() {
+            ByteBuffer source;
+            while ((source = outbound.peek()) != null && netOut.hasRemaining()) {
+                int count = Math.min(source.remaining(), netOut.remaining());
+                netOut.put(netOut.position(), source, source.position(), count);
+                netOut.position(netOut.position() + count);
+                source.position(source.position() + count);
+                if (!source.hasRemaining()) {
+                    outbound.poll();
+                }
+            }
+            return netOut.position() > 0;
+        }
+
+        private boolean fillTls() throws IOException {
+            SSLEngineResult.HandshakeStatus handshake = engine.getHandshakeStatus();
+            ByteBuffer source = outbound.peek();
+            boolean handshaking = handshake != SSLEngineResult.HandshakeStatus.NOT_HANDSHAKING
+                    && handshake != SSLEngineResult.HandshakeStatus.FINISHED;
+            if (handshaking && handshake != SSLEngineResult.HandshakeStatus.NEED_WRAP) {
+                return false;
+            }
+            if (source == null && !handshaking) {
+                return false;
+            }
+            SSLEngineResult result = engine.wrap(source != null ? source : EMPTY, netOut);
+            if (result.getStatus() == SSLEngineResult.Status.BUFFER_OVERFLOW) {
+                netOut = grow(netOut, netOut.capacity() + engine.getSession().getPacketBufferSize());
+                return true;
+            }
+            if (result.getStatus() == SSLEngineResult.Status.CLOSED) {
+                throw new IOException("TLS session closed");
+            }
+            if (source != null && !source.hasRemaining()) {
+                outbound.poll();
+            }
+            runDelegatedTasks(result.getHandshakeStatus());
+            return result.bytesProduced() > 0 || (source != null && result.bytesConsumed() > 0);
+        }
+
+        /**
+         * Consumes decrypted input: first the upgrade response, then frames
+         * until reading is paused.
+         */
+        private void processInput() throws IOException {
+            appIn.flip();
+            try {
+                if (state == State.UPGRADING && !readUpgradeResponse()) {
+                    return;
+                }
+                while ((state == State.OPEN || state == State.CLOSING) && !readPaused) {
+                    if (!readFrame()) {
+                        return;
+                    }
+                }
+            } finally {
+                if (state != State.CLOSED) {
+                    appIn.compact();
+                }
+            }
+        }
+
+        private boolean readUpgradeResponse() throws IOException {
+            int end = -1;
+            for (int i = appIn.position(); i + 3 < appIn.limit(); i++) {
+                if (appIn.get(i) == '\r' && appIn.get(i + 1) == '\n' && appIn.get(i + 2) == '\r' && appIn.get(i + 3) == '\n') {
+                    end = i;
+                    break;
+                }
+            }
+            if (end < 0) {
+                if (appIn.remaining() > MAX_HEADER_BYTES) {
+                    throw new IOException("Upgrade response headers too large");
+                }
+                return false;
+            }
+            String response = new String(appIn.array(), appIn.arrayOffset() + appIn.position(), end - appIn.position(), StandardCharsets.ISO_8859_1);
+            appIn.position(end + 4);
+
+            String[] lines = response.split("\r\n");
+            if (!lines[0].startsWith("HTTP/1.1 101")) {
+                throw new IOException("Upgrade rejected: " + lines[0]);
+            }
+            String accept = null;
+            String extensions = null;
+            for (int i = 1; i < lines.length; i++) {
+                int colon = lines[i].indexOf(':');
+                if (colon <= 0) {
+                    continue;
+                }
+                String name = lines[i].substring(0, colon).trim().toLowerCase(Locale.ROOT);
+                String value = lines[i].substring(colon + 1).trim();
+                switch (name) {
+                    case "sec-websocket-accept" -> accept = value;
+                    case "sec-websocket-extensions" -> extensions = extensions == null ? value : extensions + ", " + value;
+                    default -> {
+                    }
+                }
+            }
+            if (!expectedAccept(secKey).equals(accept)) {
+                throw new IOException("Invalid Sec-WebSocket-Accept");
+            }
+            if (extensions != null && !extensions.isEmpty()) {
+                acceptExtensions(extensions);
+            }
+            traffic.setCompressed(compressed);
+            state = State.OPEN;
+            deadline = 0;
+            listener.onOpen(this);
+            return true;
+        }
+
+        /**
+         * Checks the extensions the server agreed to. Only permessage-deflate
+         * was offered, so anything else fails the connection.
+         *
+         * @param extensions The value of the Sec-WebSocket-Extensions response header.
+         * @throws IOException If the server accepted something that was not offered.
+         */
+        private void acceptExtensions(String extensions) throws IOException {
+            String[] parameters = extensions.split(";");
+            if (!offerCompression || extensions.contains(",")
+                    || !parameters[0].trim().equalsIgnoreCase("permessage-deflate")) {
+                throw new IOException("Unexpected extension: " + extensions);
+            }
+            for (int i = 1; i < parameters.length; i++) {
+                String parameter = parameters[i].trim().toLowerCase(Locale.ROOT);
+                int equals = parameter.indexOf('=');
+                String name = (equals < 0 ? parameter : parameter.substring(0, equals)).trim();
+                switch (name) {
+                    case "server_no_context_takeover" -> serverNoContextTakeover = true;
+                    case "client_no_context_takeover" -> clientNoContextTakeover = true;
+                    // A smaller window is inflated like the full one. The client
+                    // window cannot be limited, as client_max_window_bits is not offered.
+                    case "server_max_window_bits" -> {
+                    }
+                    default -> throw new IOException("Unexpected permessage-deflate parameter: " + parameter);
+                }
+            }
+            synchronized (this) {
+                deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            }
+            compressed = true;
+        }
+
+        /**
+         * Reads one complete frame from {@code appIn}, if available.
+         *
+         * @return true if a frame was consumed.
+         */
+        private boolean readFrame() throws IOException {
+            int start = appIn.position();
+            int available = appIn.remaining();
+            if (available < 2) {
+                return false;
+            }
+            int first = appIn.get(start) & 0xFF;
+            int second = appIn.get(start + 1) & 0xFF;
+            boolean fin = (first & 0x80) != 0;
+            boolean rsv1 = (first & 0x40) != 0;
+            int opcode = first & 0x0F;
+            if ((first & 0x30) != 0 || (rsv1 && (!compressed || (opcode != OPCODE_TEXT && opcode != OPCODE_BINARY)))) {
+                beginClose(1002, "Unexpected reserved bits", false);
+                throw new IOException("Frame with unexpected reserved bits " + Integer.toBinaryString(first >> 4 & 0x7));
+            }
+            boolean masked = (second & 0x80) != 0;
+            long length = second & 0x7F;
+            int header = 2;
+            if (length == 126) {
+                if (available < 4) return false;
+                length = appIn.getShort(start + 2) & 0xFFFF;
+                header = 4;
+            } else if (length == 127) {
+                if (available < 10) return false;
+                length = appIn.getLong(start + 2);
+                header = 10;
+            }
+            if (masked) {
+                header += 4;
+            }
+            if (length < 0 || length > MAX_MESSAGE_BYTES) {
+                beginClose(1009, "Message too big", false);
+                throw new IOException("Frame of " + length + " bytes exceeds the limit");
+            }
+            if (available < header + length) {
+                if (appIn.capacity() < header + length) {
+                    appIn.compact();
+                    appIn = grow(appIn, (int) (header + length));
+                    appIn.flip();
+                }
+                return false;
+            }
+
+            int payload = start + header;
+            int payloadLength = (int) length;
+            if (masked) {
+                for (int i = 0; i < payloadLength; i++) {
+                    appIn.put(payload + i, (byte) (appIn.get(payload + i) ^ appIn.get(payload - 4 + (i & 3))));
+                }
+            }
+            appIn.position(payload + payloadLength);
+            handleFrame(fin, rsv1, opcode, appIn.array(), appIn.arrayOffset() + payload, payloadLength);
+            return true;
+        }
+
+        private void handleFrame(boolean fin, boolean rsv1, int opcode, byte[] data, int offset, int length) throws IOException {
+            switch (opcode) {
+                case OPCODE_TEXT, OPCODE_BINARY -> {
+                    if (fin) {
+                        deliver(opcode == OPCODE_TEXT, rsv1, data, offset, length, length);
+                    } else {
+                        fragmentedText = opcode == OPCODE_TEXT;
+                        fragmentedCompressed = rsv1;
+                        fragmentLength = 0;
+                        fragmentWire = 0;
+                        appendFragment(data, offset, length);
+                    }
+                }
+                case OPCODE_CONTINUATION -> {
+                    appendFragment(data, offset, length);
+                    if (fin) {
+                        deliver(fragmentedText, fragmentedCompressed, fragments, 0, fragmentLength, fragmentWire);
+                        fragmentLength = 0;
+                        if (fragments.length > 64 * 1024) {
+                            fragments = null;
+                        }
+                    }
+                }
+                case OPCODE_PING -> {
+                    byte[] payload = new byte[length];
+                    System.arraycopy(data, offset, payload, 0, length);
+                    outbound.add(encodeFrame(OPCODE_PONG, payload, false));
+                }
+                case OPCODE_PONG -> {
+                }
+                case OPCODE_CLOSE -> {
+                    int code = length >= 2 ? ((data[offset] & 0xFF) << 8) | (data[offset + 1] & 0xFF) : 1005;
+                    String reason = length > 2 ? new String(data, offset + 2, length - 2, StandardCharsets.UTF_8) : "";
+                    if (state == State.CLOSING) {
+                        terminate(closeCode, closeReason, closeRemote);
+                    } else {
+                        closeAfterFlush = true;
+                        beginClose(code == 1005 ? 1000 : code, reason, true);
+                    }
+                }
+                default -> throw new IOException("Unknown opcode " + opcode);
+            }
+        }
+
+        private void appendFragment(byte[] data, int offset, int length) throws IOException {
+            if (fragments == null) {
+                fragments = new byte[Math.max(1024, length)];
+            }
+            if (fragmentLength + length > MAX_MESSAGE_BYTES) {
+                throw new IOException("Fragmented message exceeds the limit");
+            }
+            if (fragmentLength + length > fragments.length) {
+                byte[] grown = new byte[Math.max(fragments.length * 2, fragmentLength + length)];
+                System.arraycopy(fragments, 0, grown, 0, fragmentLength);
+                fragments = grown;
+            }
+            System.arraycopy(data, offset, fragments, fragmentLength, length);
+            fragmentLength += length;
+            fragmentWire += length;
+        }
+
+        /**
+         * Counts a complete message and passes it to the listener if it is
+         * text, inflating it first if it was compressed.
+         *
+         * @param text       Whether the message is text.
+         * @param deflated   Whether the message was compressed.
+         * @param data       The buffer holding the message as received.
+         * @param offset     The offset of the message in the buffer.
+         * @param length     The length of the message as received.
+         * @param wireLength The payload bytes of all frames of the message.
+         * @throws IOException If the message cannot be inflated or is too big.
+         */
+        private void deliver(boolean text, boolean deflated, byte[] data, int offset, int length, int wireLength) throws IOException {
+            if (deflated) {
+                int inflatedLength = inflate(data, offset, length);
+                traffic.addReceived(wireLength, inflatedLength);
+                if (text) {
+                    listener.onMessage(new String(inflated, 0, inflatedLength, StandardCharsets.UTF_8));
+                }
+                if (inflated.length > 64 * 1024) {
+                    inflated = null;
+                }
+            } else {
+                traffic.addReceived(wireLength, length);
+                if (text) {
+                    listener.onMessage(new String(data, offset, length, StandardCharsets.UTF_8));
+                }
+            }
+        }
+
+        /**
+         * Inflates one compressed message into {@code inflated}, restoring the
+         * empty stored block the sender stripped from its end.
+         *
+         * @return The inflated length.
+         */
+        private int inflate(byte[] data, int offset, int length) throws IOException {
+            if (inflater == null) {
+                inflater = new Inflater(true);
+            }
+            if (inflated == null) {
+                inflated = new byte[Math.max(1024, Math.min(length * 4, 64 * 1024))];
+            }
+            int total;
+            try {
+                inflater.setInput(data, offset, length);
+                total = drainInflater(0);
+                inflater.setInput(DEFLATE_TAIL);
+                total = drainInflater(total);
+            } catch (DataFormatException e) {
+                throw new IOException("Invalid compressed message", e);
+            }
+            if (serverNoContextTakeover || inflater.finished()) {
+                inflater.reset();
+            }
+            return total;
+        }
+
+        /**
+         * Compresses one outgoing message, leaving off the empty stored block
+         * that ends every flushed message. Must be called while holding the
+         * lock of this connection.
+         */
+        private byte[] deflate(byte[] payload) {
+            deflater.setInput(payload);
+            byte[] buffer = new byte[payload.length + 64];
+            int length = 0;
+            while (true) {
+                length += deflater.deflate(buffer, length, buffer.length - length, Deflater.SYNC_FLUSH);
+                if (length < buffer.length) {
+                    break;
+                }
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            if (clientNoContextTakeover) {
+                deflater.reset();
+            }
+            return Arrays.copyOf(buffer, Math.max(1, length - DEFLATE_TAIL.length));
+        }
+
+        private int drainInflater(int total) throws DataFormatException, IOException {
+            while (true) {
+                if (total == inflated.length) {
+                    if (total >= MAX_MESSAGE_BYTES) {
+                        beginClose(1009, "Message too big", false);
+                        throw new IOException("Inflated message exceeds the limit");
+                    }
+                    byte[] grown = new byte[Math.min(MAX_MESSAGE_BYTES, inflated.length * 2)];
+                    System.arraycopy(inflated, 0, grown, 0, total);
+                    inflated = grown;
+                }
+                int count = inflater.inflate(inflated, total, inflated.length - total);
+                total += count;
+                if (count == 0) {
+                    if (inflater.needsInput() || inflater.finished()) {
+                        return total;
+                    }
+                    if (total < inflated.length) {
+                        throw new DataFormatException("Inflater stalled");
+                    }
+                }
+            }
+        }
+
+        /**
+         * Sends a close frame and waits for the peer to complete the handshake.
+         */
+        private void beginClose(int code, String reason, boolean remote) {
+            state = State.CLOSING;
+            closeCode = code;
+            closeReason = reason;
+            closeRemote = remote;
+            deadline = System.nanoTime() + CLOSE_TIMEOUT_NANOS;
+            byte[] reasonBytes = reason.getBytes(StandardCharsets.UTF_8);
+            byte[] payload = new byte[2 + Math.min(reasonBytes.length, 123)];
+            payload[0] = (byte) (code >> 8);
+            payload[1] = (byte) code;
+            System.arraycopy(reasonBytes, 0, payload, 2, payload.length - 2);
+            outbound.add(encodeFrame(OPCODE_CLOSE, payload, false));
+            try {
+                flush();
+            } catch (IOException e) {
+                terminate(code, reason, remote);
+            }
+        }
+
+        private void checkDeadline(long now) {
+            if (deadline != 0 && now - deadline > 0) {
+                if (state == State.CLOSING) {
+                    terminate(closeCode, closeReason, closeRemote);
+                } else if (state != State.CLOSED) {
+                    fail(new IOException("Connection timed out"));
+                }
+            }
+        }
+
+        private void fail(Exception e) {
+            if (state == State.CLOSED) {
+                return;
+            }
+            release();
+            listener.onError(e);
+            listener.onClose(1006, e.getMessage() == null ? e.toString() : e.getMessage(), true);
+        }
+
+        private void terminate(int code, String reason, boolean remote) {
+            if (state == State.CLOSED) {
+                return;
+            }
+            release();
+            listener.onClose(code, reason, remote);
+        }
+
+        private void release() {
+            state = State.CLOSED;
+            worker.connections.remove(this);
+            worker.connectionCount = worker.connections.size();
+            outbound.clear();
+            if (inflater != null) {
+                inflater.end();
+            }
+            synchronized (this) {
+                if (deflater != null) {
+                    deflater.end();
+                    deflater = null;
+                }
+            }
+            if (key != null) {
+                try {
+                    key.cancel();
+                } catch (CancelledKeyException ignored) {
+                }
+            }
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+
+        private static ByteBuffer grow(ByteBuffer buffer, int capacity) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(capacity, buffer.capacity()));
+            buffer.flip();
+            grown.put(buffer);
+            return grown;
+        }
+
+        private static String expectedAccept(String key) {
+            try {
+                MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+                byte[] digest = sha1.digest((key + ACCEPT_GUID).getBytes(StandardCharsets.ISO_8859_1));
+                return Base64.getEncoder().encodeToString(digest);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * Encodes a masked client frame, marking it compressed if {@code deflated} is set.
+         */
+        private static ByteBuffer encodeFrame(int opcode, byte[] payload, boolean deflated) {
+            int length = payload.length;
+            int header = 2 + (length < 126 ? 0 : length <= 0xFFFF ? 2 : 8) + 4;
+            ByteBuffer frame = ByteBuffer.allocate(header + length);
+            frame.put((byte) (0x80 | (deflated ? 0x40 : 0) | opcode));
+            if (length < 126) {
+                frame.put((byte) (0x80 | length));
+            } else if (length <= 0xFFFF) {
+                frame.put((byte) (0x80 | 126));
+                frame.putShort((short) length);
+            } else {
+                frame.put((byte) (0x80 | 127));
+                frame.putLong(length);
+            }
+            byte[] mask = new byte[4];
+            RANDOM.nextBytes(mask);
+            frame.put(mask);
+            for (int i = 0; i < length; i++) {
+                frame.put((byte) (payload[i] ^ mask[i & 3]));
+            }
+            frame.flip();
+            return frame;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package dev.plytki.pterodactyl.app.net;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Byte counters for the messages of one logical connection, kept across
+ * reconnects. "Wire" bytes are the message payloads as they travel over the
+ * socket, compressed when permessage-deflate is in use; "payload" bytes are
+ * the same messages uncompressed. Frame headers, control frames and TLS
+ * overhead are not counted.
+ */
+public final class WebSocketTraffic {
+
+    private final AtomicLong wireReceived = new AtomicLong();
+    private final AtomicLong payloadReceived = new AtomicLong();
+    private final AtomicLong wireSent = new AtomicLong();
+    private final AtomicLong payloadSent = new AtomicLong();
+    private volatile boolean compressed;
+
+    /**
+     * Records a received message.
+     *
+     * @param wireBytes    The bytes received for it.
+     * @param payloadBytes Its uncompressed size.
+     */
+    public void addReceived(long wireBytes, long payloadBytes) {
+        wireReceived.addAndGet(wireBytes);
+        payloadReceived.addAndGet(payloadBytes);
+    }
+
+    /**
+     * Records a sent message.
+     *
+     * @param wireBytes    The bytes sent for it.
+     * @param payloadBytes Its uncompressed size.
+     */
+    public void addSent(long wireBytes, long payloadBytes) {
+        wireSent.addAndGet(wireBytes);
+        payloadSent.addAndGet(payloadBytes);
+    }
+
+    /**
+     * Records whether the current socket negotiated compression.
+     *
+     * @param compressed true if permessage-deflate is in use.
+     */
+    public void setCompressed(boolean compressed) {
+        this.compressed = compressed;
+    }
+
+    /**
+     * Returns whether the current socket negotiated compression.
+     *
+     * @return true if permessage-deflate is in use.
+     */
+    public boolean isCompressed() {
+        return compressed;
+    }
+
+    /**
+     * Returns the bytes received on the wire, compressed when compression is
+     * in use.
+     *
+     * @return The received wire bytes.
+     */
+    public long getWireReceived() {
+        return wireReceived.get();
+    }
+
+    /**
+     * Returns the uncompressed size of the messages received.
+     *
+     * @return The received payload bytes.
+     */
+    public long getPayloadReceived() {
+        return payloadReceived.get();
+    }
+
+    /**
+     * Returns the bytes sent on the wire, compressed when compression is in
+     * use.
+     *
+     * @return The sent wire bytes.
+     */
+    public long getWireSent() {
+        return wireSent.get();
+    }
+
+    /**
+     * Returns the uncompressed size of the messages sent.
+     *
+     * @return The sent payload bytes.
+     */
+    public long getPayloadSent() {
+        return payloadSent.get();
+    }
+
+    /**
+     * Returns a one-line summary of the received traffic, for display.
+     *
+     * @return The summary.
+     */
+    public String getSummary() {
+        long wire = getWireReceived();
+        long payload = getPayloadReceived();
+        String ratio = payload > 0 ? String.format(" (%.0f%%)", wire * 100.0 / payload) : "";
+        return String.format("Received %,d B for %,d B of messages%s, compression %s",
+                wire, payload, ratio, compressed ? "on" : "off");
+    }
+}
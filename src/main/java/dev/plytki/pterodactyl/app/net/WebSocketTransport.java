@@ -0,0 +1,125 @@
+package dev.plytki.pterodactyl.app.net;
+
+import java.io.Closeable;
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * Opens WebSocket connections. Implementations decide how sockets are served
+ * by threads: {@link NioWebSocketTransport} multiplexes all connections over a
+ * small fixed pool of selector threads, while {@link JavaWebSocketTransport}
+ * gives every connection its own reader and writer threads.
+ * <p>
+ * Listener callbacks run on transport threads. They should hand work off
+ * rather than block, since on a multiplexed transport a blocked callback
+ * stalls every connection served by the same thread. A listener that cannot
+ * keep up pauses reading on its session instead, which slows down only that
+ * connection, through TCP flow control.
+ * <p>
+ * When enabled, transports offer the permessage-deflate extension and use it
+ * if the server accepts it.
+ */
+public interface WebSocketTransport extends Closeable {
+
+    /**
+     * Starts connecting to the given URI. The connection is reported through
+     * the listener once it is open or has failed.
+     *
+     * @param uri      The ws:// or wss:// URI.
+     * @param headers  Extra headers for the upgrade request.
+     * @param listener The listener receiving connection events.
+     * @param traffic  The counters the connection's messages are added to.
+     * @return The session, usable for sending once the listener has been told it is open.
+     */
+    Session connect(URI uri, Map<String, String> headers, Listener listener, WebSocketTraffic traffic);
+
+    /**
+     * Closes the transport and every connection it still serves.
+     */
+    @Override
+    void close();
+
+    /**
+     * The available transport implementations.
+     */
+    enum Type {
+        NIO,
+        JAVA_WEBSOCKET
+    }
+
+    /**
+     * A single WebSocket connection.
+     */
+    interface Session {
+
+        /**
+         * Queues a text message. Safe to call from any thread.
+         *
+         * @param text The message.
+         * @return true if the message was queued, false if the session is not open.
+         */
+        boolean send(String text);
+
+        /**
+         * Stops delivering messages until {@link #resumeReading()}. Data the
+         * peer sends in the meantime stays in the socket buffers. Safe to call
+         * from any thread, including from {@link Listener#onMessage}.
+         */
+        void pauseReading();
+
+        /**
+         * Resumes delivering messages after {@link #pauseReading()}. Safe to
+         * call from any thread.
+         */
+        void resumeReading();
+
+        /**
+         * Starts the closing handshake, or aborts a connection that is not open
+         * yet. Reading is resumed, so the handshake can complete.
+         */
+        void close();
+
+        /**
+         * Returns whether the session is open for sending.
+         *
+         * @return true if the session is open.
+         */
+        boolean isOpen();
+    }
+
+    /**
+     * Receives connection events.
+     */
+    interface Listener {
+
+        /**
+         * Called once the upgrade has completed.
+         *
+         * @param session The session that opened.
+         */
+        void onOpen(Session session);
+
+        /**
+         * Called for every text message.
+         *
+         * @param message The message.
+         */
+        void onMessage(String message);
+
+        /**
+         * Called once when the connection has closed, for whatever reason.
+         *
+         * @param code   The close code; 1006 if the connection was lost without a close frame.
+         * @param reason The close reason.
+         * @param remote Whether the close was initiated by the remote side.
+         */
+        void onClose(int code, String reason, boolean remote);
+
+        /**
+         * Called when the connection fails. {@link #onClose} follows.
+         *
+         * @param e The failure.
+         */
+        void onError(Exception e);
+    }
+}
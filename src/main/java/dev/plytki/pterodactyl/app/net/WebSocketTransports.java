@@ -0,0 +1,46 @@
+package dev.plytki.pterodactyl.app.net;
+
+import dev.plytki.pterodactyl.app.data.Options;
+
+/**
+ * Holds the application-wide {@link WebSocketTransport}, so every server
+ * connection is served by the same transport threads.
+ */
+public final class WebSocketTransports {
+
+    private static Options options = new Options();
+    private static WebSocketTransport shared;
+
+    private WebSocketTransports() {
+    }
+
+    /**
+     * Sets the options used to create the shared transport. Should be called
+     * once, before the first connection; a transport that was already created
+     * is closed and replaced.
+     *
+     * @param options The application options.
+     */
+    public static synchronized void configure(Options options) {
+        WebSocketTransports.options = options;
+        if (shared != null) {
+            shared.close();
+            shared = null;
+        }
+    }
+
+    /**
+     * Returns the shared transport, creating it on first use.
+     *
+     * @return The shared transport.
+     */
+    public static synchronized WebSocketTransport shared() {
+        if (shared == null) {
+            shared = switch (options.getWebSocketTransport()) {
+                case NIO -> new NioWebSocketTransport(options.getWebSocketIoThreads(), options.isWebSocketCompression());
+                case JAVA_WEBSOCKET -> new JavaWebSocketTransport(options.isWebSocketCompression());
+            };
+        }
+        return shared;
+    }
+}
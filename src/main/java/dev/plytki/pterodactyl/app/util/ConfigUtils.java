@@ -1,5 +1,7 @@
 package dev.plytki.pterodactyl.app.util;
 
+import dev.plytki.pterodactyl.app.net.HttpClients;
+import dev.plytki.pterodactyl.app.net.IoExecutor;
 import okhttp3.*;
 import javax.swing.*;
 import java.awt.*;
@@ -9,6 +11,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Utility class for handling configuration-related tasks, such as loading and saving properties,
@@ -99,8 +102,50 @@ public class ConfigUtils {
         if (apiKey == null || apiKey.isEmpty() || hostname == null || hostname.isEmpty()) {
             return false;
         }
+        if (!SwingUtilities.isEventDispatchThread()) {
+            return requestApiKeyValidation(apiKey, hostname, useSsl);
+        }
+
+        // Run the request on the IO executor and keep pumping events meanwhile,
+        // so the EDT keeps painting while the caller waits for the answer.
+        SecondaryLoop loop = Toolkit.getDefaultToolkit().getSystemEventQueue().createSecondaryLoop();
+        CompletableFuture<Boolean> valid = IoExecutor.application().supply(() -> requestApiKeyValidation(apiKey, hostname, useSsl));
+        valid.whenComplete((result, e) -> loop.exit());
+        if (!valid.isDone()) {
+            loop.enter();
+        }
+        return valid.getNow(false);
+    }
+
+    /**
+     * Makes the validation request on the calling thread.
+     *
+     * @param apiKey The API key to validate.
+     * @param hostname The hostname of the server.
+     * @param useSsl Whether to use SSL for the request.
+     * @return true if the API key is valid, false otherwise.
+     */
+    private static boolean requestApiKeyValidation(String apiKey, String hostname, boolean useSsl) {
+        try {
+            return checkApiKey(apiKey, hostname, useSsl);
+        } catch (IOException e) {
+            return false;
+        }
+    }
 
-        OkHttpClient client = new OkHttpClient().newBuilder().build();
+    /**
+     * Asks the panel whether it accepts the API key, on the calling thread.
+     * Unlike {@link #isApiKeyValid}, a panel that cannot be reached is
+     * reported as an error rather than as a rejected key.
+     *
+     * @param apiKey The API key to validate.
+     * @param hostname The hostname of the server.
+     * @param useSsl Whether to use SSL for the request.
+     * @return true if the key is accepted, false if the panel rejects it.
+     * @throws IOException If the request fails or the panel answers with an error other than a rejection.
+     */
+    public static boolean checkApiKey(String apiKey, String hostname, boolean useSsl) throws IOException {
+        OkHttpClient client = HttpClients.shared();
         String protocol = useSsl ? "https://" : "http://";
         Request request = new Request.Builder()
                 .url(protocol + hostname + "/api/client/account")
@@ -111,9 +156,11 @@ public class ConfigUtils {
                 .build();
 
         try (Response response = client.newCall(request).execute()) {
-            return response.code() == 200;
-        } catch (IOException e) {
-            return false;
+            return switch (response.code()) {
+                case 200 -> true;
+                case 401, 403 -> false;
+                default -> throw new IOException("HTTP " + response.code());
+            };
         }
     }
 
@@ -0,0 +1,80 @@
+package dev.plytki.pterodactyl.app.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Records when each startup phase completed, measured from JVM start. Every
+ * phase is recorded and reported once; later marks of the same phase are
+ * ignored.
+ */
+public class StartupMetrics {
+
+    private static final Map<Phase, Long> marks = new EnumMap<>(Phase.class);
+
+    /**
+     * Marks the given phase as complete, if it has not been marked before.
+     *
+     * @param phase The phase.
+     */
+    public static void mark(Phase phase) {
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        synchronized (marks) {
+            if (marks.putIfAbsent(phase, uptime) != null) {
+                return;
+            }
+        }
+        System.out.println("Startup: " + phase.getDescription() + " after " + uptime + " ms");
+    }
+
+    /**
+     * Returns the time the given phase completed.
+     *
+     * @param phase The phase.
+     * @return Milliseconds since JVM start, or -1 if the phase has not completed.
+     */
+    public static long getMark(Phase phase) {
+        synchronized (marks) {
+            return marks.getOrDefault(phase, -1L);
+        }
+    }
+
+    /**
+     * Returns every phase completed so far.
+     *
+     * @return The completion times in milliseconds since JVM start, by phase.
+     */
+    public static Map<Phase, Long> getMarks() {
+        synchronized (marks) {
+            return Collections.unmodifiableMap(new EnumMap<>(marks));
+        }
+    }
+
+    /**
+     * The recorded startup phases.
+     */
+    public enum Phase {
+        FIRST_PAINT("first paint"),
+        API_KEY_VALIDATED("API key validated"),
+        USER_INFO_LOADED("user info loaded"),
+        SERVER_LIST_LOADED("server list loaded"),
+        SERVERS_DISPLAYED("all servers displayed");
+
+        private final String description;
+
+        Phase(String description) {
+            this.description = description;
+        }
+
+        /**
+         * Returns the human-readable description of the phase.
+         *
+         * @return The description.
+         */
+        public String getDescription() {
+            return description;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package dev.plytki.pterodactyl.app.util;
+
+import dev.plytki.pterodactyl.app.listener.Subscription;
+
+import javax.swing.*;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Central, frame-rate-capped refresh loop for the UI. Producers publish into
+ * latest-value slots (typically a volatile field read through a
+ * {@link Supplier}); on every tick the refresher reads each bound slot on the
+ * EDT and pushes the value to its component only if it changed since the last
+ * push. EDT work is therefore bounded by the tick rate and the number of
+ * bindings, not by how often producers publish.
+ */
+public class UiRefresher {
+
+    public static final int DEFAULT_RATE = 10;
+
+    private static final UiRefresher SHARED = new UiRefresher(DEFAULT_RATE);
+
+    private final List<Binding<?>> bindings = new CopyOnWriteArrayList<>();
+    private final Timer timer;
+
+    /**
+     * Constructs a UiRefresher ticking at the given rate. The refresher starts
+     * with its first binding.
+     *
+     * @param rate The number of ticks per second.
+     */
+    public UiRefresher(int rate) {
+        this.timer = new Timer(delayFor(rate), e -> tick());
+        timer.setCoalesce(true);
+    }
+
+    /**
+     * Returns the refresher shared by all windows of the application.
+     *
+     * @return The shared refresher.
+     */
+    public static UiRefresher shared() {
+        return SHARED;
+    }
+
+    /**
+     * Sets the number of ticks per second.
+     *
+     * @param rate The number of ticks per second.
+     */
+    public void setRate(int rate) {
+        int delay = delayFor(rate);
+        timer.setDelay(delay);
+        timer.setInitialDelay(delay);
+    }
+
+    /**
+     * Binds a latest-value slot to a component update. The update runs on the
+     * EDT on the first tick after the slot's value differs from its value at
+     * bind time, as determined by {@link Objects#equals(Object, Object)}. The
+     * caller initializes the component from the current value itself.
+     *
+     * @param slot   Reads the latest value; called on the EDT, so it must be cheap and thread-safe.
+     * @param update Applies a value to the component; called on the EDT.
+     * @param <T>    The value type.
+     * @return The binding, which must be unsubscribed when the component goes away.
+     */
+    public <T> Binding<T> bind(Supplier<T> slot, Consumer<T> update) {
+        Binding<T> binding = new Binding<>(this, slot, update);
+        bindings.add(binding);
+        if (!timer.isRunning()) {
+            SwingUtilities.invokeLater(() -> {
+                if (!bindings.isEmpty() && !timer.isRunning()) {
+                    timer.start();
+                }
+            });
+        }
+        return binding;
+    }
+
+    /**
+     * Returns the number of active bindings.
+     *
+     * @return The binding count.
+     */
+    public int getBindingCount() {
+        return bindings.size();
+    }
+
+    private void tick() {
+        for (Binding<?> binding : bindings) {
+            try {
+                binding.push();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+        if (bindings.isEmpty()) {
+            timer.stop();
+        }
+    }
+
+    private static int delayFor(int rate) {
+        return 1000 / Math.max(1, Math.min(rate, 1000));
+    }
+
+    /**
+     * A slot bound to a component update.
+     *
+     * @param <T> The value type.
+     */
+    public static class Binding<T> implements Subscription {
+
+        private final UiRefresher refresher;
+        private final Supplier<T> slot;
+        private final Consumer<T> update;
+        private T lastValue;
+
+        private Binding(UiRefresher refresher, Supplier<T> slot, Consumer<T> update) {
+            this.refresher = refresher;
+            this.slot = slot;
+            this.update = update;
+            this.lastValue = slot.get();
+        }
+
+        /**
+         * Stops pushing values to the component.
+         */
+        @Override
+        public void unsubscribe() {
+            refresher.bindings.remove(this);
+        }
+
+        private void push() {
+            T value = slot.get();
+            if (Objects.equals(value, lastValue)) {
+                return;
+            }
+            lastValue = value;
+            update.accept(value);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package dev.plytki.pterodactyl.app;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TokenManagerTest {
+
+    private static final long LEAD_MILLIS = 90_000;
+
+    @Test
+    void lifetimeIgnoresTheLocalClock() {
+        // Issued and expired a year ago by the local clock; only exp - iat counts.
+        long issuedAt = System.currentTimeMillis() / 1000 - 365L * 24 * 3600;
+        String token = token("{\"iat\":" + issuedAt + ",\"exp\":" + (issuedAt + 600) + "}");
+        assertEquals(600_000, TokenManager.decodeLifetime(token));
+    }
+
+    @Test
+    void unreadableTokenHasNoLifetime() {
+        assertEquals(0, TokenManager.decodeLifetime("not-a-jwt"));
+        assertEquals(0, TokenManager.decodeLifetime(token("{\"iat\":1}")));
+        assertEquals(0, TokenManager.decodeLifetime(token("[]")));
+    }
+
+    @Test
+    void delayIsMeasuredFromTheFetch() {
+        long fetched = System.nanoTime();
+        TokenManager.Credentials credentials = new TokenManager.Credentials("token", "wss://node", 600_000, fetched);
+        assertEquals(510_000, TokenManager.refreshDelay(credentials, LEAD_MILLIS, fetched));
+        assertEquals(450_000, TokenManager.refreshDelay(credentials, LEAD_MILLIS, fetched + TimeUnit.SECONDS.toNanos(60)));
+    }
+
+    @Test
+    void delayNeverDropsBelowTheFloor() {
+        long fetched = System.nanoTime();
+        TokenManager.Credentials expired = new TokenManager.Credentials("token", "wss://node", 600_000, fetched);
+        TokenManager.Credentials shortLived = new TokenManager.Credentials("token", "wss://node", 1_000, fetched);
+        assertEquals(TokenManager.MIN_REFRESH_DELAY_MILLIS,
+                TokenManager.refreshDelay(expired, LEAD_MILLIS, fetched + TimeUnit.HOURS.toNanos(1)));
+        assertEquals(TokenManager.MIN_REFRESH_DELAY_MILLIS, TokenManager.refreshDelay(shortLived, LEAD_MILLIS, fetched));
+    }
+
+    @Test
+    void retriesBackOffUpToTheCap() {
+        assertEquals(5_000, TokenManager.retryDelay(1));
+        assertEquals(10_000, TokenManager.retryDelay(2));
+        assertEquals(160_000, TokenManager.retryDelay(6));
+        assertEquals(TokenManager.MAX_RETRY_DELAY_MILLIS, TokenManager.retryDelay(7));
+        assertEquals(TokenManager.MAX_RETRY_DELAY_MILLIS, TokenManager.retryDelay(1000));
+    }
+
+    private static String token(String payload) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString("{\"alg\":\"HS256\"}".getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + ".signature";
+    }
+}
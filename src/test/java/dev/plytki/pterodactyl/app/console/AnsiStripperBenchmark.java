@@ -0,0 +1,60 @@
+package dev.plytki.pterodactyl.app.console;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares {@link AnsiStripper} with the two regular expressions it replaced,
+ * on a mix of coloured and plain Minecraft console lines.
+ */
+@Tag("benchmark")
+class AnsiStripperBenchmark {
+
+    private static final Pattern CSI = Pattern.compile("\\u001B\\[[;\\d]*[A-Za-z]");
+    private static final Pattern PRIVATE_MODE = Pattern.compile("\\u001B\\[\\?\\d+[lh]");
+    private static final int LINES = 1_000_000;
+    private static final String[] SAMPLES = {
+            "[12:00:01 INFO]: Done (4.213s)! For help, type \"help\"",
+            "\u001B[0;32m[12:00:02 INFO]: \u001B[0;33mSteve\u001B[0m joined the game\u001B[m",
+            "\u001B[?25l\u001B[38;5;214m>\u001B[0m \u001B[?25h",
+            "[12:00:03 WARN]: Can't keep up! Is the server overloaded? Running 2043ms or 40 ticks behind",
+            "\u001B[1;31m[12:00:04 ERROR]: \u001B[0mCould not pass event PlayerMoveEvent to Plugin v1.0\u001B[m",
+    };
+
+    private static volatile long sink;
+
+    @Test
+    void stripMixedLines() {
+        for (String sample : SAMPLES) {
+            assertEquals(stripWithRegexes(sample), AnsiStripper.strip(sample));
+        }
+        long regex = 0;
+        long stripper = 0;
+        for (int round = 0; round < 3; round++) {
+            regex = time(true);
+            stripper = time(false);
+        }
+        System.out.printf("regexes: %.3f us/line, stripper: %.3f us/line%n",
+                regex / 1000.0 / LINES, stripper / 1000.0 / LINES);
+    }
+
+    private static long time(boolean regexes) {
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < LINES; i++) {
+            String sample = SAMPLES[i % SAMPLES.length];
+            checksum += (regexes ? stripWithRegexes(sample) : AnsiStripper.strip(sample)).length();
+        }
+        long elapsed = System.nanoTime() - start;
+        sink = checksum;
+        return elapsed;
+    }
+
+    private static String stripWithRegexes(String line) {
+        return PRIVATE_MODE.matcher(CSI.matcher(line).replaceAll("")).replaceAll("");
+    }
+}
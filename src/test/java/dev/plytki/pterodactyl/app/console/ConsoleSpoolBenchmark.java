@@ -0,0 +1,57 @@
+package dev.plytki.pterodactyl.app.console;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measures appending coloured lines to a {@link ConsoleSpool}, and reading
+ * lines back at random sequences, which seeks through the sparse index and
+ * decodes each line from its segment.
+ */
+@Tag("benchmark")
+class ConsoleSpoolBenchmark {
+
+    private static final int LINES = 200_000;
+    private static final int SEEKS = 200_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void appendAndSeek() {
+        AnsiParser parser = new AnsiParser();
+        StyledLine[] lines = new StyledLine[LINES];
+        for (int i = 0; i < LINES; i++) {
+            lines[i] = parser.parse("\u001B[0;32m[12:00:00 INFO]: \u001B[0;33mline " + i + "\u001B[0m of the spool benchmark");
+        }
+
+        long appendStart = System.nanoTime();
+        try (ConsoleSpool spool = new ConsoleSpool(directory, 4L * 1024 * 1024, 8)) {
+            for (StyledLine line : lines) {
+                spool.append(line);
+            }
+            spool.flush();
+            long appendTime = System.nanoTime() - appendStart;
+            assertEquals(LINES, spool.getEnd() - spool.getFirst());
+
+            // Random sequences over the whole spool miss the small line cache.
+            Random random = new Random(42);
+            long first = spool.getFirst();
+            long seekStart = System.nanoTime();
+            for (int i = 0; i < SEEKS; i++) {
+                int index = random.nextInt(LINES);
+                assertEquals(lines[index].text(), spool.get(first + index));
+            }
+            long seekTime = System.nanoTime() - seekStart;
+
+            System.out.printf("append: %.3f us/line, random get(): %.3f us/lookup%n",
+                    appendTime / 1000.0 / LINES, seekTime / 1000.0 / SEEKS);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package dev.plytki.pterodactyl.app.console;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReplayReconcilerTest {
+
+    @Test
+    void replayOfLiveLinesIsDropped() {
+        ReplayReconciler reconciler = new ReplayReconciler(16);
+        List<String> stored = new ArrayList<>();
+        List.of("a", "b", "c").forEach(line -> reconciler.accept(line, stored::add));
+
+        reconciler.expectReplay();
+        List.of("b", "c", "d").forEach(line -> reconciler.accept(line, stored::add));
+
+        assertEquals(List.of("a", "b", "c", "d"), stored);
+        assertEquals(2, reconciler.getDropped());
+    }
+
+    @Test
+    void replayOfSeededLinesIsDroppedDespiteEscapes() {
+        ReplayReconciler reconciler = new ReplayReconciler(16);
+        // The spool keeps the visible text; the daemon replays the raw lines.
+        List.of("Starting", "Done (3.2s)!").forEach(reconciler::remember);
+        List<String> stored = new ArrayList<>();
+
+        reconciler.expectReplay();
+        List.of("\u001B[33mStarting\u001B[0m", "Done (3.2s)!", "new").forEach(line -> reconciler.accept(line, stored::add));
+
+        assertEquals(List.of("new"), stored);
+    }
+
+    @Test
+    void lineBreakingAPartialRunCanStartTheOverlap() {
+        ReplayReconciler reconciler = new ReplayReconciler(16);
+        List<String> stored = new ArrayList<>();
+        List.of("p", "q", "r").forEach(line -> reconciler.accept(line, stored::add));
+
+        // The first "p" starts a run that the second one breaks; the second
+        // one starts the run that reaches the newest stored line.
+        reconciler.expectReplay();
+        List.of("p", "p", "q", "r", "new").forEach(line -> reconciler.accept(line, stored::add));
+
+        assertEquals(List.of("p", "q", "r", "p", "new"), stored);
+        assertEquals(3, reconciler.getDropped());
+    }
+
+    @Test
+    void finishReplayReleasesHeldLines() {
+        ReplayReconciler reconciler = new ReplayReconciler(16);
+        List.of("a", "b", "c").forEach(reconciler::remember);
+        List<String> stored = new ArrayList<>();
+
+        reconciler.expectReplay();
+        reconciler.accept("a", stored::add);
+        reconciler.accept("b", stored::add);
+        assertTrue(reconciler.isHolding());
+        assertEquals(List.of(), stored);
+
+        reconciler.finishReplay(stored::add);
+        assertFalse(reconciler.isHolding());
+        assertEquals(List.of("a", "b"), stored);
+
+        reconciler.accept("c", stored::add);
+        assertEquals(List.of("a", "b", "c"), stored);
+    }
+
+    @Test
+    void finishReplayDropsCompletedMatch() {
+        ReplayReconciler reconciler = new ReplayReconciler(16);
+        List.of("a", "b").forEach(reconciler::remember);
+        List<String> stored = new ArrayList<>();
+
+        reconciler.expectReplay();
+        reconciler.accept("a", stored::add);
+        reconciler.accept("b", stored::add);
+        reconciler.finishReplay(stored::add);
+
+        assertEquals(List.of(), stored);
+        assertEquals(2, reconciler.getDropped());
+    }
+}
@@ -0,0 +1,85 @@
+package dev.plytki.pterodactyl.app.data;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ServerCatalogCacheTest {
+
+    // Magic, server count, record length, server_owner, then the identifier length.
+    private static final int COUNT_OFFSET = 4;
+    private static final int RECORD_LENGTH_OFFSET = 8;
+    private static final int IDENTIFIER_LENGTH_OFFSET = 13;
+
+    @TempDir
+    Path directory;
+
+    private Path file;
+    private ServerCatalogCache cache;
+
+    @BeforeEach
+    void saveSnapshot() {
+        file = directory.resolve("catalog.bin");
+        cache = new ServerCatalogCache(file);
+        cache.save(List.of(server("a1b2c3d4", "Lobby"), server("e5f6a7b8", "Survival")));
+    }
+
+    @Test
+    void loadsWhatWasSaved() {
+        List<ServerResponse.ServerAttributes> servers = cache.load();
+        assertEquals(2, servers.size());
+        assertArrayEquals(ServerCatalogCache.encode(server("e5f6a7b8", "Survival")), ServerCatalogCache.encode(servers.get(1)));
+    }
+
+    @Test
+    void ignoresServerCountLargerThanFile() throws IOException {
+        corruptInt(COUNT_OFFSET, Integer.MAX_VALUE);
+        assertNull(cache.load());
+    }
+
+    @Test
+    void ignoresNegativeRecordLength() throws IOException {
+        corruptInt(RECORD_LENGTH_OFFSET, -2);
+        assertNull(cache.load());
+    }
+
+    @Test
+    void ignoresStringLongerThanRecord() throws IOException {
+        corruptInt(IDENTIFIER_LENGTH_OFFSET, 1_000_000);
+        assertNull(cache.load());
+    }
+
+    @Test
+    void ignoresTruncatedSnapshot() throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 5));
+        assertNull(cache.load());
+    }
+
+    private void corruptInt(int offset, int value) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer.wrap(bytes).putInt(offset, value);
+        Files.write(file, bytes);
+    }
+
+    private static ServerResponse.ServerAttributes server(String identifier, String name) {
+        ServerResponse.ServerAttributes server = new ServerResponse.ServerAttributes();
+        server.identifier = identifier;
+        server.uuid = identifier + "-0000-0000-0000-000000000000";
+        server.name = name;
+        server.node = "node-1";
+        server.description = "";
+        return server;
+    }
+}
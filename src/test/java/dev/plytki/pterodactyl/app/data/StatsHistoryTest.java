@@ -0,0 +1,44 @@
+package dev.plytki.pterodactyl.app.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StatsHistoryTest {
+
+    @Test
+    void ringsAreAllocatedOnTheFirstSample() {
+        StatsHistory history = new StatsHistory(600, 1440, 720);
+        StatsHistory.Series series = new StatsHistory.Series();
+        assertEquals(0, history.getRetainedBytes());
+        assertEquals(0, history.size(StatsHistory.Resolution.SECOND));
+        assertEquals(0, history.read(StatsHistory.Resolution.HOUR, 0, series));
+
+        history.record(1_000, 10, 100, 0, 0, 0);
+        assertEquals((600 + 1440 + 720) * 64L, history.getRetainedBytes());
+        assertEquals(1, history.size(StatsHistory.Resolution.HOUR));
+    }
+
+    @Test
+    void pointsHoldMeanAndPeakPerInterval() {
+        StatsHistory history = new StatsHistory(4, 4, 4);
+        history.record(1_000, 10, 100, 5, 1, 2);
+        history.record(1_500, 30, 300, 6, 3, 4);
+        history.record(2_000, 20, 200, 7, 5, 6);
+        StatsHistory.Series series = new StatsHistory.Series();
+
+        assertEquals(2, history.read(StatsHistory.Resolution.SECOND, 0, series));
+        assertArrayEquals(new long[]{1_000, 2_000}, Arrays.copyOf(series.getTimestamps(), 2));
+        assertEquals(20, series.getCpu()[0]);
+        assertEquals(30, series.getCpuPeak()[0]);
+        assertEquals(200, series.getMemory()[0]);
+        assertEquals(300, series.getMemoryPeak()[0]);
+        assertEquals(6, series.getDisk()[0]);
+
+        assertEquals(1, history.read(StatsHistory.Resolution.SECOND, 1_500, series));
+        assertEquals(2_000, series.getTimestamps()[0]);
+    }
+}
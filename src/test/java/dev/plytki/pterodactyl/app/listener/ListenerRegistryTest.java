@@ -0,0 +1,121 @@
+package dev.plytki.pterodactyl.app.listener;
+
+import dev.plytki.pterodactyl.app.util.UiRefresher;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ListenerRegistryTest {
+
+    private static final int WINDOW_BYTES = 256 * 1024;
+
+    @Test
+    void heapStaysFlatOverWindowOpenCloseCycles() {
+        ListenerRegistry<Consumer<String>> registry = new ListenerRegistry<>();
+        UiRefresher refresher = new UiRefresher(UiRefresher.DEFAULT_RATE);
+        WeakReference<Object> lastWindow = null;
+
+        long before = usedHeapAfterGc();
+        for (int i = 0; i < 1000; i++) {
+            lastWindow = openAndCloseWindow(registry, refresher);
+        }
+        long after = usedHeapAfterGc();
+
+        assertEquals(0, registry.size());
+        assertEquals(0, refresher.getBindingCount());
+        assertNull(lastWindow.get(), "closed window is still reachable");
+        // 1,000 leaked windows would retain 250 MiB.
+        assertTrue(after - before < 16L * 1024 * 1024, "heap grew by " + (after - before) + " bytes");
+    }
+
+    @Test
+    void weakListenerIsPrunedOnceCollected() {
+        ListenerRegistry<Consumer<String>> registry = new ListenerRegistry<>();
+        // A method reference to a fresh object; a non-capturing lambda would be a constant.
+        registry.subscribeWeak(new StringBuilder()::append);
+        for (int i = 0; i < 10 && registry.size() > 0; i++) {
+            System.gc();
+            registry.forEach(listener -> listener.accept("line"));
+        }
+        assertEquals(0, registry.size());
+    }
+
+    @Test
+    void throwingListenerDoesNotStopOthers() {
+        ListenerRegistry<Consumer<String>> registry = new ListenerRegistry<>();
+        AtomicInteger calls = new AtomicInteger();
+        registry.subscribe(line -> {
+            throw new IllegalStateException("expected by the test");
+        });
+        registry.subscribe(line -> calls.incrementAndGet());
+        registry.forEach(listener -> listener.accept("line"));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void unsubscribingTwiceHasNoFurtherEffect() {
+        ListenerRegistry<Consumer<String>> registry = new ListenerRegistry<>();
+        Subscription first = registry.subscribe(line -> {
+        });
+        registry.subscribe(line -> {
+        });
+        first.unsubscribe();
+        first.unsubscribe();
+        assertEquals(1, registry.size());
+    }
+
+    /**
+     * Does what a management window does over its lifetime: registers a
+     * strong listener, a weak listener and a refresher binding that all
+     * capture the window, then unsubscribes everything on dispose.
+     */
+    private static WeakReference<Object> openAndCloseWindow(ListenerRegistry<Consumer<String>> registry, UiRefresher refresher) {
+        Window window = new Window();
+        List<Subscription> subscriptions = new ArrayList<>();
+        subscriptions.add(registry.subscribe(window::append));
+        subscriptions.add(registry.subscribeWeak(window.weakListener));
+        subscriptions.add(refresher.bind(window::getLineCount, window::setLineCount));
+        registry.forEach(listener -> listener.accept("line"));
+        subscriptions.forEach(Subscription::unsubscribe);
+        subscriptions.clear();
+        return new WeakReference<>(window);
+    }
+
+    private static long usedHeapAfterGc() {
+        Runtime runtime = Runtime.getRuntime();
+        long used = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+        }
+        return used;
+    }
+
+    private static final class Window {
+
+        private final byte[] payload = new byte[WINDOW_BYTES];
+        private final Consumer<String> weakListener = this::append;
+        private int lineCount;
+        private int shownCount;
+
+        private void append(String line) {
+            payload[lineCount++ % payload.length] = (byte) line.length();
+        }
+
+        private int getLineCount() {
+            return lineCount;
+        }
+
+        private void setLineCount(int count) {
+            shownCount = count;
+        }
+    }
+}
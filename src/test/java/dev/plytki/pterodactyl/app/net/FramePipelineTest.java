@@ -0,0 +1,37 @@
+package dev.plytki.pterodactyl.app.net;
+
+import dev.plytki.pterodactyl.app.data.Statistics;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FramePipelineTest {
+
+    @Test
+    void actionsRunInOrderWithFrames() {
+        List<String> decoded = new ArrayList<>();
+        FramePipeline pipeline = new FramePipeline(16, 16, FramePipeline.OverflowPolicy.BLOCK,
+                decoded::add, new NoDispatch(), Runnable::run);
+
+        pipeline.receive("first");
+        pipeline.runAfterReceived(() -> decoded.add("action"));
+        pipeline.receive("replay");
+
+        assertEquals(List.of("first", "action", "replay"), decoded);
+        assertEquals(0, pipeline.getFrameQueueDepth());
+    }
+
+    private static final class NoDispatch implements FramePipeline.Dispatcher {
+
+        @Override
+        public void dispatchStats(Statistics statistics) {
+        }
+
+        @Override
+        public void dispatchConsole(String line) {
+        }
+    }
+}